@@ -103,18 +103,23 @@ public class EvaluateCommand {
 
     Termination termination = new TerminationByEvaluations(executions);
 
+    var evaluation = new MultiThreadEvaluationMulti(16, problem, objectives.get(1).objectiveName);
     EvolutionaryAlgorithm<SchedulePermutationSolution> gaAlgo =
         new NSGAIIBuilder<>(problem, populationSize, offspringPopulationSize, crossover, mutation)
             .setTermination(termination)
-            .setEvaluation(
-                new MultiThreadEvaluationMulti(16, problem, objectives.get(1).objectiveName))
+            .setEvaluation(evaluation)
             //  .setSelection(new ScheduleSelection(new Random(seed)))
             //  .setReplacement(new ScheduleReplacement(new Random(seed)))
             .build();
 
     gaAlgo.observable().register(new FitnessObserver(100));
 
-    gaAlgo.run();
+    try {
+      gaAlgo.run();
+      LOG.info("Evaluator pool: {}", evaluation.getPool());
+    } finally {
+      evaluation.close();
+    }
 
     var population = gaAlgo.result();
     LOG.info("Total execution time : {} ms", gaAlgo.totalComputingTime());
@@ -2,14 +2,19 @@ package com.uniovi.sercheduler.commands;
 
 import com.uniovi.sercheduler.dao.Objective;
 import com.uniovi.sercheduler.dao.experiment.ExperimentConfig;
+import com.uniovi.sercheduler.dto.InstanceData;
 import com.uniovi.sercheduler.dto.analysis.GenerationInfo;
 import com.uniovi.sercheduler.jmetal.algorithm.*;
+import com.uniovi.sercheduler.jmetal.evaluation.CutoffEvaluation;
+import com.uniovi.sercheduler.jmetal.evaluation.MultiThreadEvaluationMulti;
 import com.uniovi.sercheduler.jmetal.evaluation.MultiThreadedEvaluation;
 import com.uniovi.sercheduler.jmetal.evaluation.SequentialEvaluationMulti;
+import com.uniovi.sercheduler.jmetal.evaluation.farm.FarmEvaluation;
 import com.uniovi.sercheduler.jmetal.operator.ScheduleCrossover;
 import com.uniovi.sercheduler.jmetal.operator.ScheduleMutation;
 import com.uniovi.sercheduler.jmetal.operator.ScheduleReplacement;
 import com.uniovi.sercheduler.jmetal.operator.ScheduleSelection;
+import com.uniovi.sercheduler.jmetal.problem.FitnessCache;
 import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
 import com.uniovi.sercheduler.jmetal.problem.SchedulingDoubleProblem;
 import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
@@ -20,6 +25,7 @@ import com.uniovi.sercheduler.service.Operators;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.DoubleSummaryStatistics;
 import java.util.HashMap;
@@ -27,6 +33,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Scanner;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -43,6 +51,8 @@ import org.uma.jmetal.component.algorithm.multiobjective.SMPSOBuilder;
 import org.uma.jmetal.component.algorithm.singleobjective.GeneticAlgorithmBuilder;
 import org.uma.jmetal.component.catalogue.common.evaluation.Evaluation;
 import org.uma.jmetal.component.catalogue.common.evaluation.impl.SequentialEvaluation;
+import org.uma.jmetal.component.catalogue.common.solutionscreation.SolutionsCreation;
+import org.uma.jmetal.component.catalogue.common.solutionscreation.impl.RandomSolutionsCreation;
 import org.uma.jmetal.component.catalogue.common.termination.Termination;
 import org.uma.jmetal.component.catalogue.common.termination.impl.TerminationByEvaluations;
 import org.uma.jmetal.lab.experiment.Experiment;
@@ -78,6 +88,15 @@ public class ExperimentJmetalCommand {
   final HostLoader hostLoader;
   final ExperimentConfigLoader experimentConfigLoader;
 
+  /** Evaluations holding threads, closed once the algorithms of the experiment end. */
+  private final List<AutoCloseable> openEvaluations = new ArrayList<>();
+
+  /** Workers of the evaluation farm of the running experiment, empty to evaluate here. */
+  private List<InetSocketAddress> farmWorkers = List.of();
+
+  private static final int FARM_BATCH_SIZE = 10;
+  private static final int FARM_BATCHES_IN_FLIGHT = 2;
+
   public ExperimentJmetalCommand(
       WorkflowLoader workflowLoader,
       HostLoader hostLoader,
@@ -230,6 +249,28 @@ public class ExperimentJmetalCommand {
     }
   }
 
+  /**
+   * The generations of a run for the convergence file, an island model merges those of its islands.
+   *
+   * @param algorithm The algorithm of the run.
+   * @return The generations, null if the algorithm doesn't record them.
+   */
+  private static List<GenerationInfo> generationsHistory(Algorithm<?> algorithm) {
+    if (algorithm instanceof MultiEvolutionaryAlgorithm multi) {
+      return multi.getGenerationsHistory();
+    }
+    if (algorithm instanceof IslandModel islandModel) {
+      var history = islandModel.getGenerationsHistory();
+      if (history == null) {
+        LOG.warn(
+            "Skipping {} in the convergence, its islands don't record their generations",
+            islandModel.name());
+      }
+      return history;
+    }
+    return null;
+  }
+
   private static void calculateConvergenceCSV(
       Integer executions,
       List<ExperimentAlgorithm<SchedulePermutationSolution, List<SchedulePermutationSolution>>>
@@ -247,7 +288,7 @@ public class ExperimentJmetalCommand {
                         SchedulePermutationSolution, List<SchedulePermutationSolution>>>>>
         algorithmsGrouped =
             algorithmList.stream()
-                .filter(e -> e.getAlgorithm() instanceof MultiEvolutionaryAlgorithm)
+                .filter(e -> generationsHistory(e.getAlgorithm()) != null)
                 .collect(
                     Collectors.groupingBy(
                         ExperimentAlgorithm::getProblemTag,
@@ -262,11 +303,7 @@ public class ExperimentJmetalCommand {
         for (var algorithm : byAlgorithm.getValue()) {
           System.out.println("Computing: " + byAlgorithm.getKey() + " for: " + byProblem.getKey());
           int generation = 0;
-          var generationsHistory =
-              ((MultiEvolutionaryAlgorithm) algorithm.getAlgorithm()).getGenerationsHistory();
-          if (generationsHistory == null) {
-            break;
-          }
+          var generationsHistory = generationsHistory(algorithm.getAlgorithm());
           for (var info : generationsHistory) {
             if (run == 0) {
               var hash = new HashMap<String, Double>();
@@ -445,6 +482,7 @@ public class ExperimentJmetalCommand {
       @Option(shortNames = 'C') String experimentConfigFile) {
 
     var experimentConfig = experimentConfigLoader.readFromFile(new File(experimentConfigFile));
+    farmWorkers = parseWorkers(experimentConfig.farmWorkers());
 
     var benchmarks = experimentConfig.workflows();
 
@@ -484,19 +522,35 @@ public class ExperimentJmetalCommand {
         var experimentProblem = new ExperimentProblem<>(baseProblem);
         problemList.add(experimentProblem);
 
+        // Every fitness works on the same instance, loading it once lets them share the
+        // precomputed data.
+        InstanceData instanceData = null;
         for (var f : fitness) {
 
           var problem =
-              new SchedulingProblem(
-                  benchmark + "-hosts-" + i,
-                  new File(workflowsPath + benchmark + ".json"),
-                  new File(hostsPath + type + "/hosts-" + i + ".json"),
-                  experimentConfig.referenceSpeed(),
-                  f,
-                  seed,
-                  objectives,
-                  objectives.get(0).objectiveName,
-                  executions);
+              instanceData == null
+                  ? new SchedulingProblem(
+                      benchmark + "-hosts-" + i,
+                      new File(workflowsPath + benchmark + ".json"),
+                      new File(hostsPath + type + "/hosts-" + i + ".json"),
+                      experimentConfig.referenceSpeed(),
+                      f,
+                      seed,
+                      objectives,
+                      objectives.get(0).objectiveName,
+                      executions)
+                  : new SchedulingProblem(
+                      benchmark + "-hosts-" + i,
+                      f,
+                      seed,
+                      instanceData,
+                      objectives,
+                      objectives.get(0).objectiveName,
+                      executions);
+          instanceData = problem.getInstanceData();
+          if (experimentConfig.fitnessCacheSize() > 0) {
+            problem.setFitnessCache(new FitnessCache(experimentConfig.fitnessCacheSize()));
+          }
           schedulingProblemList.add(problem);
 
           Operators operators = new Operators(problem.getInstanceData(), random);
@@ -511,20 +565,26 @@ public class ExperimentJmetalCommand {
 
             AlgoFlag flag = parseFlag(f);
             switch (flag) {
-              case MONO ->
-                  algorithm =
-                      new GeneticAlgorithmBuilder<>(
-                              "GGA",
-                              problem,
-                              populationSize,
-                              offspringPopulationSize,
-                              crossover,
-                              mutation)
-                          .setTermination(termination)
-                          .setEvaluation(getEvaluator("simple", problem, objectives))
-                          .setSelection(new ScheduleSelection(random))
-                          .setReplacement(new ScheduleReplacement(random, objectives.get(0)))
-                          .build();
+              case MONO -> {
+                // The children that can't win their tournament are not fully evaluated.
+                var replacement = new ScheduleReplacement(random, objectives.get(0));
+                var evaluation = new CutoffEvaluation(problem, replacement);
+                var geneticAlgorithm =
+                    new GeneticAlgorithmBuilder<>(
+                            "GGA",
+                            problem,
+                            populationSize,
+                            offspringPopulationSize,
+                            crossover,
+                            mutation)
+                        .setTermination(termination)
+                        .setEvaluation(evaluation)
+                        .setSelection(new ScheduleSelection(random))
+                        .setReplacement(replacement)
+                        .build();
+                evaluation.setPopulation(geneticAlgorithm::result);
+                algorithm = geneticAlgorithm;
+              }
 
               case MULTI_SPEA2 ->
                   algorithm =
@@ -545,62 +605,120 @@ public class ExperimentJmetalCommand {
 
               case MULTI_IBEA ->
                   algorithm =
-                      new IBEABuilder(problem, populationSize, 100, crossover, mutation)
-                          .setMaxEvaluations(executions)
-                          .setEvaluation(getEvaluator("multi", problem, objectives))
-                          .build();
+                      islands(
+                          experimentConfig,
+                          f,
+                          random,
+                          problem,
+                          operators,
+                          (islandOperators, initialPopulation) ->
+                              (Island)
+                                  new IBEABuilder(
+                                          problem,
+                                          populationSize,
+                                          100,
+                                          new ScheduleCrossover(1, islandOperators),
+                                          new ScheduleMutation(
+                                              mutationProbability, islandOperators))
+                                      .setMaxEvaluations(executions)
+                                      .setEvaluation(getEvaluator("multi", problem, objectives))
+                                      .setCreateInitialPopulation(
+                                          initialPopulation.apply(populationSize))
+                                      .build());
 
               case IBEA ->
                   algorithm =
-                      new IBEABuilder(problem, populationSize, 100, crossover, mutation)
-                          .setMaxEvaluations(executions)
-                          .setEvaluation(getEvaluator("simple", problem, objectives))
-                          .build();
+                      islands(
+                          experimentConfig,
+                          f,
+                          random,
+                          problem,
+                          operators,
+                          (islandOperators, initialPopulation) ->
+                              (Island)
+                                  new IBEABuilder(
+                                          problem,
+                                          populationSize,
+                                          100,
+                                          new ScheduleCrossover(1, islandOperators),
+                                          new ScheduleMutation(
+                                              mutationProbability, islandOperators))
+                                      .setMaxEvaluations(executions)
+                                      .setEvaluation(getEvaluator("simple", problem, objectives))
+                                      .setCreateInitialPopulation(
+                                          initialPopulation.apply(populationSize))
+                                      .build());
 
               case MULTI -> {
                 int customPopulationSize = 50;
-                var customCrossover = new ScheduleCrossover(1, operators);
+                double crossoverProbability = 1;
 
                 Pattern p = Pattern.compile("^multi-pop-(\\d+)-prob-([0-9]*\\.?[0-9]+)$");
                 Matcher m = p.matcher(f);
                 if (m.matches()) {
                   customPopulationSize = Integer.parseInt(m.group(1)) / 2;
-                  double crossoverProb = Double.parseDouble(m.group(2));
-                  customCrossover = new ScheduleCrossover(crossoverProb, operators);
+                  crossoverProbability = Double.parseDouble(m.group(2));
                 }
 
+                int islandPopulationSize = customPopulationSize;
+                double islandCrossoverProbability = crossoverProbability;
                 algorithm =
-                    new NSGAIIBuilderMulti(
-                            problem,
-                            customPopulationSize,
-                            customPopulationSize,
-                            customCrossover,
-                            mutation)
-                        .setTermination(termination)
-                        .setEvaluation(getEvaluator("multi", problem, objectives))
-                        .build();
+                    islands(
+                        experimentConfig,
+                        f,
+                        random,
+                        problem,
+                        operators,
+                        (islandOperators, initialPopulation) ->
+                            new NSGAIIBuilderMulti(
+                                    problem,
+                                    islandPopulationSize,
+                                    islandPopulationSize,
+                                    new ScheduleCrossover(
+                                        islandCrossoverProbability, islandOperators),
+                                    new ScheduleMutation(mutationProbability, islandOperators))
+                                .setTermination(termination)
+                                .setEvaluation(getEvaluator("multi", problem, objectives))
+                                .setEvaluationsInFlight(experimentConfig.evaluationsInFlight())
+                                .setCreateInitialPopulation(
+                                    initialPopulation.apply(islandPopulationSize))
+                                .build());
               }
 
               case MULTI_DOUBLE_EVAL ->
                   algorithm =
-                      new NSGAIIBuilderMulti(problem, 50, 50, crossover, mutation)
-                          .setTermination(new TerminationByEvaluations(executions * 2))
-                          .setEvaluation(getEvaluator("multi", problem, objectives))
-                          .build();
+                      islands(
+                          experimentConfig,
+                          f,
+                          random,
+                          problem,
+                          operators,
+                          (islandOperators, initialPopulation) ->
+                              new NSGAIIBuilderMulti(
+                                      problem,
+                                      50,
+                                      50,
+                                      new ScheduleCrossover(1, islandOperators),
+                                      new ScheduleMutation(mutationProbability, islandOperators))
+                                  .setTermination(new TerminationByEvaluations(executions * 2))
+                                  .setEvaluation(getEvaluator("multi", problem, objectives))
+                                  .setEvaluationsInFlight(experimentConfig.evaluationsInFlight())
+                                  .setCreateInitialPopulation(initialPopulation.apply(50))
+                                  .build());
               case MOHEFT -> algorithm = new MOHEFT(problem, 10);
               case MOACO ->
                   algorithm =
                       new MOACO(
                           problem,
                           random,
-                          getEvaluator("simple", problem, objectives),
+                          getEvaluator("parallel", problem, objectives),
                           new MoAcoParameters(350, 10, 1.0, 1.0, 2.0, 0.1));
               case MULTI_MOACO ->
                   algorithm =
                       new MOACO(
                           problem,
                           random,
-                          getEvaluator("multi", problem, objectives),
+                          getEvaluator("parallel-multi", problem, objectives),
                           new MoAcoParameters(350, 10, 1.0, 1.0, 2.0, 0.1));
               default ->
                   algorithm =
@@ -641,10 +759,20 @@ public class ExperimentJmetalCommand {
 
     long start = System.currentTimeMillis();
 
-    new ExecuteAlgorithms<>(experiment).run();
+    try {
+      new ExecuteAlgorithms<>(experiment).run();
+    } finally {
+      closeEvaluations();
+    }
 
     long end = System.currentTimeMillis();
 
+    for (var problem : schedulingProblemList) {
+      if (problem.getFitnessCache() != null) {
+        LOG.info("Fitness cache of {}: {}", problem.name(), problem.getFitnessCache());
+      }
+    }
+
     calculateConvergenceCSV(
         executions, algorithmList, populationSize, experimentConfig, experiment);
 
@@ -672,12 +800,119 @@ public class ExperimentJmetalCommand {
   private Evaluation<SchedulePermutationSolution> getEvaluator(
       String evaluator, Problem<SchedulePermutationSolution> problem, List<Objective> objectives) {
     return switch (evaluator) {
-      case "simple" -> new SequentialEvaluation<>(problem);
+      case "simple" -> {
+        if (farmWorkers.isEmpty() || !(problem instanceof SchedulingProblem schedulingProblem)) {
+          yield new SequentialEvaluation<>(problem);
+        }
+        var evaluation =
+            new FarmEvaluation(
+                schedulingProblem, farmWorkers, FARM_BATCH_SIZE, FARM_BATCHES_IN_FLIGHT);
+        synchronized (openEvaluations) {
+          openEvaluations.add(evaluation);
+        }
+        yield evaluation;
+      }
       case "multi" -> new SequentialEvaluationMulti(0, problem, objectives.get(1).objectiveName);
-      default -> new MultiThreadedEvaluation(0, problem);
+      case "parallel-multi" -> {
+        var evaluation =
+            new MultiThreadEvaluationMulti(0, problem, objectives.get(1).objectiveName);
+        synchronized (openEvaluations) {
+          openEvaluations.add(evaluation);
+        }
+        yield evaluation;
+      }
+      default -> {
+        var evaluation = new MultiThreadedEvaluation<>(0, problem);
+        synchronized (openEvaluations) {
+          openEvaluations.add(evaluation);
+        }
+        yield evaluation;
+      }
     };
   }
 
+  /**
+   * Builds an algorithm, as an island model when the experiment has more than one island. The first
+   * island uses the given operators, the others get operators with their own random generator. The
+   * islands run at the same time, so each one creates its initial population with its own seed
+   * instead of the generator of the problem.
+   *
+   * @param experimentConfig The experiment configuration.
+   * @param name The name of the algorithm.
+   * @param random The random generator of the experiment.
+   * @param problem The problem.
+   * @param operators The operators of the problem.
+   * @param island Builds an island with some operators and the creation of its population.
+   * @return The algorithm.
+   */
+  private static Algorithm<List<SchedulePermutationSolution>> islands(
+      ExperimentConfig experimentConfig,
+      String name,
+      Random random,
+      SchedulingProblem problem,
+      Operators operators,
+      BiFunction<Operators, IntFunction<SolutionsCreation<SchedulePermutationSolution>>, Island>
+          island) {
+    if (experimentConfig.islands() <= 1) {
+      return island.apply(operators, size -> new RandomSolutionsCreation<>(problem, size));
+    }
+    var islands = new ArrayList<Island>(experimentConfig.islands());
+    for (int i = 0; i < experimentConfig.islands(); i++) {
+      var islandOperators =
+          i == 0
+              ? operators
+              : new Operators(problem.getInstanceData(), new Random(random.nextLong()));
+      long seed = random.nextLong();
+      islands.add(
+          island.apply(islandOperators, size -> new SeededSolutionsCreation(problem, size, seed)));
+    }
+    return new IslandModel(
+        name,
+        islands,
+        IslandModel.Topology.of(experimentConfig.migrationTopology()),
+        experimentConfig.migrationInterval(),
+        experimentConfig.migrants(),
+        IslandModel.Policy.of(experimentConfig.migrationPolicy()),
+        random.nextLong());
+  }
+
+  /**
+   * Parses the addresses of the farm workers.
+   *
+   * @param workers The workers as host:port, null if there are none.
+   * @return The addresses.
+   */
+  private static List<InetSocketAddress> parseWorkers(List<String> workers) {
+    if (workers == null) {
+      return List.of();
+    }
+    return workers.stream()
+        .map(
+            worker -> {
+              int separator = worker.lastIndexOf(':');
+              if (separator < 0) {
+                throw new IllegalArgumentException("Expected host:port, got " + worker);
+              }
+              return new InetSocketAddress(
+                  worker.substring(0, separator),
+                  Integer.parseInt(worker.substring(separator + 1)));
+            })
+        .toList();
+  }
+
+  private void closeEvaluations() {
+    synchronized (openEvaluations) {
+      for (var evaluation : openEvaluations) {
+        try {
+          evaluation.close();
+        } catch (Exception e) {
+          LOG.warn("Couldn't close an evaluation", e);
+        }
+      }
+      openEvaluations.clear();
+    }
+  }
+
   enum AlgoFlag {
     MONO,
     MULTI_SPEA2,
@@ -2,6 +2,8 @@ package com.uniovi.sercheduler.commands;
 
 import com.uniovi.sercheduler.dao.Objective;
 import com.uniovi.sercheduler.jmetal.algorithm.*;
+import com.uniovi.sercheduler.jmetal.evaluation.MultiThreadEvaluationMultiDouble;
+import com.uniovi.sercheduler.jmetal.evaluation.MultiThreadedEvaluation;
 import com.uniovi.sercheduler.jmetal.evaluation.SequentialEvaluationMultiDouble;
 import com.uniovi.sercheduler.jmetal.problem.ScheduleDoubleSolution;
 import com.uniovi.sercheduler.jmetal.problem.SchedulingDoubleProblem;
@@ -27,6 +29,8 @@ import org.springframework.shell.command.annotation.Option;
 import org.uma.jmetal.algorithm.Algorithm;
 import org.uma.jmetal.component.algorithm.ParticleSwarmOptimizationAlgorithm;
 import org.uma.jmetal.component.algorithm.multiobjective.SMPSOBuilder;
+import org.uma.jmetal.component.catalogue.common.evaluation.Evaluation;
+import org.uma.jmetal.component.catalogue.common.evaluation.impl.SequentialEvaluation;
 import org.uma.jmetal.component.catalogue.common.termination.Termination;
 import org.uma.jmetal.component.catalogue.common.termination.impl.TerminationByEvaluations;
 import org.uma.jmetal.lab.experiment.Experiment;
@@ -60,6 +64,9 @@ public class ExperimentJmetalDoubleCommand {
   final HostLoader hostLoader;
   final ExperimentConfigLoader experimentConfigLoader;
 
+  /** Evaluations holding threads, closed once the algorithms of the experiment end. */
+  private final List<AutoCloseable> openEvaluations = new ArrayList<>();
+
   public ExperimentJmetalDoubleCommand(
       WorkflowLoader workflowLoader,
       HostLoader hostLoader,
@@ -296,8 +303,22 @@ public class ExperimentJmetalDoubleCommand {
 
             AlgoFlag flag = parseFlag(f);
             switch (flag) {
-              case MULTI_SMPSO -> algorithm = new SMPSOBuilderMulti(problem, populationSize).setEvaluation(new SequentialEvaluationMultiDouble(0, problem,objectives.get(1).objectiveName)).setTermination(termination).build();
-              case SMPSO -> algorithm = new SMPSOBuilder(problem, populationSize).setTermination(termination).build();
+              case MULTI_SMPSO ->
+                  algorithm =
+                      new SMPSOBuilderMulti(problem, populationSize)
+                          .setEvaluation(
+                              getEvaluator(
+                                  experimentConfig.evaluation(), true, problem, objectives))
+                          .setTermination(termination)
+                          .build();
+              case SMPSO ->
+                  algorithm =
+                      new SMPSOBuilder(problem, populationSize)
+                          .setEvaluation(
+                              getEvaluator(
+                                  experimentConfig.evaluation(), false, problem, objectives))
+                          .setTermination(termination)
+                          .build();
 
 
               default ->
@@ -333,7 +354,11 @@ public class ExperimentJmetalDoubleCommand {
 
     long start = System.currentTimeMillis();
 
-    new ExecuteAlgorithms<>(experiment).run();
+    try {
+      new ExecuteAlgorithms<>(experiment).run();
+    } finally {
+      closeEvaluations();
+    }
 
     long end = System.currentTimeMillis();
 
@@ -358,6 +383,51 @@ public class ExperimentJmetalDoubleCommand {
     return "All experiments done Execution time: " + (end - start) + " ms";
   }
 
+  /**
+   * Builds the evaluation of a particle swarm.
+   *
+   * @param evaluator "parallel" to evaluate in a shared pool of threads, sequential otherwise.
+   * @param multi If every particle is also evaluated with the alternative arbiter.
+   * @param problem The problem to evaluate.
+   * @param objectives The objectives, the second one is the alternative arbiter.
+   * @return The evaluation.
+   */
+  private Evaluation<DoubleSolution> getEvaluator(
+      String evaluator,
+      boolean multi,
+      Problem<DoubleSolution> problem,
+      List<Objective> objectives) {
+    var alternativeArbiter = objectives.get(1).objectiveName;
+    if (!"parallel".equals(evaluator)) {
+      return multi
+          ? new SequentialEvaluationMultiDouble(0, problem, alternativeArbiter)
+          : new SequentialEvaluation<>(problem);
+    }
+    return multi
+        ? open(new MultiThreadEvaluationMultiDouble(0, problem, alternativeArbiter))
+        : open(new MultiThreadedEvaluation<>(0, problem));
+  }
+
+  private <E extends AutoCloseable> E open(E evaluation) {
+    synchronized (openEvaluations) {
+      openEvaluations.add(evaluation);
+    }
+    return evaluation;
+  }
+
+  private void closeEvaluations() {
+    synchronized (openEvaluations) {
+      for (var evaluation : openEvaluations) {
+        try {
+          evaluation.close();
+        } catch (Exception e) {
+          LOG.warn("Couldn't close an evaluation", e);
+        }
+      }
+      openEvaluations.clear();
+    }
+  }
+
   enum AlgoFlag {
     MULTI_SMPSO,
     SMPSO,
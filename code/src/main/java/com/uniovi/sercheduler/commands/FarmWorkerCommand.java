@@ -0,0 +1,36 @@
+package com.uniovi.sercheduler.commands;
+
+import com.uniovi.sercheduler.jmetal.evaluation.farm.FarmWorker;
+import java.io.IOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.shell.command.annotation.Command;
+import org.springframework.shell.command.annotation.Option;
+
+/** Runs a worker of the evaluation farm used by the experiments. */
+@Command
+public class FarmWorkerCommand {
+
+  static final Logger LOG = LoggerFactory.getLogger(FarmWorkerCommand.class);
+
+  /**
+   * Evaluates the solutions sent by the experiments until the process is stopped.
+   *
+   * @param port The port to listen on.
+   * @param threads The threads evaluating the solutions, 0 for one per processor.
+   * @return The text to print at the end.
+   * @throws IOException If the port can't be opened.
+   * @throws InterruptedException If the command is interrupted.
+   */
+  @Command(command = "farm-worker")
+  public String farmWorker(
+      @Option(shortNames = 'P', defaultValue = "7070") Integer port,
+      @Option(shortNames = 'T', defaultValue = "0") Integer threads)
+      throws IOException, InterruptedException {
+    try (var worker = new FarmWorker(port, threads)) {
+      LOG.info("Farm worker listening on {}", worker.getPort());
+      worker.await();
+      return "Farm worker stopped: " + worker;
+    }
+  }
+}
@@ -11,4 +11,13 @@ public record ExperimentConfig(
     String referenceSpeed,
     int independentRuns,
     List<String> objectives,
-    boolean jmetalAnalysis) {}
+    boolean jmetalAnalysis,
+    int fitnessCacheSize,
+    int evaluationsInFlight,
+    int islands,
+    int migrationInterval,
+    int migrants,
+    String migrationTopology,
+    String migrationPolicy,
+    List<String> farmWorkers,
+    String evaluation) {}
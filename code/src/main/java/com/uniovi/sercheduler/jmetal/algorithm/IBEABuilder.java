@@ -25,7 +25,7 @@ public class IBEABuilder implements AlgorithmBuilder<IBEA<SchedulePermutationSol
   private final int archiveSize;
   private final Selection<SchedulePermutationSolution> selection;
   private final Variation<SchedulePermutationSolution> variation;
-  private final SolutionsCreation<SchedulePermutationSolution> createInitialPopulation;
+  private SolutionsCreation<SchedulePermutationSolution> createInitialPopulation;
   private final SelectionOperator<List<SchedulePermutationSolution>, SchedulePermutationSolution>
       selectionOperator;
   private final CrossoverOperator<SchedulePermutationSolution> crossover;
@@ -90,6 +90,13 @@ public class IBEABuilder implements AlgorithmBuilder<IBEA<SchedulePermutationSol
     return this;
   }
 
+  public IBEABuilder setCreateInitialPopulation(
+      SolutionsCreation<SchedulePermutationSolution> solutionsCreation) {
+    this.createInitialPopulation = solutionsCreation;
+
+    return this;
+  }
+
   public IBEA<SchedulePermutationSolution> build() {
 
     if (isGrouped) {
@@ -4,6 +4,7 @@ import com.uniovi.sercheduler.jmetal.evaluation.SequentialEvaluationMulti;
 import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.UnaryOperator;
 import org.uma.jmetal.algorithm.multiobjective.ibea.IBEA;
 import org.uma.jmetal.component.catalogue.common.evaluation.Evaluation;
 import org.uma.jmetal.component.catalogue.common.solutionscreation.SolutionsCreation;
@@ -12,11 +13,13 @@ import org.uma.jmetal.operator.mutation.MutationOperator;
 import org.uma.jmetal.operator.selection.SelectionOperator;
 import org.uma.jmetal.problem.Problem;
 
-public class IBEACustom extends IBEA<SchedulePermutationSolution> {
+public class IBEACustom extends IBEA<SchedulePermutationSolution> implements Island {
 
   private final SolutionsCreation<SchedulePermutationSolution> createInitialPopulation;
 
   private Evaluation<SchedulePermutationSolution> evaluation;
+  private final IndicatorFitness<SchedulePermutationSolution> indicatorFitness;
+  private UnaryOperator<List<SchedulePermutationSolution>> migration;
 
   public IBEACustom(
       Problem<SchedulePermutationSolution> problem,
@@ -34,6 +37,7 @@ public class IBEACustom extends IBEA<SchedulePermutationSolution> {
 
     this.evaluation = evaluation;
     this.createInitialPopulation = initialPopulationCreation;
+    this.indicatorFitness = new IndicatorFitness<>(problem.numberOfObjectives(), solutionFitness);
 
   }
 
@@ -50,16 +54,15 @@ public class IBEACustom extends IBEA<SchedulePermutationSolution> {
     int evaluations = solutionSet.size();
 
     List<SchedulePermutationSolution> offSpringSolutionSet;
+    List<SchedulePermutationSolution> immigrants = List.of();
     while (evaluations < maxEvaluations) {
       List<SchedulePermutationSolution> union = new ArrayList<>();
       union.addAll(solutionSet);
       union.addAll(archive);
-      calculateFitness(union);
-      archive = union;
-
-      while (archive.size() > populationSize) {
-        removeWorst(archive);
-      }
+      // The solutions received from other islands compete with the offspring.
+      union.addAll(immigrants);
+      archive = indicatorFitness.select(union, populationSize);
+      immigrants = migration == null ? List.of() : migration.apply(archive);
       // Create a new offspringPopulation
       offSpringSolutionSet = new ArrayList<>(populationSize);
       SchedulePermutationSolution parent1;
@@ -94,4 +97,9 @@ public class IBEACustom extends IBEA<SchedulePermutationSolution> {
       solutionSet = offSpringSolutionSet;
     }
   }
+
+  @Override
+  public void migration(UnaryOperator<List<SchedulePermutationSolution>> migration) {
+    this.migration = migration;
+  }
 }
@@ -4,6 +4,7 @@ import com.uniovi.sercheduler.jmetal.evaluation.SequentialEvaluationMulti;
 import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.UnaryOperator;
 import org.uma.jmetal.algorithm.multiobjective.ibea.IBEA;
 import org.uma.jmetal.component.catalogue.common.evaluation.Evaluation;
 import org.uma.jmetal.component.catalogue.common.solutionscreation.SolutionsCreation;
@@ -11,12 +12,14 @@ import org.uma.jmetal.component.catalogue.ea.selection.Selection;
 import org.uma.jmetal.component.catalogue.ea.variation.Variation;
 import org.uma.jmetal.problem.Problem;
 
-public class IBEACustomGrouped extends IBEA<SchedulePermutationSolution> {
+public class IBEACustomGrouped extends IBEA<SchedulePermutationSolution> implements Island {
 
   private final SolutionsCreation<SchedulePermutationSolution> createInitialPopulation;
   private final Selection<SchedulePermutationSolution> selection;
   private final Variation<SchedulePermutationSolution> variation;
   private Evaluation<SchedulePermutationSolution> evaluation;
+  private final IndicatorFitness<SchedulePermutationSolution> indicatorFitness;
+  private UnaryOperator<List<SchedulePermutationSolution>> migration;
 
   public IBEACustomGrouped(
       Problem<SchedulePermutationSolution> problem,
@@ -32,6 +35,7 @@ public class IBEACustomGrouped extends IBEA<SchedulePermutationSolution> {
 
     this.evaluation = evaluation;
     this.createInitialPopulation = initialPopulationCreation;
+    this.indicatorFitness = new IndicatorFitness<>(problem.numberOfObjectives(), solutionFitness);
     this.selection = selection;
     this.variation = variation;
   }
@@ -49,16 +53,15 @@ public class IBEACustomGrouped extends IBEA<SchedulePermutationSolution> {
     int evaluations = solutionSet.size();
 
     List<SchedulePermutationSolution> offSpringSolutionSet;
+    List<SchedulePermutationSolution> immigrants = List.of();
     while (evaluations < maxEvaluations) {
       List<SchedulePermutationSolution> union = new ArrayList<>();
       union.addAll(solutionSet);
       union.addAll(archive);
-      calculateFitness(union);
-      archive = union;
-
-      while (archive.size() > populationSize) {
-        removeWorst(archive);
-      }
+      // The solutions received from other islands compete with the offspring.
+      union.addAll(immigrants);
+      archive = indicatorFitness.select(union, populationSize);
+      immigrants = migration == null ? List.of() : migration.apply(archive);
       offSpringSolutionSet = this.selection.select(archive);
       offSpringSolutionSet = this.variation.variate(solutionSet, offSpringSolutionSet);
       solutionSet = this.evaluation.evaluate(offSpringSolutionSet);
@@ -73,4 +76,9 @@ public class IBEACustomGrouped extends IBEA<SchedulePermutationSolution> {
       evaluations += this.variation.getOffspringPopulationSize() * multiplier;
     }
   }
+
+  @Override
+  public void migration(UnaryOperator<List<SchedulePermutationSolution>> migration) {
+    this.migration = migration;
+  }
 }
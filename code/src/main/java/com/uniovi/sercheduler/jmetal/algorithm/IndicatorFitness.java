@@ -0,0 +1,180 @@
+package com.uniovi.sercheduler.jmetal.algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.uma.jmetal.algorithm.multiobjective.ibea.IBEA;
+import org.uma.jmetal.solution.Solution;
+import org.uma.jmetal.util.VectorUtils;
+import org.uma.jmetal.util.comparator.dominanceComparator.impl.DominanceWithConstraintsComparator;
+import org.uma.jmetal.util.solutionattribute.impl.Fitness;
+
+/**
+ * The environmental selection of {@link IBEA}, with the same hypervolume indicator and results.
+ *
+ * <p>IBEA removes the worst solution of the union until it fits the population, and every removal
+ * subtracts its contribution from the fitness of the rest. jMetal keeps the indicator values in
+ * lists of boxed doubles and deletes a row and a column of them on each removal, which makes the
+ * selection O(N³). Here the contributions are computed once per generation in a matrix that is
+ * reused between generations, and the removed solutions are only dropped from the list of the
+ * remaining ones, so the selection is O(N²).
+ *
+ * @param <S> The type of the solutions.
+ */
+final class IndicatorFitness<S extends Solution<?>> {
+
+  private static final double KAPPA = 0.05;
+  private static final double RHO = 2.0;
+
+  private final int numberOfObjectives;
+  private final Fitness<S> solutionFitness;
+  private final DominanceWithConstraintsComparator<S> dominance =
+      new DominanceWithConstraintsComparator<>();
+  private final double[] maximumValues;
+  private final double[] minimumValues;
+
+  /** The contribution of the solution of each row to the fitness of the one of each column. */
+  private double[][] contributions = new double[0][];
+  private double[] fitness = new double[0];
+  private int[] remaining = new int[0];
+
+  /**
+   * Full constructor.
+   *
+   * @param numberOfObjectives The objectives of the problem.
+   * @param solutionFitness The attribute that gets the fitness of the selected solutions.
+   */
+  IndicatorFitness(int numberOfObjectives, Fitness<S> solutionFitness) {
+    this.numberOfObjectives = numberOfObjectives;
+    this.solutionFitness = solutionFitness;
+    this.maximumValues = new double[numberOfObjectives];
+    this.minimumValues = new double[numberOfObjectives];
+  }
+
+  /**
+   * Removes the worst solutions until the rest fit in the population, like {@link
+   * IBEA#calculateFitness(List)} followed by {@link IBEA#removeWorst(List)}.
+   *
+   * @param union The solutions competing for the population.
+   * @param populationSize The solutions to keep.
+   * @return The kept solutions, in the order of the union, with their fitness.
+   */
+  List<S> select(List<S> union, int populationSize) {
+    int size = union.size();
+    ensureCapacity(size);
+    computeContributions(union);
+
+    int remainingSize = size;
+    for (int i = 0; i < size; i++) {
+      remaining[i] = i;
+    }
+    while (remainingSize > populationSize) {
+      // The first one with the highest fitness, as jMetal does.
+      int worst = 0;
+      for (int i = 1; i < remainingSize; i++) {
+        if (fitness[remaining[i]] > fitness[remaining[worst]]) {
+          worst = i;
+        }
+      }
+      var removed = contributions[remaining[worst]];
+      for (int i = 0; i < remainingSize; i++) {
+        if (i != worst) {
+          fitness[remaining[i]] -= removed[remaining[i]];
+        }
+      }
+      System.arraycopy(remaining, worst + 1, remaining, worst, remainingSize - worst - 1);
+      remainingSize--;
+    }
+
+    var selected = new ArrayList<S>(remainingSize);
+    for (int i = 0; i < remainingSize; i++) {
+      var solution = union.get(remaining[i]);
+      solutionFitness.setAttribute(solution, fitness[remaining[i]]);
+      selected.add(solution);
+    }
+    return selected;
+  }
+
+  private void ensureCapacity(int size) {
+    if (contributions.length < size) {
+      contributions = new double[size][size];
+      fitness = new double[size];
+      remaining = new int[size];
+    }
+  }
+
+  private void computeContributions(List<S> union) {
+    int size = union.size();
+    for (int i = 0; i < numberOfObjectives; i++) {
+      maximumValues[i] = -Double.MAX_VALUE;
+      minimumValues[i] = Double.MAX_VALUE;
+    }
+    for (var solution : union) {
+      for (int i = 0; i < numberOfObjectives; i++) {
+        double value = solution.objectives()[i];
+        if (value > maximumValues[i]) {
+          maximumValues[i] = value;
+        }
+        if (value < minimumValues[i]) {
+          minimumValues[i] = value;
+        }
+      }
+    }
+
+    // Without constraints the comparator only tests the objectives, and it builds a message on
+    // every comparison.
+    boolean constrained = union.stream().anyMatch(solution -> solution.constraints().length > 0);
+    double maxIndicatorValue = -Double.MAX_VALUE;
+    for (int i = 0; i < size; i++) {
+      var a = union.get(i);
+      var row = contributions[i];
+      for (int j = 0; j < size; j++) {
+        var b = union.get(j);
+        int flag =
+            constrained
+                ? dominance.compare(a, b)
+                : VectorUtils.dominanceTest(a.objectives(), b.objectives());
+        double value;
+        if (flag == -1) {
+          value = -hypervolume(a.objectives(), b.objectives(), numberOfObjectives);
+        } else {
+          value = hypervolume(b.objectives(), a.objectives(), numberOfObjectives);
+        }
+        if (Math.abs(value) > maxIndicatorValue) {
+          maxIndicatorValue = Math.abs(value);
+        }
+        row[j] = value;
+      }
+    }
+
+    // The fitness of each solution adds the contributions in the order of the union.
+    for (int j = 0; j < size; j++) {
+      fitness[j] = 0.0;
+    }
+    for (int i = 0; i < size; i++) {
+      var row = contributions[i];
+      for (int j = 0; j < size; j++) {
+        row[j] = Math.exp(-row[j] / maxIndicatorValue / KAPPA);
+        if (i != j) {
+          fitness[j] += row[j];
+        }
+      }
+    }
+  }
+
+  /** The hypervolume dominated by the first solution and not by the second one, if any. */
+  private double hypervolume(double[] first, double[] second, int objectives) {
+    double range = RHO * (maximumValues[objectives - 1] - minimumValues[objectives - 1]);
+    double reference = minimumValues[objectives - 1] + range;
+    double a = first[objectives - 1];
+    double b = second == null ? reference : second[objectives - 1];
+
+    if (objectives == 1) {
+      return a < b ? (b - a) / range : 0.0;
+    }
+    if (a < b) {
+      return hypervolume(first, null, objectives - 1) * (b - a) / range
+          + hypervolume(first, second, objectives - 1) * (reference - b) / range;
+    }
+    return hypervolume(first, second, objectives - 1) * (reference - a) / range;
+  }
+}
@@ -0,0 +1,19 @@
+package com.uniovi.sercheduler.jmetal.algorithm;
+
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import org.uma.jmetal.algorithm.Algorithm;
+
+/** Algorithm that can run as one of the islands of an {@link IslandModel}. */
+public interface Island extends Algorithm<List<SchedulePermutationSolution>> {
+
+  /**
+   * Sets the migration of the island. It's called at the end of every generation with the current
+   * population, in the thread running the island, and returns the solutions received from other
+   * islands. They are already evaluated, the island inserts them with its own replacement.
+   *
+   * @param migration The migration, null to run isolated.
+   */
+  void migration(UnaryOperator<List<SchedulePermutationSolution>> migration);
+}
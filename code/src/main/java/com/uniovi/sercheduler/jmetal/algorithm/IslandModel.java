@@ -0,0 +1,356 @@
+package com.uniovi.sercheduler.jmetal.algorithm;
+
+import com.uniovi.sercheduler.dto.analysis.GenerationInfo;
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import org.uma.jmetal.algorithm.Algorithm;
+import org.uma.jmetal.util.archive.impl.NonDominatedSolutionListArchive;
+import org.uma.jmetal.util.comparator.dominanceComparator.DominanceComparator;
+import org.uma.jmetal.util.comparator.dominanceComparator.impl.DefaultDominanceComparator;
+
+/**
+ * Runs several independent populations, the islands, each one in its own thread.
+ *
+ * <p>Every {@code interval} generations an island sends copies of some of its solutions to its
+ * neighbours in the topology. The received solutions wait in a queue until the next generation of
+ * the island that gets them, which inserts them with its own replacement, so they take the place of
+ * its worst solutions. The islands never wait for each other.
+ *
+ * <p>Every island runs until its own termination, the result is the non dominated solutions of all
+ * of them.
+ */
+public class IslandModel implements Algorithm<List<SchedulePermutationSolution>> {
+
+  /** Which islands receive the solutions of an island. */
+  public enum Topology {
+    /** The next island, the last one sends to the first one. */
+    RING,
+    /** Every other island. */
+    FULLY_CONNECTED;
+
+    /**
+     * Parses a topology name, case insensitive.
+     *
+     * @param name The name, null for a ring.
+     * @return The topology.
+     */
+    public static Topology of(String name) {
+      return name == null ? RING : valueOf(name.toUpperCase().replace('-', '_'));
+    }
+  }
+
+  /** Which solutions leave an island. */
+  public enum Policy {
+    /** The ones dominated by fewer solutions of the island. */
+    BEST,
+    /** Random ones. */
+    RANDOM;
+
+    /**
+     * Parses a policy name, case insensitive.
+     *
+     * @param name The name, null for the best solutions.
+     * @return The policy.
+     */
+    public static Policy of(String name) {
+      return name == null ? BEST : valueOf(name.toUpperCase());
+    }
+  }
+
+  private static final DominanceComparator<SchedulePermutationSolution> DOMINANCE =
+      new DefaultDominanceComparator<>();
+
+  private final String name;
+  private final transient List<? extends Island> islands;
+  private final Topology topology;
+  private final int interval;
+  private final int migrants;
+  private final Policy policy;
+  private final long seed;
+  private final transient List<Queue<SchedulePermutationSolution>> inboxes;
+  private final LongAdder migrated = new LongAdder();
+  private transient List<SchedulePermutationSolution> result;
+  private long totalComputingTime;
+
+  /**
+   * Full constructor.
+   *
+   * @param name The name of the algorithm.
+   * @param islands The islands, they must not share their operators or random generators.
+   * @param topology The topology of the migrations.
+   * @param interval The generations between two migrations of an island, 0 to never migrate.
+   * @param migrants The number of solutions an island sends to each neighbour.
+   * @param policy The solutions that are sent.
+   * @param seed The seed of the random choices of the migrations.
+   */
+  public IslandModel(
+      String name,
+      List<? extends Island> islands,
+      Topology topology,
+      int interval,
+      int migrants,
+      Policy policy,
+      long seed) {
+    if (islands.isEmpty()) {
+      throw new IllegalArgumentException("There must be at least one island");
+    }
+    if (interval < 0 || migrants < 0) {
+      throw new IllegalArgumentException(
+          "The migration interval and size can't be negative: " + interval + ", " + migrants);
+    }
+    this.name = name;
+    this.islands = List.copyOf(islands);
+    this.topology = topology;
+    this.interval = interval;
+    this.migrants = migrants;
+    this.policy = policy;
+    this.seed = seed;
+    this.inboxes = new ArrayList<>(islands.size());
+    for (int i = 0; i < islands.size(); i++) {
+      inboxes.add(new ConcurrentLinkedQueue<>());
+    }
+  }
+
+  @Override
+  public void run() {
+    long initTime = System.currentTimeMillis();
+    boolean migrating = interval > 0 && migrants > 0 && islands.size() > 1;
+    for (int i = 0; i < islands.size(); i++) {
+      islands.get(i).migration(migrating ? new Migration(i, new Random(seed + i)) : null);
+    }
+
+    var threadNumber = new AtomicInteger();
+    var executor =
+        Executors.newFixedThreadPool(
+            islands.size(),
+            runnable -> {
+              var thread = new Thread(runnable, name + "-island-" + threadNumber.getAndIncrement());
+              thread.setDaemon(true);
+              return thread;
+            });
+    try {
+      var futures = new ArrayList<Future<?>>(islands.size());
+      for (var island : islands) {
+        futures.add(executor.submit(island));
+      }
+      await(futures);
+    } finally {
+      executor.shutdownNow();
+      for (var island : islands) {
+        island.migration(null);
+      }
+    }
+
+    var archive = new NonDominatedSolutionListArchive<SchedulePermutationSolution>();
+    for (var island : islands) {
+      island.result().forEach(archive::add);
+    }
+    this.result = archive.solutions();
+    this.totalComputingTime = System.currentTimeMillis() - initTime;
+  }
+
+  private static void await(List<Future<?>> futures) {
+    try {
+      for (var future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while running the islands", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /** Migration of one island, only used by the thread running it. */
+  private final class Migration implements UnaryOperator<List<SchedulePermutationSolution>> {
+
+    private final int island;
+    private final Random random;
+    private int generation;
+
+    Migration(int island, Random random) {
+      this.island = island;
+      this.random = random;
+    }
+
+    @Override
+    public List<SchedulePermutationSolution> apply(List<SchedulePermutationSolution> population) {
+      if (++generation % interval == 0) {
+        var emigrants = select(population);
+        for (int target : neighbours()) {
+          for (var emigrant : emigrants) {
+            inboxes.get(target).add(copyEvaluated(emigrant));
+          }
+          migrated.add(emigrants.size());
+        }
+      }
+
+      var inbox = inboxes.get(island);
+      if (inbox.isEmpty()) {
+        return List.of();
+      }
+      var immigrants = new ArrayList<SchedulePermutationSolution>();
+      SchedulePermutationSolution immigrant;
+      while ((immigrant = inbox.poll()) != null) {
+        immigrants.add(immigrant);
+      }
+      return immigrants;
+    }
+
+    private List<SchedulePermutationSolution> select(List<SchedulePermutationSolution> population) {
+      var candidates = new ArrayList<>(population);
+      // Shuffling first breaks the ties between the best solutions at random.
+      Collections.shuffle(candidates, random);
+      int count = Math.min(migrants, candidates.size());
+      if (policy == Policy.RANDOM) {
+        return candidates.subList(0, count);
+      }
+
+      int size = candidates.size();
+      var dominatedBy = new int[size];
+      for (int i = 0; i < size; i++) {
+        for (int j = i + 1; j < size; j++) {
+          int comparison = DOMINANCE.compare(candidates.get(i), candidates.get(j));
+          if (comparison < 0) {
+            dominatedBy[j]++;
+          } else if (comparison > 0) {
+            dominatedBy[i]++;
+          }
+        }
+      }
+      return IntStream.range(0, size)
+          .boxed()
+          .sorted(Comparator.comparingInt(i -> dominatedBy[i]))
+          .limit(count)
+          .map(candidates::get)
+          .toList();
+    }
+
+    private int[] neighbours() {
+      return switch (topology) {
+        case RING -> new int[] {(island + 1) % islands.size()};
+        case FULLY_CONNECTED ->
+            IntStream.range(0, islands.size()).filter(i -> i != island).toArray();
+      };
+    }
+  }
+
+  /**
+   * Copies an evaluated solution, the copy keeps the objectives so the receiving island doesn't
+   * evaluate it again. The islands never share a solution, their algorithms write its attributes.
+   *
+   * @param solution The solution.
+   * @return The copy.
+   */
+  private static SchedulePermutationSolution copyEvaluated(SchedulePermutationSolution solution) {
+    var copy = (SchedulePermutationSolution) solution.copy();
+    var objectives = solution.objectives();
+    System.arraycopy(objectives, 0, copy.objectives(), 0, objectives.length);
+    copy.setMultiResult(solution.getMultiResult());
+    return copy;
+  }
+
+  /**
+   * The number of solutions sent between islands.
+   *
+   * @return The migrated solutions.
+   */
+  public long getMigrated() {
+    return migrated.sum();
+  }
+
+  public List<? extends Island> getIslands() {
+    return islands;
+  }
+
+  /**
+   * The history of the whole model, merging the islands generation by generation. The averages of
+   * the islands are weighted by their populations and their counts are added. Only the generations
+   * reached by every island are kept.
+   *
+   * @return The history, null if some island doesn't record one.
+   */
+  public List<GenerationInfo> getGenerationsHistory() {
+    var histories = new ArrayList<List<GenerationInfo>>(islands.size());
+    for (var island : islands) {
+      if (!(island instanceof MultiEvolutionaryAlgorithm algorithm)
+          || algorithm.getGenerationsHistory() == null) {
+        return null;
+      }
+      histories.add(algorithm.getGenerationsHistory());
+    }
+
+    int generations = histories.stream().mapToInt(List::size).min().orElse(0);
+    var merged = new ArrayList<GenerationInfo>(generations);
+    for (int generation = 0; generation < generations; generation++) {
+      double makespan = 0;
+      double energy = 0;
+      int size = 0;
+      int[] counts = new int[8];
+      for (var history : histories) {
+        var info = history.get(generation);
+        int islandSize = info.objectiveEnergyCount() + info.objectiveMakespanCount();
+        makespan += info.makespan() * islandSize;
+        energy += info.energy() * islandSize;
+        size += islandSize;
+        counts[0] += info.objectiveEnergyCount();
+        counts[1] += info.objectiveMakespanCount();
+        counts[2] += info.simpleEnergyCount();
+        counts[3] += info.function1EnergyCount();
+        counts[4] += info.function2EnergyCount();
+        counts[5] += info.simpleMakespanCount();
+        counts[6] += info.function1MakespanCount();
+        counts[7] += info.function2MakespanCount();
+      }
+      merged.add(
+          new GenerationInfo(
+              makespan / size,
+              energy / size,
+              counts[0],
+              counts[1],
+              counts[2],
+              counts[3],
+              counts[4],
+              counts[5],
+              counts[6],
+              counts[7]));
+    }
+    return merged;
+  }
+
+  public long totalComputingTime() {
+    return totalComputingTime;
+  }
+
+  @Override
+  public List<SchedulePermutationSolution> result() {
+    return result;
+  }
+
+  @Override
+  public String name() {
+    return name;
+  }
+
+  @Override
+  public String description() {
+    return "Island model of " + islands.size() + " " + islands.get(0).name();
+  }
+}
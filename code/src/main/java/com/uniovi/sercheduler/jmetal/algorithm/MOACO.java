@@ -3,16 +3,19 @@ package com.uniovi.sercheduler.jmetal.algorithm;
 import com.uniovi.sercheduler.dao.Objective;
 import com.uniovi.sercheduler.dto.Host;
 import com.uniovi.sercheduler.dto.Task;
+import com.uniovi.sercheduler.jmetal.evaluation.EvaluatorPool;
+import com.uniovi.sercheduler.jmetal.evaluation.MultiThreadEvaluationMulti;
 import com.uniovi.sercheduler.jmetal.evaluation.SequentialEvaluationMulti;
 import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
 import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
-import com.uniovi.sercheduler.service.PlanPair;
 import com.uniovi.sercheduler.service.TaskSchedule;
-import com.uniovi.sercheduler.service.core.SchedulingHelper;
+import com.uniovi.sercheduler.service.core.CompactPlan;
+import com.uniovi.sercheduler.service.core.CompiledInstance;
+import com.uniovi.sercheduler.service.core.InstancePrecomputation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.uma.jmetal.algorithm.Algorithm;
@@ -22,17 +25,23 @@ import org.uma.jmetal.util.archive.impl.CrowdingDistanceArchive;
 /**
  * Initial skeleton for the Multi-Objective Ant Colony Optimization (MOACO) algorithm specifically
  * designed for the SchedulingProblem.
+ *
+ * <p>The ants of an iteration are built in parallel with the pheromone left by the previous one,
+ * each with its own random stream split from the algorithm's generator, and then evaluated
+ * together. The local pheromone updates and the archive follow the order of the ants once all of
+ * them are done, so a run only depends on the seed and not on the number of threads.
  */
 public class MOACO implements Algorithm<List<SchedulePermutationSolution>> {
 
   private static final Logger logger = LoggerFactory.getLogger(MOACO.class);
   private final SchedulingProblem problem;
-  Random random = new Random();
+  private final CompiledInstance instance;
+  private final SplittableRandom random;
 
   // Pheromone matrix: pheromone[i][j] represents pheromone level for assigning task i to host j
   private double[][] pheromone;
-  private List<String> taskIds;
-  private List<String> hostIds;
+  // Heuristic matrix: execution time and energy of task i in host j, raised to beta / 2
+  private final double[][] heuristic;
 
   // Parameters (can be tuned later)
   private final double alpha; // Pheromone importance
@@ -42,13 +51,10 @@ public class MOACO implements Algorithm<List<SchedulePermutationSolution>> {
 
   private final int maxIterations;
   private final int antsPerIteration;
+  private final int numberOfThreads;
 
   private final double initialPheromone;
 
-
-
-  private final Map<String, Map<String, Double>> computationMatrix;
-
   private final CrowdingDistanceArchive<SchedulePermutationSolution> archive;
   private List<SchedulePermutationSolution> solutions;
 
@@ -68,16 +74,13 @@ public class MOACO implements Algorithm<List<SchedulePermutationSolution>> {
       Evaluation<SchedulePermutationSolution> evaluation,
       MoAcoParameters parameters) {
     this.problem = problem;
-    this.taskIds = problem.getInstanceData().workflow().keySet().stream().toList();
-    this.hostIds = problem.getInstanceData().hosts().keySet().stream().toList();
+    var precomputation = InstancePrecomputation.of(problem.getInstanceData());
+    this.instance = precomputation.getCompiledInstance();
     this.archive = new CrowdingDistanceArchive<>(ARCHIVE_SIZE);
     this.solutions = new ArrayList<>();
-    this.random = random;
+    this.random = new SplittableRandom(random.nextLong());
 
     this.evaluation = evaluation;
-    this.computationMatrix =
-        SchedulingHelper.calculateComputationMatrix(
-            problem.getInstanceData(), problem.getInstanceData().referenceFlops());
 
     // Parameters initialization
     this.alpha = parameters.alpha();
@@ -86,126 +89,151 @@ public class MOACO implements Algorithm<List<SchedulePermutationSolution>> {
     this.rho = parameters.rho();
     this.maxIterations = parameters.iterations();
     this.antsPerIteration = parameters.numberOfAnts();
-    this.initialPheromone = (double) antsPerIteration / taskIds.size();
+    this.numberOfThreads =
+        parameters.threads() == 0
+            ? Runtime.getRuntime().availableProcessors()
+            : parameters.threads();
+    this.initialPheromone = (double) antsPerIteration / instance.taskCount();
     initializePheromoneMatrix();
-
-
+    this.heuristic = heuristicMatrix(precomputation.getComputationMatrix());
   }
 
-  /** Constructs a schedule solution probabilistically using pheromone and heuristic information. */
-  private SchedulePermutationSolution constructAntSolution() {
-    List<PlanPair> plan = new ArrayList<>();
-
-    Map<String, Task> workflow = problem.getInstanceData().workflow();
-    Map<String, List<String>> parentStatus =
-        workflow.values().stream()
-            .map(
-                t ->
-                    Map.entry(
-                        t.getName(),
-                        t.getParents().stream().map(Task::getName).collect(Collectors.toList())))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
-    Map<String, Task> tasksToExplore =
-        workflow.values().stream()
-            .filter(t -> t.getParents().isEmpty())
-            .collect(Collectors.toMap(Task::getName, t -> t));
-
-    while (!tasksToExplore.isEmpty()) {
-      List<Task> availableTasks = new ArrayList<>(tasksToExplore.values());
-      Task task = availableTasks.get(random.nextInt(availableTasks.size()));
-      int taskIdx = taskIds.indexOf(task.getName());
-
-      // Compute selection probabilities for hosts
-      double[] probabilities = new double[hostIds.size()];
-      double denominator = 0.0;
-
-      for (int j = 0; j < hostIds.size(); j++) {
-        double pheromoneVal = pheromone[taskIdx][j];
-        String hostId = hostIds.get(j);
-        double execTime = estimateExecutionTime(task, hostId);
-        double energy = estimateEnergy(task, hostId);
-        double numerator =
-            Math.pow(pheromoneVal, alpha)
-                * Math.pow(execTime, beta / 2.0)
-                * Math.pow(energy, beta / 2.0);
-        probabilities[j] = numerator;
-        denominator += numerator;
+  private double[][] heuristicMatrix(Map<String, Map<String, Double>> computationMatrix) {
+    var matrix = new double[instance.taskCount()][instance.hostCount()];
+    for (int i = 0; i < instance.taskCount(); i++) {
+      var task = instance.task(i);
+      for (int j = 0; j < instance.hostCount(); j++) {
+        var host = instance.host(j);
+        double execTime = estimateExecutionTime(task, host, computationMatrix);
+        double energy = execTime * host.getEnergyCost();
+        matrix[i][j] = Math.pow(execTime, beta / 2.0) * Math.pow(energy, beta / 2.0);
       }
+    }
+    return matrix;
+  }
 
-      for (int j = 0; j < probabilities.length; j++) {
-        probabilities[j] /= denominator;
+  /**
+   * Constructs a schedule solution probabilistically using pheromone and heuristic information.
+   *
+   * @param weights The pheromone raised to alpha times the heuristic, for each task and host.
+   * @param random The random stream of the ant.
+   * @return The solution, not evaluated.
+   */
+  private SchedulePermutationSolution constructAntSolution(
+      double[][] weights, SplittableRandom random) {
+    int taskCount = instance.taskCount();
+    int hostCount = instance.hostCount();
+    int[] parentOffsets = instance.parentOffsets();
+    int[] childOffsets = instance.childOffsets();
+    int[] children = instance.children();
+
+    int[] pendingParents = new int[taskCount];
+    int[] ready = new int[taskCount];
+    int readyCount = 0;
+    for (int task = 0; task < taskCount; task++) {
+      pendingParents[task] = parentOffsets[task + 1] - parentOffsets[task];
+      if (pendingParents[task] == 0) {
+        ready[readyCount++] = task;
       }
+    }
+
+    int[] tasks = new int[taskCount];
+    int[] hosts = new int[taskCount];
+    for (int position = 0; position < taskCount; position++) {
+      int readyIdx = random.nextInt(readyCount);
+      int taskIdx = ready[readyIdx];
+      ready[readyIdx] = ready[--readyCount];
 
-      double r = random.nextDouble();
+      // Roulette over the hosts, the first host when rounding leaves r past the total
+      double[] taskWeights = weights[taskIdx];
+      double denominator = 0.0;
+      for (int j = 0; j < hostCount; j++) {
+        denominator += taskWeights[j];
+      }
+      double r = random.nextDouble() * denominator;
       double cumulative = 0.0;
       int selectedHostIdx = 0;
-      for (int j = 0; j < probabilities.length; j++) {
-        cumulative += probabilities[j];
+      for (int j = 0; j < hostCount; j++) {
+        cumulative += taskWeights[j];
         if (r <= cumulative) {
           selectedHostIdx = j;
           break;
         }
       }
 
-      String selectedHost = hostIds.get(selectedHostIdx);
-      plan.add(new PlanPair(task, problem.getInstanceData().hosts().get(selectedHost)));
+      tasks[position] = taskIdx;
+      hosts[position] = selectedHostIdx;
 
-      tasksToExplore.remove(task.getName());
-      for (Task child : task.getChildren()) {
-        List<String> parents = parentStatus.get(child.getName());
-        parents.remove(task.getName());
-        if (parents.isEmpty()) {
-          tasksToExplore.put(child.getName(), child);
+      for (int c = childOffsets[taskIdx]; c < childOffsets[taskIdx + 1]; c++) {
+        int child = children[c];
+        if (--pendingParents[child] == 0) {
+          ready[readyCount++] = child;
         }
       }
     }
 
+    var plan = CompactPlan.of(instance, tasks, hosts);
     return new SchedulePermutationSolution(
         plan.size(), problem.numberOfObjectives(), null, plan, Objective.ENERGY.objectiveName);
   }
 
-  private double estimateExecutionTime(Task task, String hostId) {
-    Host host = problem.getInstanceData().hosts().get(hostId);
-    var computationTime = computationMatrix.get(task.getName()).get(hostId);
+  private static double estimateExecutionTime(
+      Task task, Host host, Map<String, Map<String, Double>> computationMatrix) {
+    var computationTime = computationMatrix.get(task.getName()).get(host.getName());
     return computationTime + ((double) task.getOutput().getSizeInBits() / host.getDiskSpeed());
   }
 
-  private double estimateEnergy(Task task, String hostId) {
-    Host host = problem.getInstanceData().hosts().get(hostId);
-    double execTime = estimateExecutionTime(task, hostId);
-    return execTime * host.getEnergyCost();
-  }
-
   /** Executes the MOACO algorithm logic. This method will be implemented step by step. */
   @Override
   public void run() {
+    // The MOCMF evaluates every ant twice, so it builds half of them
+    boolean evaluatedTwice =
+        evaluation instanceof SequentialEvaluationMulti
+            || evaluation instanceof MultiThreadEvaluationMulti;
+    int ants = evaluatedTwice ? (antsPerIteration + 1) / 2 : antsPerIteration;
+    var weights = new double[instance.taskCount()][instance.hostCount()];
+    var antIds = IntStream.range(0, ants).boxed().toList();
+
+    var pool = EvaluatorPool.acquire(numberOfThreads);
+    try {
+      for (int iteration = 0; iteration < maxIterations; iteration++) {
+        updateWeights(weights);
+
+        // The streams are split before the parallel phase, so each ant gets the same one
+        var antSolutions = new SchedulePermutationSolution[ants];
+        var antRandoms = new SplittableRandom[ants];
+        for (int i = 0; i < ants; i++) {
+          antRandoms[i] = random.split();
+        }
+        pool.evaluate(
+            antIds, i -> antSolutions[i] = constructAntSolution(weights, antRandoms[i]));
 
-    for (int iteration = 0; iteration < maxIterations; iteration++) {
-      List<SchedulePermutationSolution> currentAnts = new ArrayList<>();
-
-      for (int i = 0; i < antsPerIteration; i++) {
-        SchedulePermutationSolution solution = constructAntSolution();
-        var solutions = evaluation.evaluate(List.of(solution));
+        var currentAnts = evaluation.evaluate(Arrays.asList(antSolutions));
 
         // update the local pheromone
-        solutions.forEach(this::localPheromoneUpdate);
+        currentAnts.forEach(this::localPheromoneUpdate);
 
-        solutions.forEach(archive::add);
+        currentAnts.forEach(archive::add);
 
-        currentAnts.addAll(solutions); // For update
-        // logSolution(iteration, i, solution);
-        if (evaluation instanceof SequentialEvaluationMulti) {
-          // We need to update the counter of ants if we are using the MOCMF
-          i++;
-        }
+        // Add global pheromone update based on current ants
+        globalPheromoneUpdate(currentAnts);
       }
-      // Add global pheromone update based on current ants
-      globalPheromoneUpdate(currentAnts);
+    } finally {
+      pool.release();
     }
     solutions = archive.solutions();
   }
 
+  /** Raises the pheromone to alpha and multiplies it by the heuristic, once per iteration. */
+  private void updateWeights(double[][] weights) {
+    for (int i = 0; i < weights.length; i++) {
+      for (int j = 0; j < weights[i].length; j++) {
+        double pheromoneVal = alpha == 1.0 ? pheromone[i][j] : Math.pow(pheromone[i][j], alpha);
+        weights[i][j] = pheromoneVal * heuristic[i][j];
+      }
+    }
+  }
+
   private void globalPheromoneUpdate(List<SchedulePermutationSolution> currentAnts) {
     // Step 1: Evaporation (keep this)
     for (int i = 0; i < pheromone.length; i++) {
@@ -220,8 +248,8 @@ public class MOACO implements Algorithm<List<SchedulePermutationSolution>> {
     for (var solution : archive.solutions()) {
 
       for (TaskSchedule assignment : solution.getFitnessInfo().schedule()) {
-        int taskIdx = getTaskIndex(assignment.task().getName());
-        int hostIdx = getHostIndex(assignment.host().getName());
+        int taskIdx = instance.taskId(assignment.task());
+        int hostIdx = instance.hostId(assignment.host());
 
         double time = assignment.eft();
         double energy = assignment.eft() * assignment.host().getEnergyCost();
@@ -234,8 +262,8 @@ public class MOACO implements Algorithm<List<SchedulePermutationSolution>> {
 
   private void localPheromoneUpdate(SchedulePermutationSolution solution) {
     for (var pair : solution.getPlan()) {
-      int taskIdx = getTaskIndex(pair.task().getName());
-      int hostIdx = getHostIndex(pair.host().getName());
+      int taskIdx = instance.taskId(pair.task());
+      int hostIdx = instance.hostId(pair.host());
       localPheromoneUpdate(taskIdx, hostIdx);
     }
   }
@@ -281,8 +309,8 @@ public class MOACO implements Algorithm<List<SchedulePermutationSolution>> {
 
   /** Initializes the pheromone matrix with default values. */
   private void initializePheromoneMatrix() {
-    int numberOfTasks = taskIds.size();
-    int numberOfHosts = hostIds.size();
+    int numberOfTasks = instance.taskCount();
+    int numberOfHosts = instance.hostCount();
     pheromone = new double[numberOfTasks][numberOfHosts];
 
 
@@ -292,13 +320,4 @@ public class MOACO implements Algorithm<List<SchedulePermutationSolution>> {
       }
     }
   }
-
-  // Optionally: add helper methods to get indices from task/host names if needed
-  private int getTaskIndex(String taskId) {
-    return taskIds.indexOf(taskId);
-  }
-
-  private int getHostIndex(String hostId) {
-    return hostIds.indexOf(hostId);
-  }
 }
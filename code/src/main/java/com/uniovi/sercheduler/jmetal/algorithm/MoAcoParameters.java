@@ -1,3 +1,18 @@
 package com.uniovi.sercheduler.jmetal.algorithm;
 
-public record MoAcoParameters(int iterations, int numberOfAnts, double alpha, double beta, double lambda, double rho) {}
+/** The parameters of {@link MOACO}, {@code threads} build the ants, 0 for one per processor. */
+public record MoAcoParameters(
+    int iterations,
+    int numberOfAnts,
+    double alpha,
+    double beta,
+    double lambda,
+    double rho,
+    int threads) {
+
+  /** Builds the ants with one thread per processor. */
+  public MoAcoParameters(
+      int iterations, int numberOfAnts, double alpha, double beta, double lambda, double rho) {
+    this(iterations, numberOfAnts, alpha, beta, lambda, rho, 0);
+  }
+}
@@ -1,8 +1,8 @@
 package com.uniovi.sercheduler.jmetal.algorithm;
 
 import com.uniovi.sercheduler.dto.analysis.GenerationInfo;
+import com.uniovi.sercheduler.jmetal.evaluation.EvaluatorPool;
 import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
-import org.uma.jmetal.algorithm.Algorithm;
 import org.uma.jmetal.component.algorithm.EvolutionaryAlgorithm;
 import org.uma.jmetal.component.catalogue.common.evaluation.Evaluation;
 import org.uma.jmetal.component.catalogue.common.solutionscreation.SolutionsCreation;
@@ -14,13 +14,26 @@ import org.uma.jmetal.util.observable.Observable;
 import org.uma.jmetal.util.observable.ObservableEntity;
 import org.uma.jmetal.util.observable.impl.DefaultObservable;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
-public class MultiEvolutionaryAlgorithm
-    implements Algorithm<List<SchedulePermutationSolution>>, ObservableEntity<Map<String, Object>> {
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.function.UnaryOperator;
+
+/**
+ * Evolutionary algorithm that keeps track of the fitness function chosen for every solution.
+ *
+ * <p>By default it's generational, every offspring is evaluated before the replacement. With
+ * {@link #evaluationsInFlight(int)} it runs in a steady state mode instead: the offspring are
+ * evaluated by a pool of threads and each one is inserted in the population with the replacement as
+ * soon as its evaluation finishes, while new offspring are bred from the current population to keep
+ * the threads busy.
+ */
+public class MultiEvolutionaryAlgorithm implements Island, ObservableEntity<Map<String, Object>> {
 
   private List<SchedulePermutationSolution> population;
   private Evaluation<SchedulePermutationSolution> evaluation;
@@ -36,6 +49,8 @@ public class MultiEvolutionaryAlgorithm
   private final Observable<Map<String, Object>> observable;
   private final String name;
   private ArrayList<GenerationInfo> generationsHistory;
+  private int evaluationsInFlight;
+  private UnaryOperator<List<SchedulePermutationSolution>> migration;
 
   public MultiEvolutionaryAlgorithm(
       String name,
@@ -70,19 +85,102 @@ public class MultiEvolutionaryAlgorithm
 
     this.initProgress();
 
-    while (!this.termination.isMet(this.attributes)) {
-      List<SchedulePermutationSolution> matingPopulation = this.selection.select(this.population);
-      List<SchedulePermutationSolution> offspringPopulation =
-          this.variation.variate(this.population, matingPopulation);
-      offspringPopulation = this.evaluation.evaluate(offspringPopulation);
-      this.population = this.replacement.replace(this.population, offspringPopulation);
-      updateGenerationsHistory();
-      this.updateProgress();
+    if (evaluationsInFlight > 0) {
+      runSteadyState();
+    } else {
+      while (!this.termination.isMet(this.attributes)) {
+        List<SchedulePermutationSolution> matingPopulation =
+            this.selection.select(this.population);
+        List<SchedulePermutationSolution> offspringPopulation =
+            this.variation.variate(this.population, matingPopulation);
+        offspringPopulation = this.evaluation.evaluate(offspringPopulation);
+        this.population = this.replacement.replace(this.population, offspringPopulation);
+        migrate();
+        updateGenerationsHistory();
+        this.updateProgress();
+      }
     }
 
     this.totalComputingTime = System.currentTimeMillis() - this.initTime;
   }
 
+  /**
+   * Keeps up to {@link #evaluationsInFlight} offspring being evaluated. The selection, the
+   * variation and the replacement only run in this thread, the workers just evaluate. Once the
+   * termination is met no more offspring are submitted, the ones in flight are still inserted.
+   */
+  private void runSteadyState() {
+    int threads = Math.min(evaluationsInFlight, Runtime.getRuntime().availableProcessors());
+    // Not shared, the evaluation may use a shared pool itself.
+    var pool = EvaluatorPool.dedicated(threads);
+    CompletionService<List<SchedulePermutationSolution>> completion =
+        new ExecutorCompletionService<>(pool);
+    var pending = new ArrayDeque<SchedulePermutationSolution>();
+    int inFlight = 0;
+    int inserted = 0;
+    try {
+      boolean terminated = this.termination.isMet(this.attributes);
+      while (true) {
+        while (!terminated && inFlight < evaluationsInFlight) {
+          if (pending.isEmpty()) {
+            var matingPopulation = this.selection.select(this.population);
+            pending.addAll(this.variation.variate(this.population, matingPopulation));
+          }
+          var offspring = pending.poll();
+          completion.submit(() -> this.evaluation.evaluate(List.of(offspring)));
+          inFlight++;
+        }
+        if (inFlight == 0) {
+          break;
+        }
+
+        var evaluated = takeEvaluated(completion);
+        inFlight--;
+        this.population = this.replacement.replace(this.population, evaluated);
+        this.evaluations += evaluated.size();
+        this.attributes.put("EVALUATIONS", this.evaluations);
+
+        // A generation is counted every time as many offspring as the generational mode creates
+        // have been inserted.
+        if (++inserted == this.variation.getOffspringPopulationSize()) {
+          inserted = 0;
+          migrate();
+          updateGenerationsHistory();
+          publishProgress();
+        }
+        terminated = terminated || this.termination.isMet(this.attributes);
+      }
+    } finally {
+      pool.release();
+    }
+  }
+
+  /** Inserts the solutions received from other islands, they compete with the population. */
+  private void migrate() {
+    if (this.migration == null) {
+      return;
+    }
+    var immigrants = this.migration.apply(this.population);
+    if (!immigrants.isEmpty()) {
+      this.population = this.replacement.replace(this.population, immigrants);
+    }
+  }
+
+  private static List<SchedulePermutationSolution> takeEvaluated(
+      CompletionService<List<SchedulePermutationSolution>> completion) {
+    try {
+      return completion.take().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while evaluating", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
   private void updateGenerationsHistory() {
 
     double totalEnergy = 0;
@@ -143,6 +241,10 @@ public class MultiEvolutionaryAlgorithm
 
   protected void updateProgress() {
     this.evaluations += this.variation.getOffspringPopulationSize() * 2;
+    publishProgress();
+  }
+
+  private void publishProgress() {
     this.attributes.put("EVALUATIONS", this.evaluations);
     this.attributes.put("POPULATION", this.population);
     this.attributes.put("COMPUTING_TIME", this.currentComputingTime());
@@ -211,6 +313,29 @@ public class MultiEvolutionaryAlgorithm
     return this.evaluation;
   }
 
+  /**
+   * Sets how many offspring can be evaluated at the same time in the steady state mode.
+   *
+   * @param evaluationsInFlight The maximum number of evaluations in flight, 0 for the generational
+   *     mode.
+   */
+  public void evaluationsInFlight(int evaluationsInFlight) {
+    if (evaluationsInFlight < 0) {
+      throw new IllegalArgumentException(
+          "The evaluations in flight can't be negative: " + evaluationsInFlight);
+    }
+    this.evaluationsInFlight = evaluationsInFlight;
+  }
+
+  public int evaluationsInFlight() {
+    return this.evaluationsInFlight;
+  }
+
+  @Override
+  public void migration(UnaryOperator<List<SchedulePermutationSolution>> migration) {
+    this.migration = migration;
+  }
+
   public ArrayList<GenerationInfo> getGenerationsHistory() {
     return generationsHistory;
   }
@@ -1,6 +1,7 @@
 package com.uniovi.sercheduler.jmetal.algorithm;
 
 import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.jmetal.ranking.BiObjectiveRanking;
 import java.util.Arrays;
 import java.util.Comparator;
 import org.uma.jmetal.component.catalogue.common.evaluation.Evaluation;
@@ -22,7 +23,6 @@ import org.uma.jmetal.util.comparator.MultiComparator;
 import org.uma.jmetal.util.densityestimator.DensityEstimator;
 import org.uma.jmetal.util.densityestimator.impl.CrowdingDistanceDensityEstimator;
 import org.uma.jmetal.util.ranking.Ranking;
-import org.uma.jmetal.util.ranking.impl.FastNonDominatedSortRanking;
 
 public class NSGAIIBuilderMulti {
   private String name;
@@ -34,6 +34,7 @@ public class NSGAIIBuilderMulti {
   private Selection<SchedulePermutationSolution> selection;
   private Variation<SchedulePermutationSolution> variation;
   private Replacement<SchedulePermutationSolution> replacement;
+  private int evaluationsInFlight;
 
   public NSGAIIBuilderMulti(
       Problem<SchedulePermutationSolution> problem,
@@ -44,7 +45,7 @@ public class NSGAIIBuilderMulti {
     name = "NSGAIIMulti";
 
     densityEstimator = new CrowdingDistanceDensityEstimator<>();
-    ranking = new FastNonDominatedSortRanking<>();
+    ranking = new BiObjectiveRanking<>();
 
     this.createInitialPopulation = new RandomSolutionsCreation<>(problem, populationSize);
 
@@ -98,8 +99,30 @@ public class NSGAIIBuilderMulti {
     return this;
   }
 
+  /**
+   * Runs the algorithm in steady state mode, see {@link MultiEvolutionaryAlgorithm}.
+   *
+   * @param evaluationsInFlight The maximum number of evaluations in flight, 0 for the generational
+   *     mode.
+   * @return The builder.
+   */
+  public NSGAIIBuilderMulti setEvaluationsInFlight(int evaluationsInFlight) {
+    this.evaluationsInFlight = evaluationsInFlight;
+
+    return this;
+  }
+
   public MultiEvolutionaryAlgorithm build() {
-    return new MultiEvolutionaryAlgorithm(
-        name, createInitialPopulation, evaluation, termination, selection, variation, replacement);
+    var algorithm =
+        new MultiEvolutionaryAlgorithm(
+            name,
+            createInitialPopulation,
+            evaluation,
+            termination,
+            selection,
+            variation,
+            replacement);
+    algorithm.evaluationsInFlight(evaluationsInFlight);
+    return algorithm;
   }
 }
@@ -0,0 +1,44 @@
+package com.uniovi.sercheduler.jmetal.algorithm;
+
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
+import com.uniovi.sercheduler.service.PlanGenerator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.uma.jmetal.component.catalogue.common.solutionscreation.SolutionsCreation;
+
+/**
+ * Creates random solutions of a problem with a plan generator of its own, so algorithms running at
+ * the same time, like the islands of an {@link IslandModel}, don't share the random generator of
+ * the problem and their initial populations only depend on their seeds.
+ */
+public class SeededSolutionsCreation implements SolutionsCreation<SchedulePermutationSolution> {
+
+  private final SchedulingProblem problem;
+  private final int numberOfSolutionsToCreate;
+  private final PlanGenerator planGenerator;
+
+  /**
+   * Full constructor.
+   *
+   * @param problem The problem of the solutions.
+   * @param numberOfSolutionsToCreate The solutions created at once.
+   * @param seed The seed of the plan generator.
+   */
+  public SeededSolutionsCreation(
+      SchedulingProblem problem, int numberOfSolutionsToCreate, long seed) {
+    this.problem = problem;
+    this.numberOfSolutionsToCreate = numberOfSolutionsToCreate;
+    this.planGenerator = new PlanGenerator(new Random(seed), problem.getInstanceData());
+  }
+
+  @Override
+  public List<SchedulePermutationSolution> create() {
+    var solutions = new ArrayList<SchedulePermutationSolution>(numberOfSolutionsToCreate);
+    for (int i = 0; i < numberOfSolutionsToCreate; i++) {
+      solutions.add(problem.createSolution(planGenerator));
+    }
+    return solutions;
+  }
+}
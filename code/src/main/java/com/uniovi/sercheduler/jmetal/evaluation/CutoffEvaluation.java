@@ -0,0 +1,87 @@
+package com.uniovi.sercheduler.jmetal.evaluation;
+
+import com.uniovi.sercheduler.jmetal.operator.ScheduleReplacement;
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
+import java.util.List;
+import java.util.function.Supplier;
+import org.uma.jmetal.component.catalogue.common.evaluation.Evaluation;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.util.errorchecking.Check;
+
+/**
+ * Sequential evaluation that stops evaluating the children that can't survive the {@link
+ * ScheduleReplacement}. Each child receives as cutoff the value it has to improve in its
+ * tournament, the children that can't improve it are marked as dominated and the replacement
+ * discards them as it would have done with their full fitness.
+ */
+public class CutoffEvaluation implements Evaluation<SchedulePermutationSolution> {
+
+  private final SchedulingProblem problem;
+  private final ScheduleReplacement replacement;
+  private Supplier<List<SchedulePermutationSolution>> population = List::of;
+  private int computedEvaluations;
+  private int stoppedEvaluations;
+
+  public CutoffEvaluation(SchedulingProblem problem, ScheduleReplacement replacement) {
+    Check.notNull(problem);
+    Check.notNull(replacement);
+
+    this.problem = problem;
+    this.replacement = replacement;
+    computedEvaluations = 0;
+  }
+
+  @Override
+  public List<SchedulePermutationSolution> evaluate(
+      List<SchedulePermutationSolution> solutionList) {
+    Check.notNull(solutionList);
+
+    var parents = population.get();
+    var objective = replacement.getObjective().objectiveName;
+    for (int i = 0; i < solutionList.size(); i++) {
+      // The initial population has no parents to compete with.
+      double cutoff =
+          parents == solutionList ? Double.POSITIVE_INFINITY : replacement.cutoff(parents, i);
+      problem.evaluate(solutionList.get(i), objective, cutoff);
+      if (solutionList.get(i).getFitnessInfo().isDominated()) {
+        stoppedEvaluations++;
+      }
+    }
+    computedEvaluations = solutionList.size();
+
+    return solutionList;
+  }
+
+  /**
+   * Sets where the current population of the algorithm is read from, the parents of the children
+   * being evaluated. Until it's set every evaluation is complete.
+   *
+   * @param population The source of the population.
+   * @return The evaluation.
+   */
+  public CutoffEvaluation setPopulation(Supplier<List<SchedulePermutationSolution>> population) {
+    Check.notNull(population);
+    this.population = population;
+    return this;
+  }
+
+  @Override
+  public int computedEvaluations() {
+    return computedEvaluations;
+  }
+
+  /**
+   * How many evaluations have been stopped by their cutoff since the evaluation was created.
+   *
+   * @return The number of dominated children.
+   */
+  public int stoppedEvaluations() {
+    return stoppedEvaluations;
+  }
+
+  @Override
+  public Problem<SchedulePermutationSolution> problem() {
+    return problem;
+  }
+}
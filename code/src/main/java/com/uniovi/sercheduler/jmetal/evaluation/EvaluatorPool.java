@@ -0,0 +1,230 @@
+package com.uniovi.sercheduler.jmetal.evaluation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Long lived threads that evaluate populations.
+ *
+ * <p>The evaluations with the same number of threads share one pool, which is started the first
+ * time one of them needs it and stopped when the last one is closed, instead of creating new
+ * threads for every generation. A population is split in chunks that the threads take one after
+ * another, so a thread that got cheap solutions keeps working while the others finish.
+ *
+ * <p>Single evaluations can also be submitted, as an {@link Executor}, by the algorithms that don't
+ * wait for a whole population.
+ *
+ * <p>The pool counts the time the chunks wait before a thread takes them and the time the threads
+ * spend evaluating. It's thread safe.
+ */
+public final class EvaluatorPool implements Executor {
+
+  /** Chunks each thread gets on average, more chunks balance better but add more handoffs. */
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  private static final Map<Integer, EvaluatorPool> SHARED = new HashMap<>();
+
+  private final int numberOfThreads;
+  private final ExecutorService executor;
+  private int users;
+
+  private final LongAdder chunks = new LongAdder();
+  private final LongAdder queueNanos = new LongAdder();
+  private final LongAdder busyNanos = new LongAdder();
+
+  private EvaluatorPool(int numberOfThreads) {
+    this.numberOfThreads = numberOfThreads;
+    var threadNumber = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            numberOfThreads,
+            runnable -> {
+              var name = "evaluator-" + numberOfThreads + "-" + threadNumber.incrementAndGet();
+              var thread = new Thread(runnable, name);
+              // An evaluation that is never closed doesn't keep the application running.
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Gets the shared pool with a number of threads, every call must be followed by a {@link
+   * #release()} once the pool isn't needed.
+   *
+   * @param numberOfThreads The number of threads.
+   * @return The pool.
+   */
+  public static EvaluatorPool acquire(int numberOfThreads) {
+    if (numberOfThreads <= 0) {
+      throw new IllegalArgumentException(
+          "The number of threads must be positive: " + numberOfThreads);
+    }
+    synchronized (SHARED) {
+      var pool = SHARED.computeIfAbsent(numberOfThreads, EvaluatorPool::new);
+      pool.users++;
+      return pool;
+    }
+  }
+
+  /**
+   * Creates a pool that isn't shared, released like a shared one. The work submitted to it can
+   * use a shared pool without both waiting for each other.
+   *
+   * @param numberOfThreads The number of threads.
+   * @return The pool.
+   */
+  public static EvaluatorPool dedicated(int numberOfThreads) {
+    if (numberOfThreads <= 0) {
+      throw new IllegalArgumentException(
+          "The number of threads must be positive: " + numberOfThreads);
+    }
+    var pool = new EvaluatorPool(numberOfThreads);
+    pool.users = 1;
+    return pool;
+  }
+
+  /** Stops using the pool, its threads are stopped when nobody else uses it. */
+  public void release() {
+    synchronized (SHARED) {
+      if (users <= 0) {
+        throw new IllegalStateException("The pool was already released");
+      }
+      users--;
+      if (users == 0) {
+        SHARED.remove(numberOfThreads, this);
+        executor.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Evaluates every element of a list with the threads of the pool, waiting until all of them are
+   * done.
+   *
+   * @param elements The elements to evaluate.
+   * @param evaluator The evaluation of one element.
+   * @param <T> The type of the elements.
+   */
+  public <T> void evaluate(List<T> elements, Consumer<T> evaluator) {
+    int size = elements.size();
+    if (size == 0) {
+      return;
+    }
+    int chunkSize = Math.max(1, size / (numberOfThreads * CHUNKS_PER_THREAD));
+    int chunkCount = (size + chunkSize - 1) / chunkSize;
+    var nextChunk = new AtomicInteger();
+
+    int workers = Math.min(numberOfThreads, chunkCount);
+    var futures = new ArrayList<Future<?>>(workers);
+    for (int w = 0; w < workers; w++) {
+      long submitted = System.nanoTime();
+      futures.add(
+          executor.submit(
+              () -> {
+                long started = System.nanoTime();
+                queueNanos.add(started - submitted);
+                try {
+                  int chunk;
+                  while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+                    int to = Math.min(size, (chunk + 1) * chunkSize);
+                    for (int i = chunk * chunkSize; i < to; i++) {
+                      evaluator.accept(elements.get(i));
+                    }
+                    chunks.increment();
+                  }
+                } finally {
+                  busyNanos.add(System.nanoTime() - started);
+                }
+              }));
+    }
+    await(futures);
+  }
+
+  /**
+   * Runs a single task in a thread of the pool, counted as one chunk.
+   *
+   * @param task The task.
+   */
+  @Override
+  public void execute(Runnable task) {
+    long submitted = System.nanoTime();
+    executor.execute(
+        () -> {
+          long started = System.nanoTime();
+          queueNanos.add(started - submitted);
+          try {
+            task.run();
+            chunks.increment();
+          } finally {
+            busyNanos.add(System.nanoTime() - started);
+          }
+        });
+  }
+
+  private static void await(List<Future<?>> futures) {
+    try {
+      for (var future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while evaluating", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  public int getNumberOfThreads() {
+    return numberOfThreads;
+  }
+
+  /**
+   * The number of chunks, or single tasks, evaluated since the pool was started.
+   *
+   * @return The evaluated chunks.
+   */
+  public long getChunks() {
+    return chunks.sum();
+  }
+
+  /**
+   * The total time the work waited before a thread started it.
+   *
+   * @return The queue time in nanoseconds.
+   */
+  public long getQueueNanos() {
+    return queueNanos.sum();
+  }
+
+  /**
+   * The total time the threads spent evaluating.
+   *
+   * @return The busy time in nanoseconds.
+   */
+  public long getBusyNanos() {
+    return busyNanos.sum();
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%d threads, %d chunks, %.2f ms queued, %.2f ms busy",
+        numberOfThreads, getChunks(), getQueueNanos() / 1e6, getBusyNanos() / 1e6);
+  }
+}
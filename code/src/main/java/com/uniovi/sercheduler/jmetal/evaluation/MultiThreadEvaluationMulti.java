@@ -1,19 +1,26 @@
 package com.uniovi.sercheduler.jmetal.evaluation;
 
 import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 import org.uma.jmetal.component.catalogue.common.evaluation.Evaluation;
 import org.uma.jmetal.problem.Problem;
-import org.uma.jmetal.solution.Solution;
 import org.uma.jmetal.util.errorchecking.Check;
 
-public class MultiThreadEvaluationMulti implements Evaluation<SchedulePermutationSolution> {
+/**
+ * Evaluates every solution with its arbiter and a new one with the alternative arbiter, in the
+ * threads of a shared {@link EvaluatorPool}. The pool has to be given back with {@link #close()}
+ * when the algorithm ends.
+ */
+public class MultiThreadEvaluationMulti
+    implements Evaluation<SchedulePermutationSolution>, AutoCloseable {
 
   private final Problem<SchedulePermutationSolution> problem;
   private final int numberOfThreads;
   private int computedEvaluations;
   private String alternativeArbiter;
+  private EvaluatorPool pool;
 
   public MultiThreadEvaluationMulti(
       int numberOfThreads, Problem<SchedulePermutationSolution> problem, String alternativeArbiter) {
@@ -24,8 +31,6 @@ public class MultiThreadEvaluationMulti implements Evaluation<SchedulePermutatio
     if (numberOfThreads == 0) {
       numberOfThreads = Runtime.getRuntime().availableProcessors();
     }
-    System.setProperty(
-        "java.util.concurrent.ForkJoinPool.common.parallelism", "" + numberOfThreads);
 
     this.numberOfThreads = numberOfThreads;
     this.problem = problem;
@@ -38,20 +43,21 @@ public class MultiThreadEvaluationMulti implements Evaluation<SchedulePermutatio
       List<SchedulePermutationSolution> solutionList) {
     Check.notNull(solutionList);
 
-    solutionList =
-        solutionList.stream()
-            .flatMap(
-                s -> {
-                  var copy = (SchedulePermutationSolution) s.copy();
-                  copy.setArbiter(alternativeArbiter);
+    var solutions = solutionList;
+    var evaluated = new SchedulePermutationSolution[2 * solutions.size()];
+    pool()
+        .evaluate(
+            IntStream.range(0, solutions.size()).boxed().toList(),
+            i -> {
+              var solution = solutions.get(i);
+              evaluated[2 * i] = solution;
+              evaluated[2 * i + 1] =
+                  SequentialEvaluationMulti.evaluateWithAlternative(
+                      problem, solution, alternativeArbiter);
+            });
+    computedEvaluations = evaluated.length;
 
-                  return Stream.of(s, copy);
-                })
-            .toList();
-    solutionList.parallelStream().forEach(problem::evaluate);
-    computedEvaluations = solutionList.size();
-
-    return solutionList;
+    return Arrays.asList(evaluated);
   }
 
   @Override
@@ -67,4 +73,29 @@ public class MultiThreadEvaluationMulti implements Evaluation<SchedulePermutatio
   public Problem<SchedulePermutationSolution> problem() {
     return problem;
   }
+
+  /**
+   * The pool evaluating the solutions, with its counters.
+   *
+   * @return The pool, null if nothing was evaluated yet or the evaluation is closed.
+   */
+  public synchronized EvaluatorPool getPool() {
+    return pool;
+  }
+
+  /** Gives back the pool, it can be taken again if more solutions are evaluated. */
+  @Override
+  public synchronized void close() {
+    if (pool != null) {
+      pool.release();
+      pool = null;
+    }
+  }
+
+  private synchronized EvaluatorPool pool() {
+    if (pool == null) {
+      pool = EvaluatorPool.acquire(numberOfThreads);
+    }
+    return pool;
+  }
 }
@@ -0,0 +1,101 @@
+package com.uniovi.sercheduler.jmetal.evaluation;
+
+import java.util.List;
+import java.util.stream.Stream;
+import org.uma.jmetal.component.catalogue.common.evaluation.Evaluation;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.solution.doublesolution.DoubleSolution;
+import org.uma.jmetal.util.errorchecking.Check;
+
+/**
+ * The parallel version of {@link SequentialEvaluationMultiDouble}: every particle is evaluated with
+ * its arbiter and a copy with the alternative arbiter, in the threads of a shared {@link
+ * EvaluatorPool}. The pool has to be given back with {@link #close()} when the algorithm ends.
+ */
+public class MultiThreadEvaluationMultiDouble implements Evaluation<DoubleSolution>, AutoCloseable {
+
+  private final Problem<DoubleSolution> problem;
+  private final int numberOfThreads;
+  private final String alternativeArbiter;
+  private int computedEvaluations;
+  private EvaluatorPool pool;
+
+  public MultiThreadEvaluationMultiDouble(
+      int numberOfThreads, Problem<DoubleSolution> problem, String alternativeArbiter) {
+    Check.that(
+        numberOfThreads >= 0, "The number of threads is a negative value: " + numberOfThreads);
+    Check.notNull(problem);
+
+    if (numberOfThreads == 0) {
+      numberOfThreads = Runtime.getRuntime().availableProcessors();
+    }
+
+    this.numberOfThreads = numberOfThreads;
+    this.problem = problem;
+    this.alternativeArbiter = alternativeArbiter;
+    computedEvaluations = 0;
+  }
+
+  @Override
+  public List<DoubleSolution> evaluate(List<DoubleSolution> solutionList) {
+    Check.notNull(solutionList);
+
+    solutionList =
+        solutionList.stream()
+            .flatMap(
+                s -> {
+                  var copy = (DoubleSolution) s.copy();
+                  copy.attributes().put("arbiter", alternativeArbiter);
+
+                  return Stream.of(s, copy);
+                })
+            .toList();
+    pool().evaluate(solutionList, problem::evaluate);
+    computedEvaluations = solutionList.size();
+
+    return solutionList;
+  }
+
+  @Override
+  public int computedEvaluations() {
+    return computedEvaluations;
+  }
+
+  public int numberOfThreads() {
+    return numberOfThreads;
+  }
+
+  @Override
+  public Problem<DoubleSolution> problem() {
+    return problem;
+  }
+
+  public String getAlternativeArbiter() {
+    return alternativeArbiter;
+  }
+
+  /**
+   * The pool evaluating the solutions, with its counters.
+   *
+   * @return The pool, null if nothing was evaluated yet or the evaluation is closed.
+   */
+  public synchronized EvaluatorPool getPool() {
+    return pool;
+  }
+
+  /** Gives back the pool, it can be taken again if more solutions are evaluated. */
+  @Override
+  public synchronized void close() {
+    if (pool != null) {
+      pool.release();
+      pool = null;
+    }
+  }
+
+  private synchronized EvaluatorPool pool() {
+    if (pool == null) {
+      pool = EvaluatorPool.acquire(numberOfThreads);
+    }
+    return pool;
+  }
+}
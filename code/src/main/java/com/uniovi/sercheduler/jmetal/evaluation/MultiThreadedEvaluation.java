@@ -1,22 +1,27 @@
 package com.uniovi.sercheduler.jmetal.evaluation;
 
-import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ForkJoinPool;
-import java.util.stream.Stream;
 import org.uma.jmetal.component.catalogue.common.evaluation.Evaluation;
 import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.solution.Solution;
 import org.uma.jmetal.util.errorchecking.Check;
 
-public class MultiThreadedEvaluation implements Evaluation<SchedulePermutationSolution> {
+/**
+ * Evaluates the solutions in the threads of a shared {@link EvaluatorPool}. The pool is taken the
+ * first time a population is evaluated and has to be given back with {@link #close()} when the
+ * algorithm ends.
+ *
+ * @param <S> The type of the solutions.
+ */
+public class MultiThreadedEvaluation<S extends Solution<?>>
+    implements Evaluation<S>, AutoCloseable {
 
-  private final Problem<SchedulePermutationSolution> problem;
+  private final Problem<S> problem;
   private final int numberOfThreads;
   private int computedEvaluations;
+  private EvaluatorPool pool;
 
-  public MultiThreadedEvaluation(
-      int numberOfThreads, Problem<SchedulePermutationSolution> problem) {
+  public MultiThreadedEvaluation(int numberOfThreads, Problem<S> problem) {
     Check.that(
         numberOfThreads >= 0, "The number of threads is a negative value: " + numberOfThreads);
     Check.notNull(problem);
@@ -24,8 +29,6 @@ public class MultiThreadedEvaluation implements Evaluation<SchedulePermutationSo
     if (numberOfThreads == 0) {
       numberOfThreads = Runtime.getRuntime().availableProcessors();
     }
-    System.setProperty(
-        "java.util.concurrent.ForkJoinPool.common.parallelism", "" + numberOfThreads);
 
     this.numberOfThreads = numberOfThreads;
     this.problem = problem;
@@ -33,23 +36,11 @@ public class MultiThreadedEvaluation implements Evaluation<SchedulePermutationSo
   }
 
   @Override
-  public List<SchedulePermutationSolution> evaluate(
-      List<SchedulePermutationSolution> solutionList) {
+  public List<S> evaluate(List<S> solutionList) {
     Check.notNull(solutionList);
 
-    // Create a custom ForkJoinPool with the desired parallelism level
-    ForkJoinPool customThreadPool = new ForkJoinPool(numberOfThreads);
-      try {
-          customThreadPool.submit(()->{
-            solutionList.parallelStream().forEach(problem::evaluate);
-          }).get();
-      } catch (InterruptedException | ExecutionException e) {
-          throw new RuntimeException(e);
-      }finally{
-        customThreadPool.shutdown();
-      }
-
-      computedEvaluations = solutionList.size();
+    pool().evaluate(solutionList, problem::evaluate);
+    computedEvaluations = solutionList.size();
 
     return solutionList;
   }
@@ -64,7 +55,32 @@ public class MultiThreadedEvaluation implements Evaluation<SchedulePermutationSo
   }
 
   @Override
-  public Problem<SchedulePermutationSolution> problem() {
+  public Problem<S> problem() {
     return problem;
   }
+
+  /**
+   * The pool evaluating the solutions, with its counters.
+   *
+   * @return The pool, null if nothing was evaluated yet or the evaluation is closed.
+   */
+  public synchronized EvaluatorPool getPool() {
+    return pool;
+  }
+
+  /** Gives back the pool, it can be taken again if more solutions are evaluated. */
+  @Override
+  public synchronized void close() {
+    if (pool != null) {
+      pool.release();
+      pool = null;
+    }
+  }
+
+  private synchronized EvaluatorPool pool() {
+    if (pool == null) {
+      pool = EvaluatorPool.acquire(numberOfThreads);
+    }
+    return pool;
+  }
 }
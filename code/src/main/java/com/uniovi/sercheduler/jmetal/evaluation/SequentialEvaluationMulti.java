@@ -1,8 +1,9 @@
 package com.uniovi.sercheduler.jmetal.evaluation;
 
 import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Stream;
 import org.uma.jmetal.component.catalogue.common.evaluation.Evaluation;
 import org.uma.jmetal.problem.Problem;
 import org.uma.jmetal.util.errorchecking.Check;
@@ -28,8 +29,6 @@ public class SequentialEvaluationMulti
     if (numberOfThreads == 0) {
       numberOfThreads = Runtime.getRuntime().availableProcessors();
     }
-    System.setProperty(
-        "java.util.concurrent.ForkJoinPool.common.parallelism", "" + numberOfThreads);
 
     this.numberOfThreads = numberOfThreads;
     this.problem = problem;
@@ -42,20 +41,36 @@ public class SequentialEvaluationMulti
       List<SchedulePermutationSolution> solutionList) {
     Check.notNull(solutionList);
 
-    solutionList =
-        solutionList.stream()
-            .flatMap(
-                s -> {
-                  var copy = (SchedulePermutationSolution) s.copy();
-                  copy.setArbiter(alternativeArbiter);
+    var evaluated = new ArrayList<SchedulePermutationSolution>(2 * solutionList.size());
+    for (var solution : solutionList) {
+      evaluated.add(solution);
+      evaluated.add(evaluateWithAlternative(problem, solution, alternativeArbiter));
+    }
+    computedEvaluations = evaluated.size();
 
-                  return Stream.of(s, copy);
-                })
-            .toList();
-    solutionList.forEach(problem::evaluate);
-    computedEvaluations = solutionList.size();
+    return evaluated;
+  }
 
-    return solutionList;
+  /**
+   * Evaluates a solution and a new one with the alternative arbiter. A {@link SchedulingProblem}
+   * does both in one pass, other problems evaluate a copy of the solution.
+   *
+   * @param problem The problem to fix.
+   * @param solution The solution to evaluate.
+   * @param alternativeArbiter The arbiter of the new solution.
+   * @return The new solution, evaluated.
+   */
+  static SchedulePermutationSolution evaluateWithAlternative(
+      Problem<SchedulePermutationSolution> problem,
+      SchedulePermutationSolution solution,
+      String alternativeArbiter) {
+    if (problem instanceof SchedulingProblem schedulingProblem) {
+      return schedulingProblem.evaluateWithAlternative(solution, alternativeArbiter);
+    }
+    var copy = (SchedulePermutationSolution) solution.copy();
+    copy.setArbiter(alternativeArbiter);
+    problem.evaluate(solution);
+    return problem.evaluate(copy);
   }
 
   /**
@@ -32,8 +32,6 @@ public class SequentialEvaluationMultiDouble
     if (numberOfThreads == 0) {
       numberOfThreads = Runtime.getRuntime().availableProcessors();
     }
-    System.setProperty(
-        "java.util.concurrent.ForkJoinPool.common.parallelism", "" + numberOfThreads);
 
     this.numberOfThreads = numberOfThreads;
     this.problem = problem;
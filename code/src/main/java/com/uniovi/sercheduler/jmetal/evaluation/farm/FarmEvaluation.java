@@ -0,0 +1,403 @@
+package com.uniovi.sercheduler.jmetal.evaluation.farm;
+
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
+import com.uniovi.sercheduler.service.core.CompiledInstance;
+import com.uniovi.sercheduler.service.core.InstancePrecomputation;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.uma.jmetal.component.catalogue.common.evaluation.Evaluation;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.util.errorchecking.Check;
+
+/**
+ * Evaluates the solutions in {@link FarmWorker}s running in other processes, on this machine or
+ * on other nodes.
+ *
+ * <p>A population is split in batches that wait in a shared queue. Every worker has a connection
+ * thread that takes batches from the queue, so the faster workers take more of them, and keeps at
+ * most {@code batchesInFlight} of them sent and not answered. The batches that aren't taken stay
+ * in the master, which bounds the memory used by a slow worker.
+ *
+ * <p>When a connection fails, or a worker doesn't answer within the answer timeout, the batches it
+ * didn't get an answer for go back to the front of the queue for the other workers, and the
+ * connection is opened again once the worker is back. If no worker is connected, the thread
+ * waiting for the population evaluates the pending batches itself, with the fitness cache of the
+ * problem when it has one. The workers don't use that cache.
+ *
+ * <p>The constructor waits until one worker is ready, or for the ready timeout, so the first
+ * populations aren't evaluated here just because the workers are still getting the problem.
+ */
+public class FarmEvaluation implements Evaluation<SchedulePermutationSolution>, AutoCloseable {
+
+  static final Logger LOG = LoggerFactory.getLogger(FarmEvaluation.class);
+
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int CONNECT_TIMEOUT_MILLIS = 5_000;
+  private static final long READY_TIMEOUT_MILLIS = 30_000;
+  private static final int DEFAULT_ANSWER_TIMEOUT_MILLIS = 60_000;
+  private static final long RECONNECT_DELAY_MILLIS = 500;
+  private static final long MAX_RECONNECT_DELAY_MILLIS = 30_000;
+  private static final long POLL_MILLIS = 100;
+
+  private final SchedulingProblem problem;
+  private final CompiledInstance instance;
+  private final int batchSize;
+  private final int batchesInFlight;
+  private final int answerTimeoutMillis;
+  private final LinkedBlockingDeque<Batch> queue = new LinkedBlockingDeque<>();
+  private final List<Thread> connections;
+  private final AtomicInteger connected = new AtomicInteger();
+  private final CountDownLatch firstReady = new CountDownLatch(1);
+  private volatile boolean closed;
+  private int computedEvaluations;
+
+  private final LongAdder remoteBatches = new LongAdder();
+  private final LongAdder localBatches = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+
+  /**
+   * Constructor with an answer timeout of one minute.
+   *
+   * @param problem The problem, the workers get a copy of it.
+   * @param workers The addresses of the workers.
+   * @param batchSize The number of solutions sent in a message.
+   * @param batchesInFlight The batches a worker can have without answering them.
+   */
+  public FarmEvaluation(
+      SchedulingProblem problem,
+      List<InetSocketAddress> workers,
+      int batchSize,
+      int batchesInFlight) {
+    this(problem, workers, batchSize, batchesInFlight, DEFAULT_ANSWER_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Full constructor, the connections are opened right away and it returns once a worker is
+   * ready, or after the ready timeout.
+   *
+   * @param problem The problem, the workers get a copy of it.
+   * @param workers The addresses of the workers.
+   * @param batchSize The number of solutions sent in a message.
+   * @param batchesInFlight The batches a worker can have without answering them.
+   * @param answerTimeoutMillis How long a worker with pending batches can be silent before it's
+   *     taken as lost, it should be several times the time of a batch.
+   */
+  public FarmEvaluation(
+      SchedulingProblem problem,
+      List<InetSocketAddress> workers,
+      int batchSize,
+      int batchesInFlight,
+      int answerTimeoutMillis) {
+    Check.notNull(problem);
+    Check.that(batchSize > 0, "The batch size must be positive: " + batchSize);
+    Check.that(
+        batchesInFlight > 0, "The batches in flight must be positive: " + batchesInFlight);
+    Check.that(
+        answerTimeoutMillis > 0, "The answer timeout must be positive: " + answerTimeoutMillis);
+
+    this.problem = problem;
+    this.instance = InstancePrecomputation.of(problem.getInstanceData()).getCompiledInstance();
+    this.batchSize = batchSize;
+    this.batchesInFlight = batchesInFlight;
+    this.answerTimeoutMillis = answerTimeoutMillis;
+    this.connections = new ArrayList<>(workers.size());
+    for (var worker : workers) {
+      var thread = new Thread(() -> connect(worker), "farm-" + worker);
+      thread.setDaemon(true);
+      connections.add(thread);
+      thread.start();
+    }
+    awaitFirstWorker();
+  }
+
+  private void awaitFirstWorker() {
+    if (connections.isEmpty()) {
+      return;
+    }
+    try {
+      if (!firstReady.await(READY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+        LOG.warn(
+            "No worker ready in {} ms, evaluating here until one connects", READY_TIMEOUT_MILLIS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public List<SchedulePermutationSolution> evaluate(
+      List<SchedulePermutationSolution> solutionList) {
+    Check.notNull(solutionList);
+
+    int batchCount = (solutionList.size() + batchSize - 1) / batchSize;
+    var round = new Round(batchCount);
+    for (int from = 0; from < solutionList.size(); from += batchSize) {
+      int to = Math.min(solutionList.size(), from + batchSize);
+      queue.add(new Batch(round, solutionList.subList(from, to)));
+    }
+
+    while (!round.await()) {
+      if (connected.get() == 0) {
+        evaluatePendingBatches();
+      }
+    }
+    round.check();
+    computedEvaluations = solutionList.size();
+
+    return solutionList;
+  }
+
+  private void evaluatePendingBatches() {
+    Batch batch;
+    while (connected.get() == 0 && (batch = queue.pollFirst()) != null) {
+      try {
+        for (var solution : batch.solutions()) {
+          problem.evaluate(solution);
+        }
+      } catch (RuntimeException e) {
+        batch.round().fail(e);
+      }
+      localBatches.increment();
+      batch.round().done();
+    }
+  }
+
+  /** Keeps a connection to a worker open until the evaluation is closed. */
+  private void connect(InetSocketAddress worker) {
+    long delay = RECONNECT_DELAY_MILLIS;
+    while (!closed) {
+      var outstanding = new ArrayDeque<Batch>();
+      try (var socket = new Socket()) {
+        socket.connect(worker, CONNECT_TIMEOUT_MILLIS);
+        socket.setTcpNoDelay(true);
+        // A worker that hangs without closing the connection would block the reads forever.
+        socket.setSoTimeout(answerTimeoutMillis);
+        var in =
+            new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+        var out =
+            new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+        FarmProtocol.writeSetup(out, problem);
+        out.flush();
+        FarmProtocol.readReady(in, instance);
+
+        LOG.info("Connected to worker {}", worker);
+        delay = RECONNECT_DELAY_MILLIS;
+        connected.incrementAndGet();
+        firstReady.countDown();
+        try {
+          serve(in, out, outstanding);
+        } finally {
+          connected.decrementAndGet();
+        }
+      } catch (SocketTimeoutException e) {
+        if (!closed) {
+          failures.increment();
+          LOG.warn("Lost worker {}: no answer in {} ms", worker, answerTimeoutMillis);
+        }
+      } catch (IOException e) {
+        if (!closed) {
+          failures.increment();
+          LOG.warn("Lost worker {}: {}", worker, e.toString());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        // A worker with another instance never gets better, the rest keep working.
+        LOG.error("Dropping worker {}", worker, e);
+        return;
+      } finally {
+        // The batches the worker didn't answer are sent to another one, in the same order.
+        Batch batch;
+        while ((batch = outstanding.pollLast()) != null) {
+          queue.addFirst(batch);
+        }
+      }
+
+      try {
+        Thread.sleep(delay);
+      } catch (InterruptedException e) {
+        return;
+      }
+      delay = Math.min(delay * 2, MAX_RECONNECT_DELAY_MILLIS);
+    }
+  }
+
+  private void serve(DataInputStream in, DataOutputStream out, ArrayDeque<Batch> outstanding)
+      throws IOException, InterruptedException {
+    while (!closed) {
+      while (outstanding.size() < batchesInFlight) {
+        // An idle worker waits for work, a busy one only takes what's already there.
+        var batch =
+            outstanding.isEmpty()
+                ? queue.pollFirst(POLL_MILLIS, TimeUnit.MILLISECONDS)
+                : queue.pollFirst();
+        if (batch == null) {
+          break;
+        }
+        FarmProtocol.writeBatch(out, batch.solutions(), instance);
+        outstanding.addLast(batch);
+      }
+      if (outstanding.isEmpty()) {
+        continue;
+      }
+      out.flush();
+
+      int type = in.readInt();
+      if (type == FarmProtocol.ERROR) {
+        var message = in.readUTF();
+        var batch = outstanding.pollFirst();
+        batch.round().fail(new IllegalStateException("The worker couldn't evaluate: " + message));
+        batch.round().done();
+        continue;
+      }
+      if (type != FarmProtocol.RESULTS) {
+        throw new IOException("Unexpected message: " + type);
+      }
+      // The whole answer is read before touching the solutions, if the connection fails in the
+      // middle the batch is sent again as it was.
+      var results = FarmProtocol.readResults(in, instance);
+      var batch = outstanding.pollFirst();
+      var solutions = batch.solutions();
+      for (int i = 0; i < solutions.size(); i++) {
+        var result = results.get(i);
+        if (result.multiResult() != null) {
+          solutions.get(i).setMultiResult(result.multiResult());
+        }
+        problem.applyFitness(solutions.get(i), result.fitnessInfo());
+      }
+      remoteBatches.increment();
+      batch.round().done();
+    }
+    out.writeInt(FarmProtocol.CLOSE);
+    out.flush();
+  }
+
+  @Override
+  public int computedEvaluations() {
+    return computedEvaluations;
+  }
+
+  @Override
+  public Problem<SchedulePermutationSolution> problem() {
+    return problem;
+  }
+
+  /**
+   * The number of workers connected right now.
+   *
+   * @return The connected workers.
+   */
+  public int getConnectedWorkers() {
+    return connected.get();
+  }
+
+  /**
+   * The number of batches evaluated by the workers.
+   *
+   * @return The remote batches.
+   */
+  public long getRemoteBatches() {
+    return remoteBatches.sum();
+  }
+
+  /**
+   * The number of batches evaluated here because no worker was connected.
+   *
+   * @return The local batches.
+   */
+  public long getLocalBatches() {
+    return localBatches.sum();
+  }
+
+  /**
+   * The number of times a connection to a worker failed.
+   *
+   * @return The failed connections.
+   */
+  public long getFailures() {
+    return failures.sum();
+  }
+
+  /** Closes the connections, the solutions evaluated afterwards are evaluated here. */
+  @Override
+  public void close() {
+    closed = true;
+    for (var connection : connections) {
+      // Wakes up the connections waiting for work or to reconnect.
+      connection.interrupt();
+    }
+    for (var connection : connections) {
+      try {
+        connection.join(CONNECT_TIMEOUT_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%d/%d workers, %d remote batches, %d local batches, %d failures",
+        getConnectedWorkers(),
+        connections.size(),
+        getRemoteBatches(),
+        getLocalBatches(),
+        getFailures());
+  }
+
+  /** The batches of one population, the thread that evaluates it waits until all are done. */
+  private static final class Round {
+
+    private final CountDownLatch pending;
+    private volatile RuntimeException failure;
+
+    Round(int batches) {
+      this.pending = new CountDownLatch(batches);
+    }
+
+    void done() {
+      pending.countDown();
+    }
+
+    void fail(RuntimeException exception) {
+      failure = exception;
+    }
+
+    boolean await() {
+      try {
+        return pending.await(POLL_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while evaluating", e);
+      }
+    }
+
+    void check() {
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  private record Batch(Round round, List<SchedulePermutationSolution> solutions) {}
+}
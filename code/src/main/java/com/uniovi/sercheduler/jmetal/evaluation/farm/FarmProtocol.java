@@ -0,0 +1,412 @@
+package com.uniovi.sercheduler.jmetal.evaluation.farm;
+
+import com.uniovi.sercheduler.dao.Objective;
+import com.uniovi.sercheduler.dto.Direction;
+import com.uniovi.sercheduler.dto.FileList;
+import com.uniovi.sercheduler.dto.Host;
+import com.uniovi.sercheduler.dto.InstanceData;
+import com.uniovi.sercheduler.dto.Task;
+import com.uniovi.sercheduler.dto.TaskFile;
+import com.uniovi.sercheduler.dto.analysis.MultiResult;
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
+import com.uniovi.sercheduler.service.FitnessInfo;
+import com.uniovi.sercheduler.service.TaskSchedule;
+import com.uniovi.sercheduler.service.core.CompactPlan;
+import com.uniovi.sercheduler.service.core.CompiledInstance;
+import com.uniovi.sercheduler.service.core.DecodedSchedule;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Binary messages exchanged by a {@link FarmEvaluation} and its {@link FarmWorker}s.
+ *
+ * <p>A connection starts with the master sending the whole problem, so the workers don't need the
+ * instance files, and the worker answering with the names of its tasks and hosts in id order. From
+ * then on plans travel as task and host ids and schedules as ids and times.
+ *
+ * <pre>
+ * setup:   magic, version, name, fitness, arbiter, objectives, instance
+ * ready:   task names, host names
+ * batch:   BATCH, count, (arbiter, size, (task, host) * size) * count
+ * results: RESULTS, count, (fitness info, multi result) * count
+ * error:   ERROR, message
+ * close:   CLOSE
+ * </pre>
+ */
+final class FarmProtocol {
+
+  static final int MAGIC = 0x53434846;
+  static final int VERSION = 1;
+
+  static final int CLOSE = 0;
+  static final int BATCH = 1;
+  static final int RESULTS = 2;
+  static final int ERROR = 3;
+
+  private FarmProtocol() {}
+
+  /**
+   * The result of the evaluation of one solution.
+   *
+   * @param fitnessInfo The fitness.
+   * @param multiResult The result of the multi fitness, null for other fitness functions.
+   */
+  record Result(FitnessInfo fitnessInfo, MultiResult multiResult) {}
+
+  static void writeSetup(DataOutputStream out, SchedulingProblem problem) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    writeString(out, problem.name());
+    writeString(out, problem.getFitness());
+    writeString(out, problem.getDefaultArbiter());
+    out.writeInt(problem.getObjectives().size());
+    for (var objective : problem.getObjectives()) {
+      writeString(out, objective.objectiveName);
+    }
+    writeInstance(out, problem.getInstanceData());
+  }
+
+  static SchedulingProblem readSetup(DataInputStream in) throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not an evaluation farm connection");
+    }
+    int version = in.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported protocol version: " + version);
+    }
+    var name = readString(in);
+    var fitness = readString(in);
+    var defaultArbiter = readString(in);
+    int objectiveCount = in.readInt();
+    var objectives = new ArrayList<Objective>(objectiveCount);
+    for (int i = 0; i < objectiveCount; i++) {
+      objectives.add(Objective.of(readString(in)));
+    }
+    var instanceData = readInstance(in);
+    return new SchedulingProblem(name, fitness, 1L, instanceData, objectives, defaultArbiter, 0);
+  }
+
+  private static void writeInstance(DataOutputStream out, InstanceData instanceData)
+      throws IOException {
+    out.writeLong(instanceData.referenceFlops());
+
+    out.writeInt(instanceData.hosts().size());
+    for (var host : instanceData.hosts().values()) {
+      writeString(out, host.getName());
+      out.writeLong(host.getFlops());
+      out.writeLong(host.getDiskSpeed());
+      out.writeLong(host.getNetworkSpeed());
+      out.writeDouble(host.getEnergyCost());
+      out.writeDouble(host.getEnergyCostStandBy());
+    }
+
+    // The maps are written in iteration order, so the worker gives the same ids to every task.
+    var tasks = instanceData.workflow().values().toArray(new Task[0]);
+    var index = new HashMap<String, Integer>(tasks.length * 2);
+    out.writeInt(tasks.length);
+    for (int t = 0; t < tasks.length; t++) {
+      index.put(tasks[t].getName(), t);
+      writeString(out, tasks[t].getName());
+      out.writeDouble(tasks[t].getRuntime());
+      writeFiles(out, tasks[t].getInput());
+      writeFiles(out, tasks[t].getOutput());
+    }
+    for (var task : tasks) {
+      writeTaskList(out, task.getParents(), index);
+      writeTaskList(out, task.getChildren(), index);
+    }
+  }
+
+  private static InstanceData readInstance(DataInputStream in) throws IOException {
+    long referenceFlops = in.readLong();
+
+    int hostCount = in.readInt();
+    var hosts = new LinkedHashMap<String, Host>(hostCount * 2);
+    for (int h = 0; h < hostCount; h++) {
+      var host =
+          new Host(
+              readString(in),
+              in.readLong(),
+              in.readLong(),
+              in.readLong(),
+              in.readDouble(),
+              in.readDouble());
+      hosts.put(host.getName(), host);
+    }
+
+    int taskCount = in.readInt();
+    var tasks = new Task[taskCount];
+    for (int t = 0; t < taskCount; t++) {
+      var name = readString(in);
+      double runtime = in.readDouble();
+      var input = readFiles(in, Direction.INPUT);
+      var output = readFiles(in, Direction.OUTPUT);
+      tasks[t] = new Task(name, runtime, List.of(), List.of(), input, output);
+    }
+    var workflow = new LinkedHashMap<String, Task>(taskCount * 2);
+    for (var task : tasks) {
+      task.setParents(readTaskList(in, tasks));
+      task.setChildren(readTaskList(in, tasks));
+      workflow.put(task.getName(), task);
+    }
+    return new InstanceData(workflow, hosts, referenceFlops);
+  }
+
+  private static void writeFiles(DataOutputStream out, FileList files) throws IOException {
+    out.writeLong(files.getSizeInBits());
+    out.writeInt(files.getFiles().size());
+    for (var file : files.getFiles()) {
+      writeString(out, file.getName());
+      out.writeLong(file.getSize());
+    }
+  }
+
+  private static FileList readFiles(DataInputStream in, Direction direction) throws IOException {
+    long sizeInBits = in.readLong();
+    int count = in.readInt();
+    var files = new ArrayList<TaskFile>(count);
+    for (int i = 0; i < count; i++) {
+      files.add(new TaskFile(readString(in), direction, in.readLong()));
+    }
+    return new FileList(files, sizeInBits);
+  }
+
+  private static void writeTaskList(
+      DataOutputStream out, List<Task> tasks, HashMap<String, Integer> index)
+      throws IOException {
+    out.writeInt(tasks.size());
+    for (var task : tasks) {
+      out.writeInt(index.get(task.getName()));
+    }
+  }
+
+  private static List<Task> readTaskList(DataInputStream in, Task[] tasks) throws IOException {
+    int count = in.readInt();
+    var list = new ArrayList<Task>(count);
+    for (int i = 0; i < count; i++) {
+      list.add(tasks[in.readInt()]);
+    }
+    return list;
+  }
+
+  static void writeReady(DataOutputStream out, CompiledInstance instance) throws IOException {
+    out.writeInt(instance.taskCount());
+    for (int t = 0; t < instance.taskCount(); t++) {
+      writeString(out, instance.task(t).getName());
+    }
+    out.writeInt(instance.hostCount());
+    for (int h = 0; h < instance.hostCount(); h++) {
+      writeString(out, instance.host(h).getName());
+    }
+  }
+
+  /**
+   * Reads the names sent by a worker and checks that it gives every task and host the same id.
+   *
+   * @param in The input of the connection.
+   * @param instance The instance of the master.
+   * @throws IOException If the connection fails.
+   */
+  static void readReady(DataInputStream in, CompiledInstance instance) throws IOException {
+    int taskCount = in.readInt();
+    if (taskCount != instance.taskCount()) {
+      throw new IllegalStateException(
+          "The worker has " + taskCount + " tasks instead of " + instance.taskCount());
+    }
+    for (int t = 0; t < taskCount; t++) {
+      var name = readString(in);
+      if (!name.equals(instance.task(t).getName())) {
+        throw new IllegalStateException("The worker has task " + name + " with id " + t);
+      }
+    }
+    int hostCount = in.readInt();
+    if (hostCount != instance.hostCount()) {
+      throw new IllegalStateException(
+          "The worker has " + hostCount + " hosts instead of " + instance.hostCount());
+    }
+    for (int h = 0; h < hostCount; h++) {
+      var name = readString(in);
+      if (!name.equals(instance.host(h).getName())) {
+        throw new IllegalStateException("The worker has host " + name + " with id " + h);
+      }
+    }
+  }
+
+  static void writeBatch(
+      DataOutputStream out, List<SchedulePermutationSolution> solutions, CompiledInstance instance)
+      throws IOException {
+    out.writeInt(BATCH);
+    out.writeInt(solutions.size());
+    for (var solution : solutions) {
+      writeString(out, solution.getArbiter());
+      var plan = CompactPlan.of(instance, solution.getPlan());
+      out.writeInt(plan.size());
+      for (int i = 0; i < plan.size(); i++) {
+        out.writeInt(plan.taskAt(i));
+        out.writeInt(plan.hostAt(i));
+      }
+    }
+  }
+
+  /**
+   * Reads the solutions of a batch, after its message type.
+   *
+   * @param in The input of the connection.
+   * @param problem The problem of the worker.
+   * @param instance The instance of the problem.
+   * @return The solutions to evaluate.
+   * @throws IOException If the connection fails.
+   */
+  static List<SchedulePermutationSolution> readBatch(
+      DataInputStream in, SchedulingProblem problem, CompiledInstance instance)
+      throws IOException {
+    int count = in.readInt();
+    var solutions = new ArrayList<SchedulePermutationSolution>(count);
+    for (int s = 0; s < count; s++) {
+      var arbiter = readString(in);
+      int size = in.readInt();
+      var tasks = new int[size];
+      var hosts = new int[size];
+      for (int i = 0; i < size; i++) {
+        tasks[i] = in.readInt();
+        hosts[i] = in.readInt();
+      }
+      solutions.add(
+          new SchedulePermutationSolution(
+              size,
+              problem.numberOfObjectives(),
+              null,
+              CompactPlan.of(instance, tasks, hosts),
+              arbiter));
+    }
+    return solutions;
+  }
+
+  static void writeResults(
+      DataOutputStream out, List<SchedulePermutationSolution> solutions, CompiledInstance instance)
+      throws IOException {
+    out.writeInt(RESULTS);
+    out.writeInt(solutions.size());
+    for (var solution : solutions) {
+      var fitnessInfo = solution.getFitnessInfo();
+      writeString(out, fitnessInfo.fitnessFunction());
+      if (fitnessInfo.isDominated()) {
+        continue;
+      }
+
+      out.writeInt(fitnessInfo.fitness().size());
+      for (var entry : fitnessInfo.fitness().entrySet()) {
+        writeString(out, entry.getKey());
+        out.writeDouble(entry.getValue());
+      }
+
+      var multiResult = solution.getMultiResult();
+      out.writeBoolean(multiResult != null);
+      if (multiResult != null) {
+        out.writeDouble(multiResult.makespan());
+        out.writeDouble(multiResult.energy());
+        writeString(out, multiResult.fitness());
+        writeString(out, multiResult.objective());
+      }
+
+      // A decoded schedule is sent in decode order, so the master rebuilds the same schedule.
+      var schedule = fitnessInfo.schedule();
+      if (schedule instanceof DecodedSchedule decoded) {
+        out.writeBoolean(true);
+        out.writeBoolean(decoded.isResumable());
+        out.writeInt(decoded.size());
+        for (int i = 0; i < decoded.size(); i++) {
+          out.writeInt(decoded.taskAt(i));
+          out.writeInt(decoded.hostAt(i));
+          out.writeDouble(decoded.astAt(i));
+          out.writeDouble(decoded.eftAt(i));
+        }
+      } else {
+        out.writeBoolean(false);
+        out.writeInt(schedule.size());
+        for (var taskSchedule : schedule) {
+          out.writeInt(instance.taskId(taskSchedule.task()));
+          out.writeInt(instance.hostId(taskSchedule.host()));
+          out.writeDouble(taskSchedule.ast());
+          out.writeDouble(taskSchedule.eft());
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads the results of a batch, after its message type.
+   *
+   * @param in The input of the connection.
+   * @param instance The instance of the master.
+   * @return The result of every solution of the batch, in order.
+   * @throws IOException If the connection fails.
+   */
+  static List<Result> readResults(DataInputStream in, CompiledInstance instance)
+      throws IOException {
+    int count = in.readInt();
+    var results = new ArrayList<Result>(count);
+    for (int s = 0; s < count; s++) {
+      var fitnessFunction = readString(in);
+      if (FitnessInfo.DOMINATED.equals(fitnessFunction)) {
+        results.add(new Result(FitnessInfo.dominated(), null));
+        continue;
+      }
+
+      int fitnessCount = in.readInt();
+      var fitness = new HashMap<String, Double>(fitnessCount * 2);
+      for (int i = 0; i < fitnessCount; i++) {
+        fitness.put(readString(in), in.readDouble());
+      }
+
+      MultiResult multiResult = null;
+      if (in.readBoolean()) {
+        multiResult =
+            new MultiResult(in.readDouble(), in.readDouble(), readString(in), readString(in));
+      }
+
+      List<TaskSchedule> schedule;
+      if (in.readBoolean()) {
+        boolean resumable = in.readBoolean();
+        int size = in.readInt();
+        var assignments = new int[size * 2];
+        var times = new double[size * 2];
+        for (int i = 0; i < size * 2; i += 2) {
+          assignments[i] = in.readInt();
+          assignments[i + 1] = in.readInt();
+          times[i] = in.readDouble();
+          times[i + 1] = in.readDouble();
+        }
+        schedule = DecodedSchedule.of(instance, assignments, times, resumable);
+      } else {
+        int size = in.readInt();
+        var taskSchedules = new ArrayList<TaskSchedule>(size);
+        for (int i = 0; i < size; i++) {
+          var task = instance.task(in.readInt());
+          var host = instance.host(in.readInt());
+          taskSchedules.add(new TaskSchedule(task, in.readDouble(), in.readDouble(), host));
+        }
+        schedule = taskSchedules;
+      }
+      results.add(new Result(new FitnessInfo(fitness, schedule, fitnessFunction), multiResult));
+    }
+    return results;
+  }
+
+  static void writeString(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+}
@@ -0,0 +1,204 @@
+package com.uniovi.sercheduler.jmetal.evaluation.farm;
+
+import com.uniovi.sercheduler.jmetal.evaluation.EvaluatorPool;
+import com.uniovi.sercheduler.service.core.InstancePrecomputation;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluates the batches sent by {@link FarmEvaluation}s.
+ *
+ * <p>Every connection gets its own problem, sent by the master when it connects, and its batches
+ * are evaluated one after another by the threads of an {@link EvaluatorPool}. It can run in its own
+ * process with {@link #main(String[])}.
+ */
+public final class FarmWorker implements AutoCloseable {
+
+  static final Logger LOG = LoggerFactory.getLogger(FarmWorker.class);
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final ServerSocket serverSocket;
+  private final EvaluatorPool pool;
+  private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+  private final Thread acceptor;
+  private final AtomicInteger connectionNumber = new AtomicInteger();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder solutions = new LongAdder();
+  private volatile boolean closed;
+
+  /**
+   * Starts listening for masters.
+   *
+   * @param port The port, 0 to take any free one.
+   * @param numberOfThreads The threads evaluating the batches, 0 for one per processor.
+   * @throws IOException If the port can't be opened.
+   */
+  public FarmWorker(int port, int numberOfThreads) throws IOException {
+    if (numberOfThreads == 0) {
+      numberOfThreads = Runtime.getRuntime().availableProcessors();
+    }
+    this.serverSocket = new ServerSocket(port);
+    this.pool = EvaluatorPool.acquire(numberOfThreads);
+    this.acceptor = new Thread(this::accept, "farm-worker-" + serverSocket.getLocalPort());
+    this.acceptor.start();
+  }
+
+  /**
+   * Runs a worker until the process is stopped.
+   *
+   * @param args The port and, optionally, the number of threads.
+   * @throws Exception If the worker can't start.
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length < 1) {
+      System.err.println("Usage: FarmWorker <port> [threads]");
+      System.exit(2);
+    }
+    int threads = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+    var worker = new FarmWorker(Integer.parseInt(args[0]), threads);
+    // The line read by whoever started the process, to know the port.
+    System.out.println("Farm worker listening on " + worker.getPort());
+    System.out.flush();
+    worker.await();
+  }
+
+  private void accept() {
+    while (!closed) {
+      try {
+        var socket = serverSocket.accept();
+        socket.setTcpNoDelay(true);
+        connections.add(socket);
+        var thread =
+            new Thread(
+                () -> serve(socket),
+                "farm-worker-" + getPort() + "-" + connectionNumber.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+      } catch (IOException e) {
+        if (!closed) {
+          LOG.warn("Couldn't accept a connection", e);
+        }
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (socket) {
+      var in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+      var out =
+          new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+
+      var problem = FarmProtocol.readSetup(in);
+      var instance = InstancePrecomputation.of(problem.getInstanceData()).getCompiledInstance();
+      FarmProtocol.writeReady(out, instance);
+      out.flush();
+      LOG.info("Serving {} to {}", problem.name(), socket.getRemoteSocketAddress());
+
+      int type;
+      while ((type = in.readInt()) != FarmProtocol.CLOSE) {
+        if (type != FarmProtocol.BATCH) {
+          throw new IOException("Unexpected message: " + type);
+        }
+        var batch = FarmProtocol.readBatch(in, problem, instance);
+        try {
+          pool.evaluate(batch, problem::evaluate);
+        } catch (RuntimeException e) {
+          if (closed) {
+            // Dropped like the connection, the master sends the batch to another worker.
+            return;
+          }
+          LOG.error("Couldn't evaluate a batch", e);
+          out.writeInt(FarmProtocol.ERROR);
+          out.writeUTF(String.valueOf(e));
+          out.flush();
+          continue;
+        }
+        FarmProtocol.writeResults(out, batch, instance);
+        out.flush();
+        batches.increment();
+        solutions.add(batch.size());
+      }
+    } catch (EOFException | SocketException e) {
+      // The master went away, it sends the unanswered batches somewhere else.
+      LOG.debug("Connection closed: {}", e.toString());
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Connection failed", e);
+    } finally {
+      connections.remove(socket);
+    }
+  }
+
+  /**
+   * Waits until the worker is closed.
+   *
+   * @throws InterruptedException If the thread is interrupted while waiting.
+   */
+  public void await() throws InterruptedException {
+    acceptor.join();
+  }
+
+  /** Stops listening and drops every connection, the masters send their batches elsewhere. */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      serverSocket.close();
+    } catch (IOException e) {
+      LOG.debug("Couldn't close the server socket", e);
+    }
+    for (var socket : connections) {
+      try {
+        socket.close();
+      } catch (IOException e) {
+        LOG.debug("Couldn't close a connection", e);
+      }
+    }
+    pool.release();
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * The number of batches evaluated.
+   *
+   * @return The evaluated batches.
+   */
+  public long getBatches() {
+    return batches.sum();
+  }
+
+  /**
+   * The number of solutions evaluated.
+   *
+   * @return The evaluated solutions.
+   */
+  public long getSolutions() {
+    return solutions.sum();
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "port %d, %d connections, %d batches, %d solutions",
+        getPort(), connections.size(), getBatches(), getSolutions());
+  }
+}
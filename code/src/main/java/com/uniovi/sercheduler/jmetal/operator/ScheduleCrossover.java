@@ -1,6 +1,7 @@
 package com.uniovi.sercheduler.jmetal.operator;
 
 import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.service.HashedPlan;
 import com.uniovi.sercheduler.service.Operators;
 import java.util.List;
 import org.uma.jmetal.operator.crossover.CrossoverOperator;
@@ -61,26 +62,34 @@ public class ScheduleCrossover implements CrossoverOperator<SchedulePermutationS
     // an equal number of parents and children.
 
     var newPlan =
-        operators.doCrossover(
+        operators.doHashedCrossover(
             schedulePermutationSolutions.get(0).getPlan(),
             schedulePermutationSolutions.get(1).getPlan());
 
     var newPlan2 =
-        operators.doCrossover(
+        operators.doHashedCrossover(
             schedulePermutationSolutions.get(1).getPlan(),
             schedulePermutationSolutions.get(0).getPlan());
+
+    // Each child starts with the genes of one of the parents.
     return List.of(
+        createChild(schedule1, schedulePermutationSolutions.get(0), newPlan),
+        createChild(schedule1, schedulePermutationSolutions.get(1), newPlan2));
+  }
+
+  private SchedulePermutationSolution createChild(
+      SchedulePermutationSolution parent,
+      SchedulePermutationSolution prefixParent,
+      HashedPlan hashedPlan) {
+    var child =
         new SchedulePermutationSolution(
-            schedule1.variables().size(),
-            schedule1.objectives().length,
-            null,
-            newPlan,
-            schedule1.getArbiter()),
-        new SchedulePermutationSolution(
-            schedule1.variables().size(),
-            schedule1.objectives().length,
+            parent.variables().size(),
+            parent.objectives().length,
             null,
-            newPlan2,
-            schedule1.getArbiter()));
+            hashedPlan.plan(),
+            parent.getArbiter());
+    child.setPlan(hashedPlan);
+    child.setCheckpointFrom(prefixParent);
+    return child;
   }
 }
@@ -24,12 +24,19 @@ public class ScheduleMutation implements MutationOperator<SchedulePermutationSol
   public SchedulePermutationSolution execute(
       SchedulePermutationSolution schedulePermutationSolution) {
 
-    return new SchedulePermutationSolution(
-        schedulePermutationSolution.variables().size(),
-        schedulePermutationSolution.objectives().length,
-        null,
-        operators.mutate(schedulePermutationSolution.getPlan()),
-        schedulePermutationSolution.getArbiter());
+    var hashedPlan =
+        operators.mutate(
+            schedulePermutationSolution.getPlan(), schedulePermutationSolution.getPlanHash());
+    var mutated =
+        new SchedulePermutationSolution(
+            schedulePermutationSolution.variables().size(),
+            schedulePermutationSolution.objectives().length,
+            null,
+            hashedPlan.plan(),
+            schedulePermutationSolution.getArbiter());
+    mutated.setPlan(hashedPlan);
+    mutated.setCheckpointFrom(schedulePermutationSolution);
+    return mutated;
   }
 
   /**
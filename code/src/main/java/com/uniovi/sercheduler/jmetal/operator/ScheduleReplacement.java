@@ -2,8 +2,11 @@ package com.uniovi.sercheduler.jmetal.operator;
 
 import com.uniovi.sercheduler.dao.Objective;
 import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.service.core.CompactPlan;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Random;
 import java.util.TreeSet;
@@ -65,6 +68,57 @@ public class ScheduleReplacement implements Replacement<SchedulePermutationSolut
       replacement.addAll(result.subList(0, 2));
     }
 
+    releaseDiscarded(parents, replacement);
+    releaseDiscarded(children, replacement);
     return replacement;
   }
+
+  /**
+   * Releases the plans of the solutions that didn't survive, so the operators can reuse their
+   * arrays.
+   *
+   * @param solutions The candidates.
+   * @param survivors The solutions kept.
+   */
+  private static void releaseDiscarded(
+      List<SchedulePermutationSolution> solutions, List<SchedulePermutationSolution> survivors) {
+    var kept =
+        Collections.newSetFromMap(new IdentityHashMap<SchedulePermutationSolution, Boolean>());
+    kept.addAll(survivors);
+    for (var solution : solutions) {
+      if (kept.add(solution)) {
+        CompactPlan.release(solution.getPlan());
+      }
+    }
+  }
+
+  /**
+   * The value a child has to improve to survive the tournament against its pair of parents. The
+   * tournament keeps the two best distinct values and a parent wins the ties, so when the parents
+   * are different a child not better than the worst one is always discarded.
+   *
+   * @param parents The population the children will replace.
+   * @param child The position of the child in the offspring.
+   * @return The cutoff of the child, infinite if any child could survive.
+   */
+  public double cutoff(List<SchedulePermutationSolution> parents, int child) {
+    int first = child - child % 2;
+    if (first + 1 >= parents.size()) {
+      return Double.POSITIVE_INFINITY;
+    }
+    var parent1 = parents.get(first).getFitnessInfo();
+    var parent2 = parents.get(first + 1).getFitnessInfo();
+    if (parent1 == null || parent2 == null) {
+      return Double.POSITIVE_INFINITY;
+    }
+
+    double value1 = parent1.fitness().get(objective.objectiveName);
+    double value2 = parent2.fitness().get(objective.objectiveName);
+    // With equal parents only one of them is kept, so any child can take the other place.
+    return value1 == value2 ? Double.POSITIVE_INFINITY : Math.max(value1, value2);
+  }
+
+  public Objective getObjective() {
+    return objective;
+  }
 }
@@ -0,0 +1,147 @@
+package com.uniovi.sercheduler.jmetal.problem;
+
+import com.uniovi.sercheduler.dto.analysis.MultiResult;
+import com.uniovi.sercheduler.service.FitnessInfo;
+import com.uniovi.sercheduler.service.PlanPair;
+import com.uniovi.sercheduler.service.core.CompactPlan;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of evaluations, so a plan that was already evaluated isn't decoded again.
+ *
+ * <p>Entries are found by the {@link com.uniovi.sercheduler.service.PlanHash} of the plan and the
+ * arbiter of the solution, as the multi fitness depends on it. The stored plan is compared before
+ * using an entry, so a hash collision only costs a miss. When it's full the least recently used
+ * entry is evicted. It's thread safe.
+ */
+public class FitnessCache {
+
+  private final Map<Key, Entry> entries;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Full constructor.
+   *
+   * @param capacity The maximum number of evaluations kept.
+   */
+  public FitnessCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+    }
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() > capacity) {
+              CompactPlan.release(eldest.getValue().plan());
+              return true;
+            }
+            return false;
+          }
+        };
+  }
+
+  /**
+   * Finds the evaluation of a plan.
+   *
+   * @param plan The plan before being evaluated.
+   * @param planHash The hash of the plan.
+   * @param arbiter The arbiter of the solution.
+   * @return The evaluation, or null if the plan wasn't evaluated.
+   */
+  public Entry get(List<PlanPair> plan, long planHash, String arbiter) {
+    boolean found;
+    Entry entry;
+    // The plan is compared under the lock, once an entry is replaced or evicted the arrays of its
+    // plan can go back to their pool and be written by another plan.
+    synchronized (entries) {
+      entry = entries.get(new Key(planHash, arbiter));
+      found = entry != null && entry.plan().equals(plan);
+    }
+    if (found) {
+      hits.increment();
+      return entry;
+    }
+    misses.increment();
+    return null;
+  }
+
+  /**
+   * Stores the evaluation of a plan.
+   *
+   * @param plan The plan before being evaluated.
+   * @param planHash The hash of the plan.
+   * @param arbiter The arbiter of the solution.
+   * @param fitnessInfo The result of the evaluation.
+   * @param multiResult The multi fitness result, if any.
+   */
+  public void put(
+      List<PlanPair> plan,
+      long planHash,
+      String arbiter,
+      FitnessInfo fitnessInfo,
+      MultiResult multiResult) {
+    // A compact plan can't change, it's enough to keep it until the entry is evicted.
+    var storedPlan = plan instanceof CompactPlan compact ? compact.retain() : List.copyOf(plan);
+    var entry = new Entry(storedPlan, fitnessInfo, multiResult);
+    Entry replaced;
+    synchronized (entries) {
+      replaced = entries.put(new Key(planHash, arbiter), entry);
+    }
+    if (replaced != null) {
+      CompactPlan.release(replaced.plan());
+    }
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * The fraction of lookups that found an evaluation.
+   *
+   * @return The hit rate, 0 if there were no lookups.
+   */
+  public double getHitRate() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 0D : (double) hitCount / total;
+  }
+
+  /**
+   * The number of stored evaluations.
+   *
+   * @return The size.
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%d hits, %d misses (%.2f%% hit rate), %d entries",
+        getHits(), getMisses(), getHitRate() * 100, size());
+  }
+
+  private record Key(long planHash, String arbiter) {}
+
+  /**
+   * A stored evaluation.
+   *
+   * @param plan The plan that was evaluated, its arrays may be reused once the entry is evicted.
+   * @param fitnessInfo The result of the evaluation.
+   * @param multiResult The multi fitness result, if any.
+   */
+  public record Entry(List<PlanPair> plan, FitnessInfo fitnessInfo, MultiResult multiResult) {}
+}
@@ -3,14 +3,23 @@ package com.uniovi.sercheduler.jmetal.problem;
 import com.uniovi.sercheduler.dao.Objective;
 import com.uniovi.sercheduler.dto.analysis.MultiResult;
 import com.uniovi.sercheduler.service.FitnessInfo;
+import com.uniovi.sercheduler.service.HashedPlan;
+import com.uniovi.sercheduler.service.PlanHash;
 import com.uniovi.sercheduler.service.PlanPair;
+import com.uniovi.sercheduler.service.core.CompactPlan;
+import com.uniovi.sercheduler.service.core.DecodedSchedule;
 import java.util.List;
 import java.util.Map;
 import org.uma.jmetal.solution.AbstractSolution;
 import org.uma.jmetal.solution.Solution;
 import org.uma.jmetal.solution.permutationsolution.PermutationSolution;
 
-/** Defines a schedule solution. */
+/**
+ * Defines a schedule solution.
+ *
+ * <p>The plans written by the operators are {@link CompactPlan}s, the solution owns one reference
+ * to its plan and every copy adds another.
+ */
 public class SchedulePermutationSolution extends AbstractSolution<PlanPair>
     implements PermutationSolution<PlanPair> {
 
@@ -20,6 +29,10 @@ public class SchedulePermutationSolution extends AbstractSolution<PlanPair>
   List<PlanPair> plan;
  private  MultiResult multiResult;
 
+  private long planHash;
+  private boolean planHashKnown;
+  private DecodedSchedule checkpoint;
+
   public MultiResult getMultiResult() {
     return multiResult;
   }
@@ -55,22 +68,48 @@ public class SchedulePermutationSolution extends AbstractSolution<PlanPair>
    */
   @Override
   public Solution<PlanPair> copy() {
-    FitnessInfo fitnessInfoCopy = null;
-
-    if (fitnessInfo != null) {
-      fitnessInfoCopy =
-          new FitnessInfo(
-              Map.copyOf(fitnessInfo.fitness()),
-              List.copyOf(fitnessInfo.schedule()),
-              fitnessInfo.fitnessFunction());
+    var copy =
+        new SchedulePermutationSolution(
+            this.variables().size(),
+            this.objectives().length,
+            copyFitnessInfo(),
+            copyPlan(),
+            this.arbiter);
+    copy.planHash = planHash;
+    copy.planHashKnown = planHashKnown;
+    copy.checkpoint = checkpoint;
+    return copy;
+  }
+
+  /**
+   * Shares the plan when it can't be modified, a compact plan gets one more owner.
+   *
+   * @return The plan of the copy.
+   */
+  private List<PlanPair> copyPlan() {
+    if (plan instanceof CompactPlan || plan instanceof DecodedSchedule.OrderedPlan) {
+      return CompactPlan.retain(plan);
     }
+    return List.copyOf(plan);
+  }
 
-    return new SchedulePermutationSolution(
-        this.variables().size(),
-        this.objectives().length,
-        fitnessInfoCopy,
-        List.copyOf(this.plan),
-        this.arbiter);
+  /**
+   * Shares the fitness information when its parts are already immutable.
+   *
+   * @return The fitness information of the copy.
+   */
+  private FitnessInfo copyFitnessInfo() {
+    if (fitnessInfo == null) {
+      return null;
+    }
+    // A decoded schedule is immutable, copying it would build the whole list.
+    var fitness = Map.copyOf(fitnessInfo.fitness());
+    var schedule = fitnessInfo.schedule();
+    var scheduleCopy = schedule instanceof DecodedSchedule ? schedule : List.copyOf(schedule);
+    if (fitness == fitnessInfo.fitness() && scheduleCopy == schedule) {
+      return fitnessInfo;
+    }
+    return new FitnessInfo(fitness, scheduleCopy, fitnessInfo.fitnessFunction());
   }
 
   public List<PlanPair> getPlan() {
@@ -79,6 +118,59 @@ public class SchedulePermutationSolution extends AbstractSolution<PlanPair>
 
   public void setPlan(List<PlanPair> plan) {
     this.plan = plan;
+    this.planHashKnown = false;
+  }
+
+  /**
+   * Replaces the plan when its hash is already known.
+   *
+   * @param hashedPlan The plan and its hash.
+   */
+  public void setPlan(HashedPlan hashedPlan) {
+    this.plan = hashedPlan.plan();
+    this.planHash = hashedPlan.hash();
+    this.planHashKnown = true;
+  }
+
+  /**
+   * The {@link PlanHash} of the plan, computed only if the operator that created the plan didn't
+   * provide it.
+   *
+   * @return The hash of the plan.
+   */
+  public long getPlanHash() {
+    if (!planHashKnown) {
+      planHash = PlanHash.of(plan);
+      planHashKnown = true;
+    }
+    return planHash;
+  }
+
+  public DecodedSchedule getCheckpoint() {
+    return checkpoint;
+  }
+
+  /**
+   * Sets the schedule of the parent this plan was generated from, so the evaluation can skip the
+   * genes they share.
+   *
+   * @param checkpoint The schedule of the parent, null if there isn't one.
+   */
+  public void setCheckpoint(DecodedSchedule checkpoint) {
+    this.checkpoint = checkpoint;
+  }
+
+  /**
+   * Uses the schedule of another solution as checkpoint, if it has a decoded one.
+   *
+   * @param parent The solution this plan was generated from.
+   */
+  public void setCheckpointFrom(SchedulePermutationSolution parent) {
+    var parentFitness = parent.getFitnessInfo();
+    this.checkpoint =
+        parentFitness != null && parentFitness.schedule() instanceof DecodedSchedule schedule
+            ? schedule
+            : null;
   }
 
   public FitnessInfo getFitnessInfo() {
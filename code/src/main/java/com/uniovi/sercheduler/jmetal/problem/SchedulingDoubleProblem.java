@@ -8,7 +8,6 @@ import com.uniovi.sercheduler.parser.HostLoader;
 import com.uniovi.sercheduler.parser.WorkflowFileLoader;
 import com.uniovi.sercheduler.parser.WorkflowLoader;
 import com.uniovi.sercheduler.service.PlanGenerator;
-import com.uniovi.sercheduler.service.PlanPair;
 import com.uniovi.sercheduler.service.calculator.FitnessCalculator;
 import com.uniovi.sercheduler.service.core.RandomKeysCoder;
 import com.uniovi.sercheduler.util.UnitParser;
@@ -184,23 +183,27 @@ public class SchedulingDoubleProblem implements DoubleProblem {
 
     // We need to create a temporal SchedulePermutationSolution
 
-    var plan = randomKeysCoder.decode(doubleSolution.variables());
+    var variables = doubleSolution.variables();
+    var particle = new double[variables.size()];
+    for (int i = 0; i < particle.length; i++) {
+      particle[i] = variables.get(i);
+    }
+    var plan = randomKeysCoder.decode(particle);
 
     var arbiter = (String) doubleSolution.attributes().get("arbiter");
 
     var tempSolution =
-        new SchedulePermutationSolution(
-            doubleSolution.variables().size(), objectives.size(), null, plan, arbiter);
+        new SchedulePermutationSolution(variables.size(), objectives.size(), null, plan, arbiter);
 
     var fitnessInfo = fitnessCalculator.calculateFitness(tempSolution);
 
-    var orderedPlan =
-        fitnessInfo.schedule().stream().map(s -> new PlanPair(s.task(), s.host())).toList();
+    var orderedPlan = SchedulingProblem.orderedPlan(fitnessInfo);
 
-    var particles = randomKeysCoder.encode(orderedPlan);
+    // The same array holds the keys of the ordered plan.
+    randomKeysCoder.encode(orderedPlan, particle);
 
-    for (int i = 0; i < particles.size(); i++) {
-      doubleSolution.variables().set(i, particles.get(i));
+    for (int i = 0; i < particle.length; i++) {
+      variables.set(i, particle[i]);
     }
 
     for (int i = 0; i < objectives.size(); i++) {
@@ -9,10 +9,14 @@ import com.uniovi.sercheduler.parser.WorkflowFileLoader;
 import com.uniovi.sercheduler.parser.WorkflowLoader;
 import com.uniovi.sercheduler.service.calculator.FitnessCalculator;
 import com.uniovi.sercheduler.service.PlanGenerator;
+import com.uniovi.sercheduler.service.FitnessInfo;
 import com.uniovi.sercheduler.service.PlanPair;
+import com.uniovi.sercheduler.service.core.CompactPlan;
+import com.uniovi.sercheduler.service.core.DecodedSchedule;
 import com.uniovi.sercheduler.util.UnitParser;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import org.uma.jmetal.problem.permutationproblem.PermutationProblem;
@@ -30,6 +34,8 @@ public class SchedulingProblem implements PermutationProblem<SchedulePermutation
   private List<Objective> objectives;
   private String defaultArbiter;
   private ArrayList<MultiResult> evaluationsHistory;
+  private FitnessCache fitnessCache;
+  private final String fitness;
 
 
   /**
@@ -55,6 +61,7 @@ public class SchedulingProblem implements PermutationProblem<SchedulePermutation
     this.instanceData = loadData(workflowFile, hostsFile, referenceSpeed);
     this.evaluationsHistory = new ArrayList<>(evaluations);
     this.fitnessCalculator = FitnessCalculator.getFitness(fitness, instanceData, evaluationsHistory);
+    this.fitness = fitness;
     this.planGenerator = new PlanGenerator(new Random(seed), instanceData);
     this.name = "Scheduling problem";
     this.objectives = objectives;
@@ -89,6 +96,7 @@ public class SchedulingProblem implements PermutationProblem<SchedulePermutation
     this.instanceData = loadData(workflowFile, hostsFile, referenceSpeed);
     this.evaluationsHistory = new ArrayList<>(evaluations);
     this.fitnessCalculator = FitnessCalculator.getFitness(fitness, instanceData, evaluationsHistory);
+    this.fitness = fitness;
     this.planGenerator = new PlanGenerator(new Random(seed), instanceData);
     this.objectives = objectives;
     this.defaultArbiter = defaultArbiter;
@@ -110,6 +118,7 @@ public class SchedulingProblem implements PermutationProblem<SchedulePermutation
     this.instanceData = instanceData;
     this.evaluationsHistory = new ArrayList<>(evaluations);
     this.fitnessCalculator = FitnessCalculator.getFitness(fitness, instanceData, evaluationsHistory);
+    this.fitness = fitness;
     this.planGenerator = new PlanGenerator(new Random(seed), instanceData);
     this.objectives = objectives;
     this.defaultArbiter = defaultArbiter;
@@ -175,12 +184,111 @@ public class SchedulingProblem implements PermutationProblem<SchedulePermutation
   @Override
   public SchedulePermutationSolution evaluate(
       SchedulePermutationSolution schedulePermutationSolution) {
+    return evaluate(
+        schedulePermutationSolution, Objective.MAKESPAN.objectiveName, Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Evaluates a solution, stopping as soon as it's known that an objective won't improve a cutoff.
+   * In that case the solution receives {@link FitnessInfo#dominated()}, every objective is infinite
+   * and the plan is left as it was.
+   *
+   * @param schedulePermutationSolution Solution to evaluate.
+   * @param objective The objective compared with the cutoff.
+   * @param cutoff The value the objective has to improve.
+   * @return The evaluated solution.
+   */
+  public SchedulePermutationSolution evaluate(
+      SchedulePermutationSolution schedulePermutationSolution, String objective, double cutoff) {
+
+    var evaluatedPlan = schedulePermutationSolution.getPlan();
+    FitnessInfo fitnessInfo;
+    if (fitnessCache == null) {
+      fitnessInfo =
+          fitnessCalculator.calculateFitness(schedulePermutationSolution, objective, cutoff);
+    } else {
+      fitnessInfo = evaluateWithCache(schedulePermutationSolution, objective, cutoff);
+    }
+
+    return applyFitness(schedulePermutationSolution, evaluatedPlan, fitnessInfo);
+  }
+
+  /**
+   * Evaluates a solution with its arbiter and a new one with the same plan and another arbiter,
+   * like evaluating the solution and a copy of it. The alternative only shares the plan, nothing
+   * else is copied, and the decodes that don't depend on the arbiter are done once.
+   *
+   * @param schedulePermutationSolution Solution to evaluate.
+   * @param alternativeArbiter The arbiter of the new solution.
+   * @return The new solution, evaluated with the alternative arbiter.
+   */
+  public SchedulePermutationSolution evaluateWithAlternative(
+      SchedulePermutationSolution schedulePermutationSolution, String alternativeArbiter) {
+    var evaluatedPlan = schedulePermutationSolution.getPlan();
+    var alternative =
+        new SchedulePermutationSolution(
+            schedulePermutationSolution.variables().size(),
+            schedulePermutationSolution.objectives().length,
+            null,
+            CompactPlan.retain(evaluatedPlan),
+            alternativeArbiter);
+    alternative.setCheckpoint(schedulePermutationSolution.getCheckpoint());
 
-    var fitnessInfo = fitnessCalculator.calculateFitness(schedulePermutationSolution);
-    var plan = fitnessInfo.schedule().stream().map(s -> new PlanPair(s.task(), s.host())).toList();
+    // The cache works per solution, it already avoids repeating the decodes.
+    if (fitnessCache != null) {
+      evaluate(schedulePermutationSolution);
+      return evaluate(alternative);
+    }
+
+    var fitness =
+        fitnessCalculator.calculateFitness(
+            schedulePermutationSolution,
+            alternative,
+            Objective.MAKESPAN.objectiveName,
+            Double.POSITIVE_INFINITY);
+    applyFitness(schedulePermutationSolution, evaluatedPlan, fitness.fitness());
+    return applyFitness(alternative, evaluatedPlan, fitness.alternativeFitness());
+  }
+
+  /**
+   * Stores the result of an evaluation in a solution, as {@link #evaluate} does. The decoded plan
+   * replaces the one of the solution and the objectives are taken from the fitness.
+   *
+   * @param schedulePermutationSolution The evaluated solution.
+   * @param fitnessInfo The result of its evaluation.
+   * @return The evaluated solution.
+   */
+  public SchedulePermutationSolution applyFitness(
+      SchedulePermutationSolution schedulePermutationSolution, FitnessInfo fitnessInfo) {
+    return applyFitness(
+        schedulePermutationSolution, schedulePermutationSolution.getPlan(), fitnessInfo);
+  }
+
+  private SchedulePermutationSolution applyFitness(
+      SchedulePermutationSolution schedulePermutationSolution,
+      List<PlanPair> evaluatedPlan,
+      FitnessInfo fitnessInfo) {
+    if (fitnessInfo.isDominated()) {
+      schedulePermutationSolution.setFitnessInfo(fitnessInfo);
+      schedulePermutationSolution.setCheckpoint(null);
+      Arrays.fill(schedulePermutationSolution.objectives(), Double.POSITIVE_INFINITY);
+      return schedulePermutationSolution;
+    }
+
+    var plan = orderedPlan(fitnessInfo);
+    // Some calculators, like the rank one, replace the plan with their own before decoding it.
+    var replacedPlan = schedulePermutationSolution.getPlan();
 
     schedulePermutationSolution.setPlan(plan);
     schedulePermutationSolution.setFitnessInfo(fitnessInfo);
+    schedulePermutationSolution.setCheckpoint(null);
+    // The decoded plan replaces the one written by the operators, its arrays can be reused.
+    if (evaluatedPlan != plan) {
+      CompactPlan.release(evaluatedPlan);
+    }
+    if (replacedPlan != evaluatedPlan && replacedPlan != plan) {
+      CompactPlan.release(replacedPlan);
+    }
 
     for (int i = 0; i < objectives.size(); i++) {
       schedulePermutationSolution.objectives()[i] =
@@ -197,8 +305,64 @@ public class SchedulingProblem implements PermutationProblem<SchedulePermutation
    */
   @Override
   public SchedulePermutationSolution createSolution() {
+    return createSolution(planGenerator);
+  }
+
+  /**
+   * Generates a random solution with another plan generator, so threads creating solutions at the
+   * same time don't share the random generator of the problem.
+   *
+   * @param planGenerator The generator of the plan.
+   * @return A new solution.
+   */
+  public SchedulePermutationSolution createSolution(PlanGenerator planGenerator) {
     var plan = planGenerator.generatePlan();
-    return new SchedulePermutationSolution(numberOfVariables(), numberOfObjectives(), null, plan, defaultArbiter);
+    return new SchedulePermutationSolution(
+        numberOfVariables(), numberOfObjectives(), null, plan, defaultArbiter);
+  }
+
+  /**
+   * Evaluates a solution unless the same plan was already evaluated with the same arbiter. Stopped
+   * evaluations aren't cached, as they depend on the cutoff.
+   *
+   * @param solution Solution to evaluate.
+   * @param objective The objective compared with the cutoff.
+   * @param cutoff The value the objective has to improve.
+   * @return The fitness of the solution.
+   */
+  private FitnessInfo evaluateWithCache(
+      SchedulePermutationSolution solution, String objective, double cutoff) {
+    var plan = solution.getPlan();
+    long planHash = solution.getPlanHash();
+    var arbiter = solution.getArbiter();
+
+    var cached = fitnessCache.get(plan, planHash, arbiter);
+    if (cached != null) {
+      if (cached.multiResult() != null) {
+        solution.setMultiResult(cached.multiResult());
+      }
+      return cached.fitnessInfo();
+    }
+
+    var fitnessInfo = fitnessCalculator.calculateFitness(solution, objective, cutoff);
+    if (!fitnessInfo.isDominated()) {
+      fitnessCache.put(plan, planHash, arbiter, fitnessInfo, solution.getMultiResult());
+    }
+    return fitnessInfo;
+  }
+
+  /**
+   * The plan encoded by the schedule of an evaluation. A decoded schedule builds it only if it's
+   * used, so the solutions discarded by the selection never pay for it.
+   *
+   * @param fitnessInfo The result of the evaluation.
+   * @return The tasks ordered by ast with their hosts.
+   */
+  static List<PlanPair> orderedPlan(FitnessInfo fitnessInfo) {
+    if (fitnessInfo.schedule() instanceof DecodedSchedule decodedSchedule) {
+      return decodedSchedule.plan();
+    }
+    return fitnessInfo.schedule().stream().map(s -> new PlanPair(s.task(), s.host())).toList();
   }
 
   private InstanceData loadData(File workflowFile, File hostsFile, String referenceSpeed) {
@@ -215,7 +379,37 @@ public class SchedulingProblem implements PermutationProblem<SchedulePermutation
     return instanceData;
   }
 
+  /**
+   * The name of the fitness function the problem was created with.
+   *
+   * @return The fitness name.
+   */
+  public String getFitness() {
+    return fitness;
+  }
+
+  public List<Objective> getObjectives() {
+    return objectives;
+  }
+
+  public String getDefaultArbiter() {
+    return defaultArbiter;
+  }
+
   public ArrayList<MultiResult> getEvaluationsHistory() {
     return evaluationsHistory;
   }
+
+  public FitnessCache getFitnessCache() {
+    return fitnessCache;
+  }
+
+  /**
+   * Enables a cache of evaluations, by default every solution is evaluated.
+   *
+   * @param fitnessCache The cache to use, null to disable it.
+   */
+  public void setFitnessCache(FitnessCache fitnessCache) {
+    this.fitnessCache = fitnessCache;
+  }
 }
@@ -0,0 +1,147 @@
+package com.uniovi.sercheduler.jmetal.ranking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.uma.jmetal.solution.Solution;
+import org.uma.jmetal.util.errorchecking.Check;
+import org.uma.jmetal.util.ranking.Ranking;
+import org.uma.jmetal.util.ranking.impl.FastNonDominatedSortRanking;
+
+/**
+ * Non dominated sorting for two minimized objectives, in O(N log N) instead of the O(M·N²) of
+ * {@link FastNonDominatedSortRanking}, which gives the same fronts.
+ *
+ * <p>The solutions are sorted by the first objective and then by the second one. In that order a
+ * solution can only be dominated by the ones before it, and the last solution added to a front
+ * has the lowest second objective of the front, which grows from one front to the next. So the
+ * front of a solution is the first one whose lowest second objective is higher, found with a
+ * binary search. Equal solutions don't dominate each other and go to the same front.
+ *
+ * <p>Other numbers of objectives are sorted by {@link FastNonDominatedSortRanking}.
+ *
+ * @param <S> The type of the solutions.
+ */
+public class BiObjectiveRanking<S extends Solution<?>> implements Ranking<S> {
+
+  private final String attributeId = getClass().getName();
+  private final List<ArrayList<S>> rankedSubPopulations = new ArrayList<>();
+
+  @Override
+  public Ranking<S> compute(List<S> solutionList) {
+    Check.notNull(solutionList);
+
+    rankedSubPopulations.clear();
+    if (solutionList.isEmpty()) {
+      return this;
+    }
+    int[] ranks =
+        solutionList.get(0).objectives().length == 2
+            ? ranks(solutionList)
+            : fastNonDominatedSortRanks(solutionList);
+
+    // The fronts keep the order of the list.
+    for (int i = 0; i < ranks.length; i++) {
+      while (rankedSubPopulations.size() <= ranks[i]) {
+        rankedSubPopulations.add(new ArrayList<>());
+      }
+      var solution = solutionList.get(i);
+      solution.attributes().put(attributeId, ranks[i]);
+      rankedSubPopulations.get(ranks[i]).add(solution);
+    }
+
+    return this;
+  }
+
+  private static <S extends Solution<?>> int[] ranks(List<S> solutionList) {
+    int size = solutionList.size();
+    double[] first = new double[size];
+    double[] second = new double[size];
+    Integer[] order = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      var objectives = solutionList.get(i).objectives();
+      first[i] = objectives[0];
+      second[i] = objectives[1];
+      order[i] = i;
+    }
+    Arrays.sort(
+        order,
+        (a, b) -> {
+          int compare = Double.compare(first[a], first[b]);
+          return compare != 0 ? compare : Double.compare(second[a], second[b]);
+        });
+
+    int[] ranks = new int[size];
+    // The lowest second objective of each front, in increasing order.
+    double[] frontMinimum = new double[size];
+    int fronts = 0;
+    int previous = -1;
+    for (int index : order) {
+      int rank;
+      if (previous >= 0 && first[index] == first[previous] && second[index] == second[previous]) {
+        rank = ranks[previous];
+      } else {
+        rank = firstHigher(frontMinimum, fronts, second[index]);
+        if (rank == fronts) {
+          fronts++;
+        }
+      }
+      frontMinimum[rank] = second[index];
+      ranks[index] = rank;
+      previous = index;
+    }
+
+    return ranks;
+  }
+
+  /** The first of the values that is higher than the key, or the size if none is. */
+  private static int firstHigher(double[] values, int size, double key) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (values[middle] > key) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+    return low;
+  }
+
+  private static <S extends Solution<?>> int[] fastNonDominatedSortRanks(List<S> solutionList) {
+    var ranking = new FastNonDominatedSortRanking<S>();
+    ranking.compute(solutionList);
+    int[] ranks = new int[solutionList.size()];
+    for (int i = 0; i < ranks.length; i++) {
+      ranks[i] = ranking.getRank(solutionList.get(i));
+    }
+    return ranks;
+  }
+
+  @Override
+  public List<S> getSubFront(int rank) {
+    Check.that(
+        rank < rankedSubPopulations.size(),
+        "Invalid rank: " + rank + ". Max rank = " + (rankedSubPopulations.size() - 1));
+
+    return rankedSubPopulations.get(rank);
+  }
+
+  @Override
+  public int getNumberOfSubFronts() {
+    return rankedSubPopulations.size();
+  }
+
+  @Override
+  public Integer getRank(S solution) {
+    Check.notNull(solution);
+
+    return (Integer) solution.attributes().get(attributeId);
+  }
+
+  @Override
+  public Object getAttributedId() {
+    return attributeId;
+  }
+}
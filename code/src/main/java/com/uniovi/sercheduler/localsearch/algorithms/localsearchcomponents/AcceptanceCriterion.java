@@ -5,4 +5,12 @@ import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
 public interface AcceptanceCriterion {
 
     boolean checkAcceptance(SchedulePermutationSolution actualSolution, SchedulePermutationSolution bestNeighbor);
+
+    /*
+    Makespan a neighbor has to improve to have any chance of being accepted, the evaluation of the neighbors that
+    can't improve it is stopped
+     */
+    default double cutoff(SchedulePermutationSolution actualSolution){
+        return Double.POSITIVE_INFINITY;
+    }
 }
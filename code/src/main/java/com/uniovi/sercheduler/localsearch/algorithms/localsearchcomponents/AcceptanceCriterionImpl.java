@@ -11,4 +11,9 @@ public class AcceptanceCriterionImpl implements AcceptanceCriterion {
         return actualSolution.getFitnessInfo().fitness().get("makespan") - bestNeighborSolution.getFitnessInfo().fitness().get("makespan") > UPGRADE_THRESHOLD;
     }
 
+    public double cutoff(SchedulePermutationSolution actualSolution){
+        // Only half of the threshold, so the rounding of the subtraction never rejects an accepted neighbor
+        return actualSolution.getFitnessInfo().fitness().get("makespan") - UPGRADE_THRESHOLD / 2;
+    }
+
 }
@@ -13,12 +13,14 @@ import java.util.stream.Stream;
 public class NeighborSelectorImpl implements NeighborSelector {
 
     public Optional<GeneratedNeighbor> selectBestNeighborLazy(SchedulePermutationSolution actualSolution, Stream<GeneratedNeighbor> neighbors, LocalsearchEvaluator evaluator, AtomicInteger counter, AcceptanceCriterion acceptanceCriterion) {
+        double cutoff = acceptanceCriterion.cutoff(actualSolution);
+
         return neighbors
                 .filter(neighbor -> {
 
                     counter.incrementAndGet();
 
-                    evaluator.evaluate(actualSolution, neighbor.generatedSolution(), neighbor.movements().get(neighbor.movements().size() - 1));
+                    evaluator.evaluate(actualSolution, neighbor.generatedSolution(), neighbor.movements().get(neighbor.movements().size() - 1), cutoff);
 
                     return acceptanceCriterion.checkAcceptance(actualSolution, neighbor.generatedSolution());
                 })
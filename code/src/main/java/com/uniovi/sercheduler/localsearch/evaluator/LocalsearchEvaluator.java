@@ -9,24 +9,42 @@ import com.uniovi.sercheduler.localsearch.operator.NeighborUtils;
 import com.uniovi.sercheduler.service.FitnessInfo;
 import com.uniovi.sercheduler.service.PlanPair;
 import com.uniovi.sercheduler.service.TaskSchedule;
+import com.uniovi.sercheduler.service.core.InstancePrecomputation;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class LocalsearchEvaluator {
 
-    private Map<String, Map<String, Double>> computationMatrix;
     private Map<String, Map<String, Long>> networkMatrix;
 
     private InstanceData instanceData;
+    private InstancePrecomputation precomputation;
 
+    /*
+    The matrices must be the ones of the instance, the times that don't depend on the plan are read from its
+    precomputed tables
+     */
     public LocalsearchEvaluator(Map<String, Map<String, Double>> computationMatrix, Map<String, Map<String, Long>> networkMatrix, InstanceData instanceData) {
-        this.computationMatrix = new HashMap<>(computationMatrix);
         this.networkMatrix = new HashMap<>(networkMatrix);
         this.instanceData = instanceData;
+        this.precomputation = InstancePrecomputation.of(instanceData);
     }
 
     public void evaluate(SchedulePermutationSolution originalSolution, SchedulePermutationSolution generatedSolution, Movement movement){
+        evaluate(originalSolution, generatedSolution, movement, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Evaluates a neighbor, stopping as soon as its makespan can't be lower than a cutoff. The
+     * makespan can't be lower than the eft of a task plus the remaining critical path after it.
+     *
+     * @param originalSolution The evaluated solution the neighbor comes from.
+     * @param generatedSolution The neighbor to evaluate.
+     * @param movement The last movement applied to the neighbor.
+     * @param cutoff The makespan the neighbor has to improve.
+     */
+    public void evaluate(SchedulePermutationSolution originalSolution, SchedulePermutationSolution generatedSolution, Movement movement, double cutoff){
 
         if(originalSolution.getFitnessInfo() == null)
             throw new IllegalArgumentException("The solution must have been evaluated first.");
@@ -37,7 +55,7 @@ public class LocalsearchEvaluator {
             updateOriginalScheduleDurations(originalSchedule, generatedSolution.getPlan(), movement.changedHostPositions());
 
         generatedSolution.setFitnessInfo(
-                computeNewFitnessInfo(originalSchedule, generatedSolution.getPlan(), movement.getFirstChangePosition())
+                computeNewFitnessInfo(originalSchedule, generatedSolution.getPlan(), movement.getFirstChangePosition(), cutoff)
         );
     }
 
@@ -53,7 +71,7 @@ public class LocalsearchEvaluator {
             updateOriginalScheduleDurations(originalSchedule, generatedSolution.getPlan(), movement.changedHostPositions());
 
         return originalSolution.getFitnessInfo().fitness().get("makespan")
-                - computeNewFitnessInfo(originalSchedule, generatedSolution.getPlan(), movement.getFirstChangePosition()).fitness().get("makespan");
+                - computeNewFitnessInfo(originalSchedule, generatedSolution.getPlan(), movement.getFirstChangePosition(), Double.POSITIVE_INFINITY).fitness().get("makespan");
     }
 
     private void updateOriginalScheduleDurations(Map<String, TaskSchedule> originalSchedule, List<PlanPair> plan, int[] changedHostPositions) {
@@ -115,9 +133,11 @@ public class LocalsearchEvaluator {
         return originalOrderedSchedule.stream().collect(Collectors.toMap(ts -> ts.task().getName(), ts -> ts));
     }
 
-    private FitnessInfo computeNewFitnessInfo(Map<String, TaskSchedule> originalSchedule, List<PlanPair> newPlan, int firstChangePosition){
+    private FitnessInfo computeNewFitnessInfo(Map<String, TaskSchedule> originalSchedule, List<PlanPair> newPlan, int firstChangePosition, double cutoff){
 
         double newMakespan = 0D;
+        double makespanBound = 0D;
+        var compiledInstance = precomputation.getCompiledInstance();
 
         Map<String, Double> available = new HashMap<>(instanceData.hosts().size());
         Map<String, TaskSchedule> newSchedule = new HashMap<>(instanceData.workflow().size());
@@ -141,6 +161,7 @@ public class LocalsearchEvaluator {
                 newSchedule.put(t.getName(), new TaskSchedule(t, newAst, newEft, h));
 
                 newMakespan = Math.max(newMakespan, newEft);
+                makespanBound = makespanBound(makespanBound, compiledInstance.taskId(t), newEft);
 
             } else {
                 double originalEft = originalSchedule.get(t.getName()).eft();
@@ -150,6 +171,11 @@ public class LocalsearchEvaluator {
                 newSchedule.put(t.getName(), new TaskSchedule(t, originalAst, originalEft, h));
 
                 newMakespan = Math.max(newMakespan, originalEft);
+                makespanBound = makespanBound(makespanBound, compiledInstance.taskId(t), originalEft);
+            }
+
+            if (makespanBound >= cutoff) {
+                return FitnessInfo.dominated();
             }
 
         }
@@ -161,6 +187,10 @@ public class LocalsearchEvaluator {
                 Map.of("makespan", newMakespan, "energy", 0.0), newOrderedSchedule, "incremental evaluator");
     }
 
+    private double makespanBound(double makespanBound, int task, double taskEft) {
+        return Math.max(makespanBound, precomputation.makespanBound(task, taskEft));
+    }
+
     private double computeParentsMaxEft(Map<String, TaskSchedule> newSchedule, Task task) {
         return newSchedule.values().stream()
                 .filter(ts -> task.getParents().contains(ts.task()))
@@ -171,14 +201,14 @@ public class LocalsearchEvaluator {
 
     private double computeDurationOfATask(List<PlanPair> plan, int position, int[] parentsPositions) {
 
-        Task task = plan.get(position).task();
-        Host host = plan.get(position).host();
+        var compiledInstance = precomputation.getCompiledInstance();
+        int task = compiledInstance.taskId(plan.get(position).task());
+        int host = compiledInstance.hostId(plan.get(position).host());
 
-        double diskReadStagingTime =
-                networkMatrix.get(task.getName()).get(task.getName()) / host.getDiskSpeed().doubleValue();
+        double diskReadStagingTime = compiledInstance.diskReadStaging(task, host);
         double taskCommunicationsTime = computeParentsCommunicationsDuration(plan, position, parentsPositions);
-        double computationTime = computationMatrix.get(task.getName()).get(host.getName());
-        double diskWriteTime = task.getOutput().getSizeInBits() / host.getDiskSpeed().doubleValue();
+        double computationTime = compiledInstance.computation(task, host);
+        double diskWriteTime = compiledInstance.diskWrite(task, host);
 
         return diskReadStagingTime + taskCommunicationsTime + computationTime + diskWriteTime;
     }
@@ -187,12 +217,15 @@ public class LocalsearchEvaluator {
 
         double parentsCommunicationsDuration = 0D;
 
+        var compiledInstance = precomputation.getCompiledInstance();
+        int host = compiledInstance.hostId(plan.get(position).host());
+
         for (int parentsPosition : parentsPositions) {
 
-            var slowestSpeed = findHostSpeed(plan.get(position).host(), plan.get(parentsPosition).host());
+            long slowestSpeed = compiledInstance.linkSpeed(host, compiledInstance.hostId(plan.get(parentsPosition).host()));
 
             parentsCommunicationsDuration +=
-                    networkMatrix.get(plan.get(position).task().getName()).get(plan.get(parentsPosition).task().getName()) / slowestSpeed.doubleValue();
+                    networkMatrix.get(plan.get(position).task().getName()).get(plan.get(parentsPosition).task().getName()) / (double) slowestSpeed;
         }
 
         return parentsCommunicationsDuration;
@@ -200,12 +233,8 @@ public class LocalsearchEvaluator {
 
     public Long findHostSpeed(Host host, Host parentHost) {
 
-        if (host.getName().equals(parentHost.getName())) {
-            return host.getDiskSpeed();
-        }
-
-        var bandwidth = Math.min(host.getNetworkSpeed(), parentHost.getNetworkSpeed());
+        var compiledInstance = precomputation.getCompiledInstance();
 
-        return Math.min(bandwidth, parentHost.getDiskSpeed());
+        return compiledInstance.linkSpeed(compiledInstance.hostId(host), compiledInstance.hostId(parentHost));
     }
 }
@@ -9,4 +9,33 @@ import java.util.Map;
  * @param fitness Map containing all possible fitness.
  * @param schedule The final schedule of the plan.
  */
-public record FitnessInfo(Map<String, Double> fitness, List<TaskSchedule> schedule, String fitnessFunction) {}
+public record FitnessInfo(Map<String, Double> fitness, List<TaskSchedule> schedule, String fitnessFunction) {
+
+  /** Name of the fitness function of the evaluations stopped by a cutoff. */
+  public static final String DOMINATED = "dominated";
+
+  private static final FitnessInfo DOMINATED_INFO =
+      new FitnessInfo(
+          Map.of("makespan", Double.POSITIVE_INFINITY, "energy", Double.POSITIVE_INFINITY),
+          List.of(),
+          DOMINATED);
+
+  /**
+   * The result of an evaluation stopped because the plan can't improve its cutoff. Every objective
+   * is infinite, so it loses against any evaluated plan, and there is no schedule.
+   *
+   * @return The dominated marker.
+   */
+  public static FitnessInfo dominated() {
+    return DOMINATED_INFO;
+  }
+
+  /**
+   * Checks if the evaluation was stopped by a cutoff.
+   *
+   * @return True if this is the dominated marker.
+   */
+  public boolean isDominated() {
+    return DOMINATED.equals(fitnessFunction);
+  }
+}
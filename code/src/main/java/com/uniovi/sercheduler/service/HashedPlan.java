@@ -0,0 +1,11 @@
+package com.uniovi.sercheduler.service;
+
+import java.util.List;
+
+/**
+ * A plan together with its {@link PlanHash}.
+ *
+ * @param plan The plan.
+ * @param hash The hash of the plan.
+ */
+public record HashedPlan(List<PlanPair> plan, long hash) {}
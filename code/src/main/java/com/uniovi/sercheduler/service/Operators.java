@@ -1,19 +1,27 @@
 package com.uniovi.sercheduler.service;
 
 import com.uniovi.sercheduler.dto.InstanceData;
-import com.uniovi.sercheduler.dto.Task;
+import com.uniovi.sercheduler.service.core.CompactPlan;
+import com.uniovi.sercheduler.service.core.CompiledInstance;
+import com.uniovi.sercheduler.service.core.InstancePrecomputation;
+import com.uniovi.sercheduler.service.core.PlanArrayPool;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
 
-/** Contains operations that can be done to an existing plan. */
+/**
+ * Contains operations that can be done to an existing plan.
+ *
+ * <p>The new plans are {@link CompactPlan}s written in arrays recycled from the plans of previous
+ * generations. The operators only work with the ids of the tasks and hosts, the edges of the
+ * workflow come from the {@link CompiledInstance}.
+ */
 public class Operators implements Serializable {
 
   InstanceData instanceData;
   Random random;
+  private final transient CompiledInstance compiledInstance;
+  private final transient PlanArrayPool planArrayPool;
 
   public Operators(InstanceData instanceData) {
     this(instanceData, new Random());
@@ -22,6 +30,12 @@ public class Operators implements Serializable {
   public Operators(InstanceData instanceData, Random random) {
     this.instanceData = instanceData;
     this.random = random;
+    this.compiledInstance = InstancePrecomputation.of(instanceData).getCompiledInstance();
+    this.planArrayPool = new PlanArrayPool(compiledInstance, PlanArrayPool.DEFAULT_CAPACITY);
+  }
+
+  public PlanArrayPool getPlanArrayPool() {
+    return planArrayPool;
   }
 
   /**
@@ -32,25 +46,46 @@ public class Operators implements Serializable {
    * @return The merged plan.
    */
   public List<PlanPair> doCrossover(List<PlanPair> plan1, List<PlanPair> plan2) {
+    return doHashedCrossover(plan1, plan2).plan();
+  }
+
+  /**
+   * Takes two plans and create a new one that merges both by a random position, hashing the new
+   * plan while it's built.
+   *
+   * @param plan1 plan to merge
+   * @param plan2 plan to merge
+   * @return The merged plan and its hash.
+   */
+  public HashedPlan doHashedCrossover(List<PlanPair> plan1, List<PlanPair> plan2) {
+    var first = CompactPlan.of(compiledInstance, plan1);
+    var second = CompactPlan.of(compiledInstance, plan2);
 
-    List<PlanPair> newPlan = new ArrayList<>();
+    var newPlan = planArrayPool.create();
+    long hash = 0L;
     // Choose a random position to do the cut
-    int position = random.nextInt(0, plan1.size());
+    int position = random.nextInt(0, first.size());
 
+    // A bitset of task ids tells if the plan already has that element
+    var added = new long[(compiledInstance.taskCount() + 63) >>> 6];
     for (int i = 0; i < position; i++) {
-      newPlan.add(plan1.get(i));
+      int task = first.taskAt(i);
+      int host = first.hostAt(i);
+      newPlan.set(i, task, host);
+      added[task >>> 6] |= 1L << task;
+      hash ^= PlanHash.key(i, compiledInstance.pair(task, host));
     }
-    var planSet =
-        newPlan.stream().map(PlanPair::task).map(Task::getName).collect(Collectors.toSet());
-    for (int i = 0; i < plan2.size() && position < plan1.size(); i++) {
-      // We use a set to more efficiently know if the plan already ahs that element
-
-      if (planSet.add(plan2.get(i).task().getName())) {
-        newPlan.add(new PlanPair(plan2.get(i).task(), plan2.get(i).host()));
+    for (int i = 0; i < second.size() && position < first.size(); i++) {
+      int task = second.taskAt(i);
+      if ((added[task >>> 6] & (1L << task)) == 0) {
+        added[task >>> 6] |= 1L << task;
+        int host = second.hostAt(i);
+        newPlan.set(position, task, host);
+        hash ^= PlanHash.key(position, compiledInstance.pair(task, host));
         position++;
       }
     }
-    return newPlan;
+    return new HashedPlan(newPlan.build(position), hash);
   }
 
   /**
@@ -62,57 +97,71 @@ public class Operators implements Serializable {
    * @return The new plan.
    */
   public List<PlanPair> mutate(List<PlanPair> plan) {
+    return mutate(plan, PlanHash.of(plan)).plan();
+  }
 
-    // Choose a random position to do the cut
-    int position = random.nextInt(0, plan.size());
-
-    int positionLeft = position - 1;
-
-    // We need to know the viable range to mutate and move the task.
+  /**
+   * Creates a new plan selecting a random position and moving the element to a new random position.
+   * Only the moved genes change, so the hash of the new plan is updated from the original one.
+   *
+   * @param plan Original plan to mutate.
+   * @param planHash The hash of the original plan.
+   * @return The new plan and its hash.
+   */
+  public HashedPlan mutate(List<PlanPair> plan, long planHash) {
+    var original = CompactPlan.of(compiledInstance, plan);
 
-    boolean leftNotFound = true;
-    while (positionLeft >= 0 && leftNotFound) {
-      if (plan.get(position).task().getParents().contains(plan.get(positionLeft).task())) {
-        leftNotFound = false;
-      } else {
-        positionLeft--;
+    // Choose a random position to do the cut
+    int position = random.nextInt(0, original.size());
+    int task = original.taskAt(position);
+
+    // We need to know the viable range to mutate and move the task. It's limited by the nearest
+    // parent on the left and the nearest child on the right, found with the positions of the plan.
+
+    int positionLeft = -1;
+    var parentOffsets = compiledInstance.parentOffsets();
+    var parents = compiledInstance.parents();
+    for (int e = parentOffsets[task]; e < parentOffsets[task + 1]; e++) {
+      int parentPosition = original.positionOf(parents[e]);
+      if (parentPosition < position && parentPosition > positionLeft) {
+        positionLeft = parentPosition;
       }
     }
 
-    int positionRight = position + 1;
-    boolean rightNotFound = true;
-
-    while (positionRight < plan.size() - 1 && rightNotFound) {
-      if (plan.get(position).task().getChildren().contains(plan.get(positionRight).task())) {
-        rightNotFound = false;
-      } else {
-        positionRight++;
+    // The last position is never a candidate, unless it's the one right after the task.
+    int firstChild = original.size() - 1;
+    var childOffsets = compiledInstance.childOffsets();
+    var children = compiledInstance.children();
+    for (int e = childOffsets[task]; e < childOffsets[task + 1]; e++) {
+      int childPosition = original.positionOf(children[e]);
+      if (childPosition > position && childPosition < firstChild) {
+        firstChild = childPosition;
       }
     }
+    int positionRight = Math.max(position + 1, firstChild);
 
     // now we can get a new position
 
     int newPosition = random.nextInt(positionLeft + 1, positionRight);
-    var newPlan = new ArrayList<>(List.copyOf(plan));
+    var newPlan = planArrayPool.edit(original);
 
     // Now we need to find if we move left or right
 
     if (newPosition < position) {
       // Go left
-      for (int i = position - 1; i >= newPosition && i >= 0; i--) {
-        newPlan.set(i + 1, newPlan.get(i));
-      }
+      newPlan.move(newPosition, newPosition + 1, position - newPosition);
     } else if (newPosition > position) {
-      for (int i = position + 1; i <= newPosition; i++) {
-        newPlan.set(i - 1, newPlan.get(i));
-      }
+      newPlan.move(position + 1, position, newPosition - position);
     }
-    // put the mutated element in the new position
-    var newHost =
-        instanceData.hosts().values().stream()
-            .toList()
-            .get(random.nextInt(0, instanceData.hosts().size()));
-    newPlan.set(newPosition, new PlanPair(plan.get(position).task(), newHost));
-    return Collections.unmodifiableList(newPlan);
+    // put the mutated element in the new position, the hosts follow the order of the instance
+    int newHost = random.nextInt(0, compiledInstance.hostCount());
+    newPlan.set(newPosition, task, newHost);
+    var mutated = newPlan.build();
+
+    int from = Math.min(position, newPosition);
+    int to = Math.max(position, newPosition) + 1;
+    long hash = PlanHash.xorRange(planHash, original, from, to);
+    hash = PlanHash.xorRange(hash, mutated, from, to);
+    return new HashedPlan(mutated, hash);
   }
 }
@@ -0,0 +1,65 @@
+package com.uniovi.sercheduler.service;
+
+import java.util.List;
+
+/**
+ * Zobrist style hash of a plan.
+ *
+ * <p>Every (position, task, host) triple gets a pseudo random 64 bit key and the hash of a plan is
+ * the XOR of the keys of its genes. Changing some genes only needs to XOR out their old keys and
+ * XOR in the new ones. The keys are derived from the names of the task and the host with a
+ * SplitMix64 finalizer, so no table has to be stored and plans of different problems can be
+ * hashed with the same class.
+ */
+public final class PlanHash {
+
+  private PlanHash() {}
+
+  /**
+   * Hashes a full plan.
+   *
+   * @param plan The plan.
+   * @return The hash.
+   */
+  public static long of(List<PlanPair> plan) {
+    return xorRange(0L, plan, 0, plan.size());
+  }
+
+  /**
+   * The key of a gene.
+   *
+   * @param position The position of the gene in the plan.
+   * @param pair The task and host of the gene.
+   * @return The key.
+   */
+  public static long key(int position, PlanPair pair) {
+    long seed =
+        (((long) position) << 32)
+            ^ (pair.task().getName().hashCode() & 0xFFFFFFFFL)
+            ^ (((long) pair.host().getName().hashCode()) * 0x9E3779B97F4A7C15L);
+    return mix(seed);
+  }
+
+  /**
+   * XORs the keys of a range of genes into a hash. Applying it twice with the same genes removes
+   * them.
+   *
+   * @param hash The hash to update.
+   * @param plan The plan holding the genes.
+   * @param from The first position, inclusive.
+   * @param to The last position, exclusive.
+   * @return The updated hash.
+   */
+  public static long xorRange(long hash, List<PlanPair> plan, int from, int to) {
+    for (int i = from; i < to; i++) {
+      hash ^= key(i, plan.get(i));
+    }
+    return hash;
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
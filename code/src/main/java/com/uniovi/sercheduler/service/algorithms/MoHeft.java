@@ -2,209 +2,304 @@ package com.uniovi.sercheduler.service.algorithms;
 
 import com.uniovi.sercheduler.dao.Objective;
 import com.uniovi.sercheduler.dto.InstanceData;
+import com.uniovi.sercheduler.jmetal.evaluation.EvaluatorPool;
 import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
 import com.uniovi.sercheduler.service.FitnessInfo;
-import com.uniovi.sercheduler.service.PlanPair;
-import com.uniovi.sercheduler.service.TaskCosts;
 import com.uniovi.sercheduler.service.TaskSchedule;
-import com.uniovi.sercheduler.service.core.SchedulingHelper;
-import com.uniovi.sercheduler.service.support.ScheduleGap;
-import org.uma.jmetal.util.comparator.RankingAndCrowdingDistanceComparator;
-import org.uma.jmetal.util.densityestimator.impl.CrowdingDistanceDensityEstimator;
-import org.uma.jmetal.util.ranking.impl.FastNonDominatedSortRanking;
+import com.uniovi.sercheduler.service.core.CompactPlan;
+import com.uniovi.sercheduler.service.core.CompiledInstance;
+import com.uniovi.sercheduler.service.core.HostGaps;
+import com.uniovi.sercheduler.service.core.InstancePrecomputation;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
+import java.util.stream.IntStream;
+
+/**
+ * Multi objective HEFT. The tasks are taken in the HEFT ranking order and every partial schedule
+ * is expanded with the task in every host, then only the most spread non dominated expansions
+ * are kept.
+ *
+ * <p>An expansion is only a few numbers computed from its parent, so the expansions of a step are
+ * evaluated in parallel without copying anything. The non dominated ones and their crowding
+ * distance are found with the same rules and order as {@code BiObjectiveRanking} and {@code
+ * CrowdingDistanceDensityEstimator}, on primitive arrays. Only the kept expansions become partial
+ * schedules: the plan is a chain of steps shared with the parent, and the arrays and gaps of the
+ * parent are handed to its last kept child and copied for the others.
+ */
 public class MoHeft {
-  private final InstanceData instanceData;
-  private final Map<String, Map<String, Double>> computationMatrix;
-  private final Map<String, Map<String, Long>> networkMatrix;
-
-  private final Double referenceSpeedRead;
-  private final Double referenceSpeedWrite;
+  private final InstancePrecomputation precomputation;
+  private final CompiledInstance compiledInstance;
+  private final int numberOfThreads;
 
   public MoHeft(InstanceData instanceData) {
-    this.instanceData = instanceData;
-    this.computationMatrix =
-        SchedulingHelper.calculateComputationMatrix(instanceData, instanceData.referenceFlops());
-    this.networkMatrix = SchedulingHelper.calculateNetworkMatrix(instanceData);
-    this.referenceSpeedWrite = SchedulingHelper.calculateReferenceSpeedWrite(instanceData);
-    this.referenceSpeedRead = SchedulingHelper.calculateReferenceSpeedRead(instanceData);
+    this(instanceData, 0);
+  }
+
+  /**
+   * Full constructor.
+   *
+   * @param instanceData The instance to schedule.
+   * @param numberOfThreads The threads evaluating the expansions, 0 for one per processor.
+   */
+  public MoHeft(InstanceData instanceData, int numberOfThreads) {
+    if (numberOfThreads < 0) {
+      throw new IllegalArgumentException(
+          "The number of threads is a negative value: " + numberOfThreads);
+    }
+    this.precomputation = InstancePrecomputation.of(instanceData);
+    this.compiledInstance = precomputation.getCompiledInstance();
+    this.numberOfThreads =
+        numberOfThreads == 0 ? Runtime.getRuntime().availableProcessors() : numberOfThreads;
   }
 
   public List<SchedulePermutationSolution> calculate(int numberOfSolutions) {
-    List<SchedulePermutationSolution> solutions = new ArrayList<>(numberOfSolutions);
+    int hostCount = compiledInstance.hostCount();
 
     // We need to create the heft ranking
 
-    var ranking =
-        SchedulingHelper.calculateHeftRanking(
-            instanceData, computationMatrix, referenceSpeedRead, referenceSpeedWrite);
+    var ranking = precomputation.getHeftRankingTasks();
 
     List<PartialSolution> partialSolutions = new ArrayList<>();
 
     partialSolutions.add(new PartialSolution());
 
-    for (var task : ranking.keySet()) {
-
-      // We need to calculate the makespan and the energy for each host
-
-      List<PartialSolution> newPartialSolutions = new ArrayList<>(partialSolutions.size());
-
-      for (var partialSolution : partialSolutions) {
-        for (var host : instanceData.hosts().values()) {
-
-          var newPartialSolution = partialSolution.copy();
-          TaskCosts taskCosts =
-              SchedulingHelper.calculateEftActive(
-                  task,
-                  host,
-                  newPartialSolution.schedule,
-                  newPartialSolution.available,
-                  computationMatrix,
-                  networkMatrix);
-
-          var ast =
-              taskCosts.eft()
-                  - computationMatrix.get(task.getName()).get(host.getName())
-                  - taskCosts.diskWrite()
-                  - taskCosts.taskCommunications()
-                  - taskCosts.diskReadStaging();
-
-          // We are working with an insertion algorithm so we need to work with gaps
-
-          // we need to find the closest gap
-
-          var availableHostGaps =
-              newPartialSolution.available.getOrDefault(
-                  host.getName(), List.of(new ScheduleGap(0D, Double.MAX_VALUE)));
-          var gapToReplace =
-              availableHostGaps.stream()
-                  .filter(gap -> taskCosts.eft() <= gap.end() && taskCosts.ast() >= gap.start())
-                  .findFirst()
-                  .orElseThrow();
-
-          // Now we need to split the gap in two, using the eft as the slice, depending of the cut
-          // we can
-          // have one or two gaps. We always generate two gaps so we need to remove the gaps where
-          // the
-          // start and the end are the same.
-
-          var newGaps =
-              Stream.of(
-                      new ScheduleGap(gapToReplace.start(), taskCosts.ast()),
-                      new ScheduleGap(taskCosts.eft(), gapToReplace.end()))
-                  .filter(gap -> !gap.start().equals(gap.end()))
-                  .toList();
-
-          // Now we generate a new list with the old gaps and the new ones, removing the used gap.
-          var newHostGaps =
-              Stream.concat(
-                      availableHostGaps.stream().filter(gap -> !gap.equals(gapToReplace)),
-                      newGaps.stream())
-                  .toList();
-
-          // We need to put the available gaps
-          newPartialSolution.available.put(host.getName(), newHostGaps);
-
-          newPartialSolution.schedule.put(
-              task.getName(), new TaskSchedule(task, taskCosts.ast(), taskCosts.eft(), host));
-
-          double makespan = Math.max(taskCosts.eft(), partialSolution.currentMakespan);
-          double activeEnergy = (taskCosts.eft() - ast) * host.getEnergyCost();
-          double standbyEnergy = 0;
-          for (var h : instanceData.hosts().values()) {
-            standbyEnergy += h.getEnergyCostStandBy() * makespan;
-          }
-
-          // We need to update the partial solution with the new plan, makespan and energy.
-          newPartialSolution.plan.add(new PlanPair(task, host));
-          newPartialSolution.currentMakespan = makespan;
-          newPartialSolution.currentActiveEnergy += activeEnergy;
-          newPartialSolution.currentStandbyEnergy = standbyEnergy;
-
-          newPartialSolutions.add(newPartialSolution);
-        }
-      }
+    var expansions = new Expansions(Math.max(numberOfSolutions, 1) * hostCount);
+    var parentIds = IntStream.range(0, Math.max(numberOfSolutions, 1)).boxed().toList();
 
-      partialSolutions = crowdingDistance(newPartialSolutions, numberOfSolutions);
+    var pool = EvaluatorPool.acquire(numberOfThreads);
+    try {
+      for (var task : ranking) {
+        int taskId = compiledInstance.taskId(task);
+        var parents = partialSolutions;
 
-      // We need to update the partialSolutions to use the pruned solutions
+        // We need to calculate the makespan and the energy for each host
+        pool.evaluate(
+            parentIds.subList(0, parents.size()),
+            p -> expand(parents.get(p), p * hostCount, taskId, expansions));
 
-    }
+        var kept = crowdingDistance(expansions, parents.size() * hostCount, numberOfSolutions);
 
-    solutions = partialSolutions.stream().map(PartialSolution::toSolution).toList();
+        // We need to update the partialSolutions to use the pruned solutions
+        partialSolutions = apply(parents, kept, taskId, expansions);
+      }
+    } finally {
+      pool.release();
+    }
 
-    return solutions;
+    return partialSolutions.stream().map(PartialSolution::toSolution).toList();
   }
 
-  private List<PartialSolution> crowdingDistance(
-      List<PartialSolution> partialSolutions, int numberOfSolutions) {
-    // First, we need to create a solution using JMetal class to be able to use the JMetal
-    // CrowdingDistance
+  /** Evaluates a partial solution with the task in every host, without modifying it. */
+  private void expand(PartialSolution partialSolution, int first, int taskId, Expansions target) {
+    double maxEst = compiledInstance.maxParentEft(taskId, partialSolution.eft);
+
+    for (int host = 0; host < compiledInstance.hostCount(); host++) {
+      double diskReadStaging = compiledInstance.diskReadStaging(taskId, host);
+      double diskWrite = compiledInstance.diskWrite(taskId, host);
+      double computation = compiledInstance.computation(taskId, host);
+      double taskCommunications =
+          compiledInstance.communicationTime(taskId, host, partialSolution.hostOf);
+      double taskTime = compiledInstance.fixedCost(taskId, host) + taskCommunications;
+
+      // We are working with an insertion algorithm so we need to work with gaps
+      double taskAst = partialSolution.gaps.earliestFit(host, maxEst, taskTime);
+      double taskEft = taskAst + taskTime;
+
+      var ast = taskEft - computation - diskWrite - taskCommunications - diskReadStaging;
+
+      double makespan = Math.max(taskEft, partialSolution.currentMakespan);
+      double activeEnergy = (taskEft - ast) * compiledInstance.energyCost(host);
+      double standbyEnergy = 0;
+      for (int h = 0; h < compiledInstance.hostCount(); h++) {
+        standbyEnergy += compiledInstance.energyCostStandBy(h) * makespan;
+      }
 
-    for (var partialSolution : partialSolutions) {
-      partialSolution.currentSolution = partialSolution.toSolution();
+      int expansion = first + host;
+      target.ast[expansion] = taskAst;
+      target.eft[expansion] = taskEft;
+      target.makespan[expansion] = makespan;
+      target.activeEnergy[expansion] = partialSolution.currentActiveEnergy + activeEnergy;
+      target.standbyEnergy[expansion] = standbyEnergy;
+      target.energy[expansion] = target.activeEnergy[expansion] + standbyEnergy;
     }
+  }
 
-    var solutions =
-        new ArrayList<>(
-            partialSolutions.stream().map(PartialSolution::getCurrentSolution).toList());
+  /**
+   * Keeps the non dominated expansions with the highest crowding distance.
+   *
+   * @param expansions The evaluated expansions.
+   * @param size How many expansions there are.
+   * @param numberOfSolutions How many to keep.
+   * @return The kept expansions, from the most to the least spread.
+   */
+  private static int[] crowdingDistance(Expansions expansions, int size, int numberOfSolutions) {
+    var energy = expansions.energy;
+    var makespan = expansions.makespan;
+
+    // Get non-dominated solutions, equal ones are kept together
+    var order = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(
+        order,
+        (a, b) -> {
+          int compare = Double.compare(energy[a], energy[b]);
+          return compare != 0 ? compare : Double.compare(makespan[a], makespan[b]);
+        });
+    var nonDominated = new boolean[size];
+    double bestMakespan = 0;
+    int previous = -1;
+    for (int expansion : order) {
+      if (previous >= 0
+          && energy[expansion] == energy[previous]
+          && makespan[expansion] == makespan[previous]) {
+        nonDominated[expansion] = nonDominated[previous];
+      } else if (previous < 0 || makespan[expansion] < bestMakespan) {
+        nonDominated[expansion] = true;
+        bestMakespan = makespan[expansion];
+      }
+      previous = expansion;
+    }
 
-    // Get non-dominated solutions
-    var ranking = new FastNonDominatedSortRanking<SchedulePermutationSolution>();
-    ranking.compute(solutions);
-    var nonDominated = new ArrayList<>(ranking.getSubFront(0));
+    var front = new ArrayList<Integer>();
+    for (int i = 0; i < size; i++) {
+      if (nonDominated[i]) {
+        front.add(i);
+      }
+    }
 
-    var estimator = new CrowdingDistanceDensityEstimator<SchedulePermutationSolution>();
+    var distance = expansions.distance;
+    if (front.size() <= 2) {
+      for (int expansion : front) {
+        distance[expansion] = Double.POSITIVE_INFINITY;
+      }
+    } else {
+      for (int expansion : front) {
+        distance[expansion] = 0D;
+      }
+      // Each objective sorts the order left by the previous one, as jMetal does
+      var sorted = front.toArray(new Integer[0]);
+      for (var values : List.of(energy, makespan)) {
+        Arrays.sort(sorted, (a, b) -> Double.compare(values[a], values[b]));
+        double min = values[sorted[0]];
+        double max = values[sorted[sorted.length - 1]];
+        if (min == max) {
+          continue;
+        }
+        distance[sorted[0]] = Double.POSITIVE_INFINITY;
+        distance[sorted[sorted.length - 1]] = Double.POSITIVE_INFINITY;
+        for (int j = 1; j < sorted.length - 1; j++) {
+          double value = (values[sorted[j + 1]] - values[sorted[j - 1]]) / (max - min);
+          distance[sorted[j]] = value + distance[sorted[j]];
+        }
+      }
+    }
 
-    estimator.compute(nonDominated);
+    // Returns the K best solutions
+    return front.stream()
+        .sorted(Comparator.comparingDouble(expansion -> -distance[expansion]))
+        .limit(numberOfSolutions)
+        .mapToInt(Integer::intValue)
+        .toArray();
+  }
 
-    // now we need to get only the partialSolutions that are non-dominated
+  /** Turns the kept expansions into partial solutions. */
+  private List<PartialSolution> apply(
+      List<PartialSolution> parents, int[] kept, int taskId, Expansions expansions) {
+    int hostCount = compiledInstance.hostCount();
+    var children = new int[parents.size()];
+    for (int expansion : kept) {
+      children[expansion / hostCount]++;
+    }
 
-    var filtered =
-        partialSolutions.stream()
-            .filter(
-                ps ->
-                    ps.currentSolution
-                        .attributes()
-                        .containsKey(CrowdingDistanceDensityEstimator.class.getName())).toList();
+    List<PartialSolution> partialSolutions = new ArrayList<>(kept.length);
+    for (int expansion : kept) {
+      int parent = expansion / hostCount;
+      int host = expansion % hostCount;
+      // The parent isn't needed after its last child, which takes its arrays.
+      var partialSolution =
+          --children[parent] > 0 ? parents.get(parent).copy() : parents.get(parent);
+
+      // Now we need to split the gap in two, using the eft as the slice.
+      double taskAst = expansions.ast[expansion];
+      double taskEft = expansions.eft[expansion];
+      partialSolution.gaps.occupy(host, taskAst, taskEft);
+
+      partialSolution.ast[taskId] = taskAst;
+      partialSolution.eft[taskId] = taskEft;
+      partialSolution.hostOf[taskId] = host;
+
+      // We need to update the partial solution with the new plan, makespan and energy.
+      partialSolution.plan = new Step(partialSolution.plan, taskId, host);
+      partialSolution.currentMakespan = expansions.makespan[expansion];
+      partialSolution.currentActiveEnergy = expansions.activeEnergy[expansion];
+      partialSolution.currentStandbyEnergy = expansions.standbyEnergy[expansion];
+
+      partialSolutions.add(partialSolution);
+    }
+    return partialSolutions;
+  }
 
-    // Returns the K best solutions
-    return filtered.stream()
-            .sorted(Comparator.comparingDouble(ps ->
-                    -((Double) ps.currentSolution
-                            .attributes()
-                            .get(CrowdingDistanceDensityEstimator.class.getName()))))
-            .limit(numberOfSolutions)
-            .toList();
+  /** The expansions of a step, indexed by parent and host. */
+  private static final class Expansions {
+    private final double[] ast;
+    private final double[] eft;
+    private final double[] makespan;
+    private final double[] activeEnergy;
+    private final double[] standbyEnergy;
+    private final double[] energy;
+    private final double[] distance;
+
+    private Expansions(int capacity) {
+      this.ast = new double[capacity];
+      this.eft = new double[capacity];
+      this.makespan = new double[capacity];
+      this.activeEnergy = new double[capacity];
+      this.standbyEnergy = new double[capacity];
+      this.energy = new double[capacity];
+      this.distance = new double[capacity];
+    }
   }
 
+  /**
+   * The last task added to a plan, the previous steps are shared by every plan that grew from the
+   * same one.
+   */
+  private record Step(Step previous, int task, int host) {}
+
   private class PartialSolution {
-    private List<PlanPair> plan = new ArrayList<>();
-    private Map<String, TaskSchedule> schedule = new HashMap<>();
-    private Map<String, List<ScheduleGap>> available = new HashMap<>();
+    private Step plan;
+    private double[] ast;
+    private double[] eft;
+    private int[] hostOf;
+    private HostGaps gaps;
     private double currentMakespan = 0;
     private double currentActiveEnergy = 0;
     private double currentStandbyEnergy = 0;
-    private SchedulePermutationSolution currentSolution;
 
     public PartialSolution() {
-      super();
+      this.ast = new double[compiledInstance.taskCount()];
+      this.eft = new double[compiledInstance.taskCount()];
+      this.hostOf = new int[compiledInstance.taskCount()];
+      this.gaps = new HostGaps(compiledInstance.hostCount());
+      Arrays.fill(hostOf, -1);
     }
 
     public PartialSolution(
-        List<PlanPair> plan,
-        Map<String, TaskSchedule> schedule,
-        Map<String, List<ScheduleGap>> available,
+        Step plan,
+        double[] ast,
+        double[] eft,
+        int[] hostOf,
+        HostGaps gaps,
         double currentMakespan,
         double currentActiveEnergy,
         double currentStandbyEnergy) {
       this.plan = plan;
-      this.schedule = schedule;
-      this.available = available;
+      this.ast = ast;
+      this.eft = eft;
+      this.hostOf = hostOf;
+      this.gaps = gaps;
       this.currentMakespan = currentMakespan;
       this.currentActiveEnergy = currentActiveEnergy;
       this.currentStandbyEnergy = currentStandbyEnergy;
@@ -213,15 +308,29 @@ public class MoHeft {
     public PartialSolution copy() {
 
       return new PartialSolution(
-          new ArrayList<>(plan),
-          new HashMap<>(schedule),
-          new HashMap<>(available),
+          plan,
+          ast.clone(),
+          eft.clone(),
+          hostOf.clone(),
+          new HostGaps(gaps),
           currentMakespan,
           currentActiveEnergy,
           currentStandbyEnergy);
     }
 
     public SchedulePermutationSolution toSolution() {
+      int size = 0;
+      for (var step = plan; step != null; step = step.previous()) {
+        size++;
+      }
+      var tasks = new int[size];
+      var hosts = new int[size];
+      int position = size;
+      for (var step = plan; step != null; step = step.previous()) {
+        position--;
+        tasks[position] = step.task();
+        hosts[position] = step.host();
+      }
 
       var fitness =
           Map.of(
@@ -229,14 +338,22 @@ public class MoHeft {
               currentActiveEnergy + currentStandbyEnergy,
               Objective.MAKESPAN.objectiveName,
               currentMakespan);
-      var orderedSchedule =
-          schedule.values().stream().sorted(Comparator.comparing(TaskSchedule::ast)).toList();
+      var orderedSchedule = new ArrayList<TaskSchedule>(size);
+      for (int i = 0; i < size; i++) {
+        orderedSchedule.add(
+            new TaskSchedule(
+                compiledInstance.task(tasks[i]),
+                ast[tasks[i]],
+                eft[tasks[i]],
+                compiledInstance.host(hosts[i])));
+      }
+      orderedSchedule.sort(Comparator.comparingDouble(TaskSchedule::ast));
       var solution =
           new SchedulePermutationSolution(
               1,
               2,
               new FitnessInfo(fitness, orderedSchedule, "MOHEFT"),
-              plan,
+              CompactPlan.of(compiledInstance, tasks, hosts),
               Objective.ENERGY.objectiveName);
 
       var objectives = List.of(Objective.ENERGY, Objective.MAKESPAN);
@@ -247,16 +364,8 @@ public class MoHeft {
       return solution;
     }
 
-    public Map<String, TaskSchedule> getSchedule() {
-      return schedule;
-    }
-
-    public Map<String, List<ScheduleGap>> getAvailable() {
-      return available;
-    }
-
-    public SchedulePermutationSolution getCurrentSolution() {
-      return currentSolution;
+    public HostGaps getGaps() {
+      return gaps;
     }
   }
 }
@@ -1,25 +1,23 @@
 package com.uniovi.sercheduler.service.calculator;
 
-import com.uniovi.sercheduler.dto.Host;
+import com.uniovi.sercheduler.dao.Objective;
 import com.uniovi.sercheduler.dto.InstanceData;
-import com.uniovi.sercheduler.dto.Task;
 import com.uniovi.sercheduler.dto.analysis.MultiResult;
 import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
 import com.uniovi.sercheduler.service.FitnessInfo;
-import com.uniovi.sercheduler.service.ParentsInfo;
-import com.uniovi.sercheduler.service.TaskCosts;
-import com.uniovi.sercheduler.service.TaskSchedule;
-import com.uniovi.sercheduler.service.core.SchedulingHelper;
-import com.uniovi.sercheduler.service.support.ScheduleGap;
+import com.uniovi.sercheduler.service.core.CompactPlan;
+import com.uniovi.sercheduler.service.core.CompiledInstance;
+import com.uniovi.sercheduler.service.core.EvaluationWorkspace;
+import com.uniovi.sercheduler.service.core.InstancePrecomputation;
+import com.uniovi.sercheduler.service.core.PlanArrayPool;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
-import static com.uniovi.sercheduler.service.core.SchedulingHelper.calculateComputationMatrix;
 
 /** Abstract class for defining the process of calculating a makespan from a solution. */
 public abstract class FitnessCalculator {
 
+  /** Relative margin covering the rounding of the standby energy when it's used as a bound. */
+  private static final double STANDBY_BOUND_MARGIN = 1e-9;
+
   InstanceData instanceData;
   Map<String, Map<String, Double>> computationMatrix;
   Map<String, Map<String, Long>> networkMatrix;
@@ -27,6 +25,16 @@ public abstract class FitnessCalculator {
   Double referenceSpeedRead;
   Double referenceSpeedWrite;
 
+  CompiledInstance compiledInstance;
+  InstancePrecomputation precomputation;
+
+  private final double standByBoundRate;
+
+  private final PlanArrayPool rankedPlans;
+
+  private final ThreadLocal<EvaluationWorkspace> workspaces =
+      ThreadLocal.withInitial(() -> new EvaluationWorkspace(compiledInstance));
+
   /**
    * Full constructor.
    *
@@ -34,11 +42,19 @@ public abstract class FitnessCalculator {
    */
   protected FitnessCalculator(InstanceData instanceData) {
     this.instanceData = instanceData;
-    this.computationMatrix =
-        SchedulingHelper.calculateComputationMatrix(instanceData, instanceData.referenceFlops());
-    this.networkMatrix = SchedulingHelper.calculateNetworkMatrix(instanceData);
-    this.referenceSpeedWrite = SchedulingHelper.calculateReferenceSpeedWrite(instanceData);
-    this.referenceSpeedRead = SchedulingHelper.calculateReferenceSpeedRead(instanceData);
+    this.precomputation = InstancePrecomputation.of(instanceData);
+    this.computationMatrix = precomputation.getComputationMatrix();
+    this.networkMatrix = precomputation.getNetworkMatrix();
+    this.referenceSpeedWrite = precomputation.getReferenceSpeedWrite();
+    this.referenceSpeedRead = precomputation.getReferenceSpeedRead();
+    this.compiledInstance = precomputation.getCompiledInstance();
+    this.rankedPlans = new PlanArrayPool(compiledInstance, PlanArrayPool.DEFAULT_CAPACITY);
+
+    double standByRate = 0;
+    for (int host = 0; host < compiledInstance.hostCount(); host++) {
+      standByRate += compiledInstance.energyCostStandBy(host);
+    }
+    this.standByBoundRate = standByRate * (1 - STANDBY_BOUND_MARGIN);
   }
 
   /**
@@ -166,33 +182,329 @@ public abstract class FitnessCalculator {
     };
   }
 
-  public abstract FitnessInfo calculateFitness(SchedulePermutationSolution solution);
+  /**
+   * Calculates the fitness of a solution.
+   *
+   * @param solution The solution to evaluate.
+   * @return The information related to the Fitness.
+   */
+  public FitnessInfo calculateFitness(SchedulePermutationSolution solution) {
+    return calculateFitness(solution, Objective.MAKESPAN.objectiveName, Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Calculates the fitness of a solution, stopping as soon as an objective can't end below a
+   * cutoff. Both objectives only grow while a plan is decoded, and the descendants of a task can't
+   * finish before the remaining critical path, so a partial schedule is enough to know that the
+   * solution won't improve the cutoff.
+   *
+   * @param solution The solution to evaluate.
+   * @param objective The objective compared with the cutoff.
+   * @param cutoff The value the objective has to improve.
+   * @return The information related to the Fitness, {@link FitnessInfo#dominated()} if the
+   *     evaluation was stopped.
+   */
+  public abstract FitnessInfo calculateFitness(
+      SchedulePermutationSolution solution, String objective, double cutoff);
+
+  /**
+   * Replaces the plan of a solution with the tasks in the order of the HEFT ranking, each position
+   * keeping its host. The new plan is written in pooled arrays, which are reused once the solution
+   * releases it.
+   *
+   * @param solution The solution.
+   */
+  void rankPlan(SchedulePermutationSolution solution) {
+    var plan = CompactPlan.of(compiledInstance, solution.getPlan());
+    var ranked = rankedPlans.create();
+    for (int i = 0; i < plan.size(); i++) {
+      ranked.set(i, precomputation.heftRankingTask(i), plan.hostAt(i));
+    }
+    solution.setPlan(ranked.build(plan.size()));
+  }
+
+  /**
+   * Calculates the fitness of a solution and of another solution with the same plan and a
+   * different arbiter, with the same results as two calls to {@link
+   * #calculateFitness(SchedulePermutationSolution, String, double)}. Only calculators that use the
+   * arbiter need both evaluations, the rest decode the plan once.
+   *
+   * @param solution The solution to evaluate.
+   * @param alternative A solution sharing the plan of the first one, with the other arbiter.
+   * @param objective The objective compared with the cutoff.
+   * @param cutoff The value the objective has to improve.
+   * @return The fitness of both solutions.
+   */
+  public DualFitness calculateFitness(
+      SchedulePermutationSolution solution,
+      SchedulePermutationSolution alternative,
+      String objective,
+      double cutoff) {
+    var plan = solution.getPlan();
+    var fitness = calculateFitness(solution, objective, cutoff);
+    if (decodesLike(this) && alternative.getPlan() == plan) {
+      return new DualFitness(fitness, fitness);
+    }
+    return new DualFitness(fitness, calculateFitness(alternative, objective, cutoff));
+  }
+
+  /**
+   * If this calculator decodes every plan into the same schedule as another one, without depending
+   * on the arbiter, so a plan evaluated by both only has to be decoded once.
+   *
+   * @param other The other calculator.
+   * @return True if their results can be shared.
+   */
+  boolean decodesLike(FitnessCalculator other) {
+    return false;
+  }
 
   /**
-   * Calculates the eft of a given task. Without insertion
+   * The fitness of a solution and of its alternative.
    *
-   * @param task Task to execute.
-   * @param host Where does the task run.
-   * @param schedule The schedule to update.
-   * @param available When each machine is available.
-   * @return Information about the executed task.
+   * @param fitness The fitness for the arbiter of the solution.
+   * @param alternativeFitness The fitness for the alternative arbiter.
    */
-  public TaskCosts calculateEftSemiActive(
-      Task task, Host host, Map<String, TaskSchedule> schedule, Map<String, Double> available) {
-    var parentsInfo = SchedulingHelper.findTaskCommunications(task, host, schedule, networkMatrix);
-    var taskCommunications = parentsInfo.taskCommunications();
-    Double diskReadStaging =
-        networkMatrix.get(task.getName()).get(task.getName()) / host.getDiskSpeed().doubleValue();
-    Double diskWrite = task.getOutput().getSizeInBits() / host.getDiskSpeed().doubleValue();
-    Double ast = Math.max(available.getOrDefault(host.getName(), 0D), parentsInfo.maxEst());
-    Double eft =
-        diskReadStaging
-            + diskWrite
-            + computationMatrix.get(task.getName()).get(host.getName())
-            + taskCommunications
-            + ast;
+  public record DualFitness(FitnessInfo fitness, FitnessInfo alternativeFitness) {}
 
-    return new TaskCosts(diskReadStaging, diskWrite, eft, taskCommunications, ast);
+  /**
+   * Lower bound of an objective for a partial schedule. The standby energy is estimated with the
+   * bound of the makespan, slightly rounded down so the bound never exceeds the final value.
+   *
+   * @param byEnergy If the objective is the energy.
+   * @param makespanBound The lower bound of the makespan of the partial schedule.
+   * @param energyActive The energy spent executing the scheduled tasks.
+   * @return The lower bound.
+   */
+  double objectiveBound(boolean byEnergy, double makespanBound, double energyActive) {
+    return byEnergy ? energyActive + standByBoundRate * makespanBound : makespanBound;
+  }
+
+  /**
+   * Updates the lower bound of the makespan after scheduling a task, see {@link
+   * InstancePrecomputation#makespanBound(int, double)}.
+   *
+   * @param makespanBound The bound before scheduling the task.
+   * @param task The scheduled task.
+   * @param taskEft When the task finishes.
+   * @return The new bound.
+   */
+  double makespanBound(double makespanBound, int task, double taskEft) {
+    return Math.max(makespanBound, precomputation.makespanBound(task, taskEft));
+  }
+
+  /**
+   * Gets the scratch buffers of the current thread, ready for a new evaluation.
+   *
+   * @return The workspace.
+   */
+  EvaluationWorkspace workspace() {
+    return workspaces.get().reset();
+  }
+
+  /**
+   * Builds the fitness information from the schedule stored in a workspace. Only the primitive
+   * schedule is copied, the list of {@link com.uniovi.sercheduler.service.TaskSchedule} is built
+   * when it's requested.
+   *
+   * @param workspace The workspace holding the schedule.
+   * @param count How many tasks were decoded.
+   * @param makespan The makespan of the schedule.
+   * @param energyActive The energy spent executing tasks.
+   * @return The fitness information.
+   */
+  FitnessInfo buildFitnessInfo(
+      EvaluationWorkspace workspace, int count, double makespan, double energyActive) {
+    return buildFitnessInfo(workspace, count, makespan, energyActive, false);
+  }
+
+  /**
+   * Builds the fitness information from the schedule stored in a workspace.
+   *
+   * @param workspace The workspace holding the schedule.
+   * @param count How many tasks were decoded.
+   * @param makespan The makespan of the schedule.
+   * @param energyActive The energy spent executing tasks.
+   * @param resumable If the schedule can be used as a checkpoint by the semi-active decoder.
+   * @return The fitness information.
+   */
+  FitnessInfo buildFitnessInfo(
+      EvaluationWorkspace workspace,
+      int count,
+      double makespan,
+      double energyActive,
+      boolean resumable) {
+    // We need to calculate the standby energy of each host
+    double energyStandBy = 0;
+    for (int host = 0; host < compiledInstance.hostCount(); host++) {
+      energyStandBy += compiledInstance.energyCostStandBy(host) * makespan;
+    }
+
+    double energy = energyActive + energyStandBy;
+    return new FitnessInfo(
+        Map.of("makespan", makespan, "energy", energy),
+        workspace.snapshot(count, resumable),
+        fitnessName());
+  }
+
+  /**
+   * Decodes a plan choosing the host of every task with a rule, instead of using the host of the
+   * plan. Each task is evaluated in every host and the rule picks one of the options, which is then
+   * reserved in the schedule. The active energy is counted with the host of the plan.
+   *
+   * @param solution The solution to evaluate.
+   * @param objective The objective compared with the cutoff.
+   * @param cutoff The value the objective has to improve.
+   * @param active If the tasks can be inserted in the gaps of the hosts.
+   * @param rule How the host of each task is chosen.
+   * @return The information related to the Fitness, {@link FitnessInfo#dominated()} if the
+   *     evaluation was stopped.
+   */
+  FitnessInfo calculateFitnessSelectingHosts(
+      SchedulePermutationSolution solution,
+      String objective,
+      double cutoff,
+      boolean active,
+      HostSelectionRule rule) {
+    var plan = CompactPlan.of(compiledInstance, solution.getPlan());
+    boolean byEnergy = Objective.ENERGY.objectiveName.equals(objective);
+    boolean withEnergy = rule.usesEnergy();
+
+    double makespan = 0D;
+    double makespanBound = 0D;
+    double energyActive = 0D;
+
+    var workspace = workspace();
+    var candidateAst = workspace.candidateAst();
+    var candidateEft = workspace.candidateEft();
+    var candidateEnergy = workspace.candidateEnergy();
+
+    for (int i = 0; i < plan.size(); i++) {
+      int task = plan.taskAt(i);
+
+      if (active) {
+        evaluateHostsActive(task, workspace, withEnergy);
+      } else {
+        evaluateHostsSemiActive(task, workspace, withEnergy);
+      }
+
+      int host = rule.select(task, candidateEft, candidateEnergy, makespan);
+      if (host < 0) {
+        throw new IllegalStateException("No suitable host found");
+      }
+
+      if (active) {
+        // Now we need to split the gap in two, using the eft as the slice.
+        workspace.gaps().occupy(host, candidateAst[host], candidateEft[host]);
+      } else {
+        workspace.available()[host] = candidateEft[host];
+      }
+      workspace.schedule(i, task, host, candidateAst[host], candidateEft[host]);
+
+      makespan = Math.max(candidateEft[host], makespan);
+      makespanBound = makespanBound(makespanBound, task, candidateEft[host]);
+
+      energyActive +=
+          (candidateEft[host] - candidateAst[host])
+              * compiledInstance.energyCost(plan.hostAt(i));
+
+      if (objectiveBound(byEnergy, makespanBound, energyActive) >= cutoff) {
+        return FitnessInfo.dominated();
+      }
+    }
+
+    return buildFitnessInfo(workspace, plan.size(), makespan, energyActive);
+  }
+
+  /**
+   * Evaluates a task in every host without insertion, storing the ast, eft and energy of each
+   * option. The standby energy is counted from the first instant the host is available until the
+   * task is completed.
+   *
+   * @param task The task to evaluate.
+   * @param workspace The workspace with the current schedule, it receives the options.
+   * @param withEnergy If the energy of each option is needed.
+   */
+  void evaluateHostsSemiActive(int task, EvaluationWorkspace workspace, boolean withEnergy) {
+    var hostOf = workspace.hostOf();
+    var eft = workspace.eft();
+    var available = workspace.available();
+    var candidateAst = workspace.candidateAst();
+    var candidateEft = workspace.candidateEft();
+    var candidateEnergy = workspace.candidateEnergy();
+
+    double maxEst = compiledInstance.maxParentEft(task, eft);
+    for (int host = 0; host < compiledInstance.hostCount(); host++) {
+      double diskReadStaging = compiledInstance.diskReadStaging(task, host);
+      double diskWrite = compiledInstance.diskWrite(task, host);
+      double computation = compiledInstance.computation(task, host);
+      double taskCommunications = compiledInstance.communicationTime(task, host, hostOf);
+      double hostEft =
+          compiledInstance.fixedCost(task, host)
+              + taskCommunications
+              + Math.max(available[host], maxEst);
+
+      double ast = hostEft - computation - diskWrite - taskCommunications - diskReadStaging;
+
+      candidateAst[host] = ast;
+      candidateEft[host] = hostEft;
+      if (withEnergy) {
+        double energyActive = (hostEft - ast) * compiledInstance.energyCost(host);
+        double energyStandBy =
+            (hostEft - available[host]) * compiledInstance.energyCostStandBy(host);
+        candidateEnergy[host] = energyActive + energyStandBy;
+      }
+    }
+  }
+
+  /**
+   * Evaluates a task in every host with insertion, storing the ast, eft and energy of each option.
+   * The standby energy is counted from the start of the last gap of the host, as using a gap can
+   * make it negative it's never lower than zero.
+   *
+   * @param task The task to evaluate.
+   * @param workspace The workspace with the current schedule, it receives the options.
+   * @param withEnergy If the energy of each option is needed.
+   */
+  void evaluateHostsActive(int task, EvaluationWorkspace workspace, boolean withEnergy) {
+    var hostOf = workspace.hostOf();
+    var eft = workspace.eft();
+    var available = workspace.gaps();
+    var candidateAst = workspace.candidateAst();
+    var candidateEft = workspace.candidateEft();
+    var candidateEnergy = workspace.candidateEnergy();
+
+    double maxEst = compiledInstance.maxParentEft(task, eft);
+    for (int host = 0; host < compiledInstance.hostCount(); host++) {
+      double taskCommunications = compiledInstance.communicationTime(task, host, hostOf);
+      double taskTime = compiledInstance.fixedCost(task, host) + taskCommunications;
+      double hostAst = available.earliestFit(host, maxEst, taskTime);
+      double hostEft = hostAst + taskTime;
+
+      candidateAst[host] = hostAst;
+      candidateEft[host] = hostEft;
+      if (withEnergy) {
+        double diskReadStaging = compiledInstance.diskReadStaging(task, host);
+        double diskWrite = compiledInstance.diskWrite(task, host);
+        double computation = compiledInstance.computation(task, host);
+        double ast = hostEft - computation - diskWrite - taskCommunications - diskReadStaging;
+        double energyActive = (hostEft - ast) * compiledInstance.energyCost(host);
+        double energyStandBy =
+            (hostEft - available.lastStart(host)) * compiledInstance.energyCostStandBy(host);
+        candidateEnergy[host] = energyActive + Math.max(0D, energyStandBy);
+      }
+    }
+  }
+
+  /**
+   * Compares two options using a primary and a secondary key.
+   *
+   * @return A negative number if the first option is better, positive if the second one is.
+   */
+  static int compareKeys(
+      double primaryFirst, double secondaryFirst, double primarySecond, double secondarySecond) {
+    int result = Double.compare(primaryFirst, primarySecond);
+    return result != 0 ? result : Double.compare(secondaryFirst, secondarySecond);
   }
 
   /**
@@ -209,4 +521,8 @@ public abstract class FitnessCalculator {
   public Map<String, Map<String, Long>> getNetworkMatrix() {
     return networkMatrix;
   }
+
+  public CompiledInstance getCompiledInstance() {
+    return compiledInstance;
+  }
 }
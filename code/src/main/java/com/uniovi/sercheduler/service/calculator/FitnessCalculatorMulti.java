@@ -5,10 +5,12 @@ import com.uniovi.sercheduler.dto.analysis.MultiResult;
 import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import com.uniovi.sercheduler.service.FitnessInfo;
+import com.uniovi.sercheduler.service.PlanPair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,6 +26,21 @@ public class FitnessCalculatorMulti extends FitnessCalculator {
 
   private final ArrayList<MultiResult> evaluationsHistory;
 
+  private ExecutionMode executionMode = ExecutionMode.SHORT_CIRCUIT;
+  private final AtomicInteger evaluationsInProgress = new AtomicInteger();
+
+  /** How the calculators of an evaluation are run. */
+  public enum ExecutionMode {
+    /** One after another, every calculator decodes the whole plan. */
+    SEQUENTIAL,
+    /** One after another, a calculator stops once it can't beat the previous ones. */
+    SHORT_CIRCUIT,
+    /** All at the same time. */
+    CONCURRENT,
+    /** Concurrent while there are idle cores, short-circuiting otherwise. */
+    ADAPTIVE
+  }
+
   /**
    * Basic constructor
    *
@@ -57,10 +74,43 @@ public class FitnessCalculatorMulti extends FitnessCalculator {
   /**
    * Calculates the fitness using 3 calculators and returns the best schedule.
    *
-   * @param solution@return The information related to the Fitness.
+   * @param solution The solution to evaluate.
+   * @param objective Ignored, the arbiter of the solution decides the objective.
+   * @param cutoff The value the arbiter objective has to improve.
+   * @return The information related to the Fitness, {@link FitnessInfo#dominated()} if no
+   *     calculator improves the cutoff.
+   */
+  @Override
+  public FitnessInfo calculateFitness(
+      SchedulePermutationSolution solution, String objective, double cutoff) {
+    return calculateFitness(solution, cutoff, null);
+  }
+
+  /**
+   * Calculates the fitness of a solution and of its alternative in one pass. The calculators in
+   * the lists of both arbiters that decode the plan in the same way, and aren't stopped by a
+   * cutoff, only run for the first solution, so a plan isn't decoded twice by the simple
+   * calculator.
+   *
+   * @param solution The solution to evaluate.
+   * @param alternative A solution sharing the plan of the first one, with the other arbiter.
+   * @param objective Ignored, the arbiter of each solution decides the objective.
+   * @param cutoff The value the arbiter objective has to improve.
+   * @return The fitness of both solutions.
    */
   @Override
-  public FitnessInfo calculateFitness(SchedulePermutationSolution solution) {
+  public DualFitness calculateFitness(
+      SchedulePermutationSolution solution,
+      SchedulePermutationSolution alternative,
+      String objective,
+      double cutoff) {
+    var decodes = new SharedDecodes(solution.getPlan());
+    var fitness = calculateFitness(solution, cutoff, decodes);
+    return new DualFitness(fitness, calculateFitness(alternative, cutoff, decodes));
+  }
+
+  private FitnessInfo calculateFitness(
+      SchedulePermutationSolution solution, double cutoff, SharedDecodes decodes) {
     List<FitnessCalculator> fitnessCalculators;
 
     if ((solution.getArbiter().equals("energy") || overrideObjective.equals("energy"))
@@ -72,13 +122,22 @@ public class FitnessCalculatorMulti extends FitnessCalculator {
       throw new RuntimeException("No fitness calculator found");
     }
 
-    var objective = overrideObjective.equals("none") ? solution.getArbiter() : overrideObjective;
+    var arbiter = overrideObjective.equals("none") ? solution.getArbiter() : overrideObjective;
 
     var fitness =
-        fitnessCalculators.stream()
-            .map(c -> c.calculateFitness(solution))
-            .min(Comparator.comparing(f -> f.fitness().get(objective)))
-            .orElseThrow();
+        switch (executionMode) {
+          case SEQUENTIAL ->
+              calculateSequential(fitnessCalculators, solution, arbiter, cutoff, false, decodes);
+          case SHORT_CIRCUIT ->
+              calculateSequential(fitnessCalculators, solution, arbiter, cutoff, true, decodes);
+          case CONCURRENT -> calculateConcurrent(fitnessCalculators, solution, arbiter, cutoff);
+          case ADAPTIVE ->
+              calculateAdaptive(fitnessCalculators, solution, arbiter, cutoff, decodes);
+        };
+
+    if (fitness == null) {
+      return FitnessInfo.dominated();
+    }
 
     solution.setMultiResult(new MultiResult(
             fitness.fitness().get("makespan"),
@@ -95,8 +154,147 @@ public class FitnessCalculatorMulti extends FitnessCalculator {
     return fitness;
   }
 
+  /**
+   * Runs the calculators one after another. When short-circuiting, every calculator receives the
+   * best value found so far and stops as soon as it can't improve it. Ties keep the first
+   * calculator, so the result is the same in both cases.
+   */
+  private FitnessInfo calculateSequential(
+      List<FitnessCalculator> fitnessCalculators,
+      SchedulePermutationSolution solution,
+      String arbiter,
+      double cutoff,
+      boolean shortCircuit,
+      SharedDecodes decodes) {
+    FitnessInfo best = null;
+    double bestValue = cutoff;
+    for (var calculator : fitnessCalculators) {
+      double calculatorCutoff = shortCircuit ? bestValue : cutoff;
+      var fitness =
+          decodes == null
+              ? calculator.calculateFitness(solution, arbiter, calculatorCutoff)
+              : decodes.calculateFitness(calculator, solution, arbiter, calculatorCutoff);
+      if (!fitness.isDominated() && fitness.fitness().get(arbiter) < bestValue) {
+        best = fitness;
+        bestValue = fitness.fitness().get(arbiter);
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Runs every calculator at the same time. Each calculator works on its own view of the solution,
+   * because some of them replace the plan before decoding it.
+   */
+  private FitnessInfo calculateConcurrent(
+      List<FitnessCalculator> fitnessCalculators,
+      SchedulePermutationSolution solution,
+      String arbiter,
+      double cutoff) {
+    var views = new ArrayList<SchedulePermutationSolution>(fitnessCalculators.size());
+    for (int i = 0; i < fitnessCalculators.size(); i++) {
+      var view =
+          new SchedulePermutationSolution(
+              solution.variables().size(),
+              solution.objectives().length,
+              null,
+              solution.getPlan(),
+              solution.getArbiter());
+      view.setCheckpoint(solution.getCheckpoint());
+      views.add(view);
+    }
+
+    var results =
+        IntStream.range(0, fitnessCalculators.size())
+            .parallel()
+            .mapToObj(
+                i -> fitnessCalculators.get(i).calculateFitness(views.get(i), arbiter, cutoff))
+            .toList();
+
+    // The solution ends with the plan of the last calculator, like in a sequential run.
+    if (!views.isEmpty()) {
+      solution.setPlan(views.get(views.size() - 1).getPlan());
+    }
+
+    FitnessInfo best = null;
+    double bestValue = cutoff;
+    for (var fitness : results) {
+      if (!fitness.isDominated() && fitness.fitness().get(arbiter) < bestValue) {
+        best = fitness;
+        bestValue = fitness.fitness().get(arbiter);
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Runs the calculators at the same time while there are fewer evaluations in progress than
+   * cores, so small populations don't leave cores idle. Otherwise the cores are already busy and
+   * short-circuiting saves more work.
+   */
+  private FitnessInfo calculateAdaptive(
+      List<FitnessCalculator> fitnessCalculators,
+      SchedulePermutationSolution solution,
+      String arbiter,
+      double cutoff,
+      SharedDecodes decodes) {
+    try {
+      if (evaluationsInProgress.incrementAndGet() < Runtime.getRuntime().availableProcessors()) {
+        return calculateConcurrent(fitnessCalculators, solution, arbiter, cutoff);
+      }
+      return calculateSequential(fitnessCalculators, solution, arbiter, cutoff, true, decodes);
+    } finally {
+      evaluationsInProgress.decrementAndGet();
+    }
+  }
+
+  public ExecutionMode getExecutionMode() {
+    return executionMode;
+  }
+
+  public FitnessCalculatorMulti setExecutionMode(ExecutionMode executionMode) {
+    this.executionMode = executionMode;
+    return this;
+  }
+
   @Override
   public String fitnessName() {
     return "multi";
   }
+
+  /**
+   * The complete decodes of a plan that don't depend on the arbiter, kept while a solution and its
+   * alternative are evaluated. A decode is only reused while the solution still has the original
+   * plan, as some calculators replace it.
+   */
+  private static final class SharedDecodes {
+    private final List<PlanPair> plan;
+    private final List<FitnessCalculator> calculators = new ArrayList<>(2);
+    private final List<FitnessInfo> results = new ArrayList<>(2);
+
+    private SharedDecodes(List<PlanPair> plan) {
+      this.plan = plan;
+    }
+
+    private FitnessInfo calculateFitness(
+        FitnessCalculator calculator,
+        SchedulePermutationSolution solution,
+        String arbiter,
+        double cutoff) {
+      if (cutoff != Double.POSITIVE_INFINITY || solution.getPlan() != plan) {
+        return calculator.calculateFitness(solution, arbiter, cutoff);
+      }
+      for (int i = 0; i < calculators.size(); i++) {
+        if (calculators.get(i).decodesLike(calculator)) {
+          return results.get(i);
+        }
+      }
+      var fitness = calculator.calculateFitness(solution, arbiter, cutoff);
+      if (calculator.decodesLike(calculator)) {
+        calculators.add(calculator);
+        results.add(fitness);
+      }
+      return fitness;
+    }
+  }
 }
@@ -1,15 +1,13 @@
 package com.uniovi.sercheduler.service.calculator;
 
+import com.uniovi.sercheduler.dao.Objective;
 import com.uniovi.sercheduler.dto.InstanceData;
 import com.uniovi.sercheduler.dto.analysis.MultiResult;
 import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
 import com.uniovi.sercheduler.service.FitnessInfo;
-import com.uniovi.sercheduler.service.TaskSchedule;
+import com.uniovi.sercheduler.service.core.CompactPlan;
 
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
 
 /** Implementation for calculating the makespan using DNC model. */
 public class FitnessCalculatorSimple extends FitnessCalculator {
@@ -36,53 +34,76 @@ public class FitnessCalculatorSimple extends FitnessCalculator {
    * @return The value of the makespan.
    */
   @Override
-  public FitnessInfo calculateFitness(SchedulePermutationSolution solution) {
-    var plan = solution.getPlan();
+  public FitnessInfo calculateFitness(
+      SchedulePermutationSolution solution, String objective, double cutoff) {
+    var plan = CompactPlan.of(compiledInstance, solution.getPlan());
+    boolean byEnergy = Objective.ENERGY.objectiveName.equals(objective);
 
     double makespan = 0D;
+    double makespanBound = 0D;
     double energyActive = 0D;
 
-    var available = new HashMap<String, Double>(instanceData.hosts().size());
-    var schedule = new HashMap<String, TaskSchedule>(instanceData.workflow().size());
-
-    for (var schedulePair : plan) {
-      var taskName = schedulePair.task().getName();
-      var hostName = schedulePair.host().getName();
-
-      var taskCosts =
-          calculateEftSemiActive(schedulePair.task(), schedulePair.host(), schedule, available);
+    var workspace = workspace();
+    var eft = workspace.eft();
+    var hostOf = workspace.hostOf();
+    var available = workspace.available();
+
+    // The genes shared with the schedule of a parent don't need to be decoded again.
+    int resumeFrom = 0;
+    var checkpoint = solution.getCheckpoint();
+    if (checkpoint != null
+        && checkpoint.isResumable()
+        && checkpoint.getInstance() == compiledInstance) {
+      resumeFrom = checkpoint.commonPrefix(plan);
+      for (int i = 0; i < resumeFrom; i++) {
+        int position = checkpoint.orderedPosition(i);
+        int task = checkpoint.taskAt(position);
+        int host = checkpoint.hostAt(position);
+        double taskAst = checkpoint.astAt(position);
+        double taskEft = checkpoint.eftAt(position);
+
+        available[host] = taskEft;
+        workspace.schedule(i, task, host, taskAst, taskEft);
+
+        makespan = Math.max(taskEft, makespan);
+        makespanBound = makespanBound(makespanBound, task, taskEft);
+
+        energyActive += (taskEft - taskAst) * compiledInstance.energyCost(host);
+      }
+      if (objectiveBound(byEnergy, makespanBound, energyActive) >= cutoff) {
+        return FitnessInfo.dominated();
+      }
+    }
 
-      available.put(hostName, taskCosts.eft());
+    for (int i = resumeFrom; i < plan.size(); i++) {
+      int task = plan.taskAt(i);
+      int host = plan.hostAt(i);
 
-      schedule.put(
-          taskName,
-          new TaskSchedule(
-              schedulePair.task(), taskCosts.ast(), taskCosts.eft(), schedulePair.host()));
+      double taskCommunications = compiledInstance.communicationTime(task, host, hostOf);
+      double taskAst = Math.max(available[host], compiledInstance.maxParentEft(task, eft));
+      double taskEft = compiledInstance.fixedCost(task, host) + taskCommunications + taskAst;
 
-      makespan = Math.max(taskCosts.eft(), makespan);
+      available[host] = taskEft;
+      workspace.schedule(i, task, host, taskAst, taskEft);
 
-      energyActive += (taskCosts.eft() - taskCosts.ast()) * schedulePair.host().getEnergyCost();
-    }
+      makespan = Math.max(taskEft, makespan);
+      makespanBound = makespanBound(makespanBound, task, taskEft);
 
-    var orderedSchedule =
-        schedule.values().stream().sorted(Comparator.comparing(TaskSchedule::ast)).toList();
+      energyActive += (taskEft - taskAst) * compiledInstance.energyCost(host);
 
-    // We need to calculate the standby energy of each host
-    double energyStandBy = 0;
-    for (var host : instanceData.hosts().values()) {
-      energyStandBy += host.getEnergyCostStandBy() * makespan;
+      if (objectiveBound(byEnergy, makespanBound, energyActive) >= cutoff) {
+        return FitnessInfo.dominated();
+      }
     }
 
-    double energy = energyActive + energyStandBy;
-//    evaluationsHistory.add(
-//            new MultiResult(
-//                    makespan,
-//                    energy,
-//                    fitnessName(),
-//                    "any"));
+    return buildFitnessInfo(workspace, plan.size(), makespan, energyActive, true);
+  }
 
-    return new FitnessInfo(
-        Map.of("makespan", makespan, "energy", energy), orderedSchedule, fitnessName());
+  /** The subclasses replace the plan before decoding it, so only plain instances are alike. */
+  @Override
+  boolean decodesLike(FitnessCalculator other) {
+    return getClass() == FitnessCalculatorSimple.class
+        && other.getClass() == FitnessCalculatorSimple.class;
   }
 
   @Override
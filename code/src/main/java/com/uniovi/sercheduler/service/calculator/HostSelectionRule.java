@@ -0,0 +1,87 @@
+package com.uniovi.sercheduler.service.calculator;
+
+/**
+ * Chooses the host of a task among the options evaluated in every host. The options are stored in
+ * the candidate arrays of the workspace, indexed by host, so a rule only scans primitive arrays.
+ */
+@FunctionalInterface
+interface HostSelectionRule {
+
+  /**
+   * Selects the host of a task.
+   *
+   * @param task The dense id of the task.
+   * @param candidateEft The eft of the task in each host.
+   * @param candidateEnergy The energy of the task in each host, not filled if the rule doesn't use
+   *     it.
+   * @param makespan The makespan before scheduling the task.
+   * @return The selected host, a negative number if there is none.
+   */
+  int select(int task, double[] candidateEft, double[] candidateEnergy, double makespan);
+
+  /**
+   * Checks if the rule needs the energy of each option.
+   *
+   * @return True if the energy has to be calculated.
+   */
+  default boolean usesEnergy() {
+    return true;
+  }
+
+  /**
+   * Rule choosing the first host with the minimum eft.
+   *
+   * @return The rule.
+   */
+  static HostSelectionRule minEft() {
+    return new HostSelectionRule() {
+      @Override
+      public int select(
+          int task, double[] candidateEft, double[] candidateEnergy, double makespan) {
+        int selected = -1;
+        double minEft = Double.MAX_VALUE;
+        for (int host = 0; host < candidateEft.length; host++) {
+          if (candidateEft[host] < minEft) {
+            minEft = candidateEft[host];
+            selected = host;
+          }
+        }
+        return selected;
+      }
+
+      @Override
+      public boolean usesEnergy() {
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Rule choosing the first host with the minimum energy, ties are broken by the eft.
+   *
+   * @return The rule.
+   */
+  static HostSelectionRule minEnergyThenEft() {
+    return (task, candidateEft, candidateEnergy, makespan) ->
+        minimum(candidateEnergy, candidateEft);
+  }
+
+  /**
+   * Finds the first host with the minimum of a primary key, ties are broken by a secondary key.
+   *
+   * @param primary The primary key of each host.
+   * @param secondary The secondary key of each host.
+   * @return The selected host.
+   */
+  static int minimum(double[] primary, double[] secondary) {
+    int selected = 0;
+    for (int host = 1; host < primary.length; host++) {
+      if (FitnessCalculator.compareKeys(
+              primary[host], secondary[host], primary[selected], secondary[selected])
+          < 0) {
+        selected = host;
+      }
+    }
+    return selected;
+  }
+}
@@ -0,0 +1,278 @@
+package com.uniovi.sercheduler.service.core;
+
+import com.uniovi.sercheduler.service.PlanPair;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plan stored as two primitive arrays, the task id and the host id of each position.
+ *
+ * <p>It behaves as an immutable list of {@link PlanPair}, every gene returns the shared pair of
+ * {@link CompiledInstance#pair(int, int)}, so it can be used anywhere a plan is expected. Copies of
+ * a solution share the same plan, a new one is only written when an operator changes it, through a
+ * {@link Writer}.
+ *
+ * <p>The arrays of a plan created by a {@link PlanArrayPool} go back to the pool once the plan is
+ * released by every owner, so the next generation reuses them. The solution the plan is given to is
+ * its first owner, any other holder has to {@link #retain()} it. A released plan can't be read
+ * anymore.
+ */
+public final class CompactPlan extends AbstractList<PlanPair> implements RandomAccess {
+
+  private final CompiledInstance instance;
+  private final PlanArrayPool pool;
+  private final AtomicInteger owners = new AtomicInteger(1);
+  private int[] tasks;
+  private int[] hosts;
+  private volatile int[] positions;
+
+  CompactPlan(CompiledInstance instance, int[] tasks, int[] hosts, PlanArrayPool pool) {
+    this.instance = instance;
+    this.tasks = tasks;
+    this.hosts = hosts;
+    this.pool = pool;
+  }
+
+  /**
+   * The compact version of a plan, the plan itself if it's already compact.
+   *
+   * @param instance The instance of the tasks and hosts.
+   * @param plan The plan.
+   * @return The compact plan.
+   */
+  public static CompactPlan of(CompiledInstance instance, List<PlanPair> plan) {
+    if (plan instanceof CompactPlan compact && compact.instance == instance) {
+      return compact;
+    }
+    if (plan instanceof DecodedSchedule.OrderedPlan orderedPlan
+        && orderedPlan.getInstance() == instance) {
+      return orderedPlan.compact();
+    }
+    var tasks = new int[plan.size()];
+    var hosts = new int[plan.size()];
+    for (int i = 0; i < tasks.length; i++) {
+      var planPair = plan.get(i);
+      tasks[i] = instance.taskId(planPair.task());
+      hosts[i] = instance.hostId(planPair.host());
+    }
+    return new CompactPlan(instance, tasks, hosts, null);
+  }
+
+  /**
+   * Wraps the arrays of a plan, which must not be modified afterwards. The plan isn't pooled.
+   *
+   * @param instance The instance of the tasks and hosts.
+   * @param tasks The task id of each position.
+   * @param hosts The host id of each position.
+   * @return The compact plan.
+   */
+  public static CompactPlan of(CompiledInstance instance, int[] tasks, int[] hosts) {
+    if (tasks.length != hosts.length) {
+      throw new IllegalArgumentException(
+          "The plan has " + tasks.length + " tasks and " + hosts.length + " hosts");
+    }
+    return new CompactPlan(instance, tasks, hosts, null);
+  }
+
+  /**
+   * Adds an owner to a plan if it's compact.
+   *
+   * @param plan The plan.
+   * @return The same plan.
+   */
+  public static List<PlanPair> retain(List<PlanPair> plan) {
+    return plan instanceof CompactPlan compact ? compact.retain() : plan;
+  }
+
+  /**
+   * Removes an owner from a plan if it's compact.
+   *
+   * @param plan The plan.
+   */
+  public static void release(List<PlanPair> plan) {
+    if (plan instanceof CompactPlan compact) {
+      compact.release();
+    }
+  }
+
+  /**
+   * Adds an owner to the plan, its arrays won't be reused until it's released again.
+   *
+   * @return The plan.
+   */
+  public CompactPlan retain() {
+    if (pool != null && owners.getAndIncrement() <= 0) {
+      throw new IllegalStateException("The plan was already released");
+    }
+    return this;
+  }
+
+  /**
+   * Removes an owner from the plan. When there are none left the arrays go back to their pool.
+   * Plans not created by a pool are left to the garbage collector.
+   */
+  public void release() {
+    if (pool == null) {
+      return;
+    }
+    int remaining = owners.decrementAndGet();
+    if (remaining == 0) {
+      var releasedTasks = tasks;
+      var releasedHosts = hosts;
+      tasks = null;
+      hosts = null;
+      positions = null;
+      pool.recycle(releasedTasks, releasedHosts);
+    } else if (remaining < 0) {
+      throw new IllegalStateException("The plan was already released");
+    }
+  }
+
+  @Override
+  public PlanPair get(int index) {
+    return instance.pair(tasks[index], hosts[index]);
+  }
+
+  @Override
+  public int size() {
+    return tasks.length;
+  }
+
+  /**
+   * The id of the task at a position.
+   *
+   * @param position The position in the plan.
+   * @return The task id.
+   */
+  public int taskAt(int position) {
+    return tasks[position];
+  }
+
+  /**
+   * The id of the host of the task at a position.
+   *
+   * @param position The position in the plan.
+   * @return The host id.
+   */
+  public int hostAt(int position) {
+    return hosts[position];
+  }
+
+  /**
+   * The position of a task in the plan. The index is built the first time it's used.
+   *
+   * @param task The task id.
+   * @return The position, -1 if the task isn't in the plan.
+   */
+  public int positionOf(int task) {
+    var result = positions;
+    if (result == null) {
+      result = new int[instance.taskCount()];
+      Arrays.fill(result, -1);
+      for (int i = 0; i < tasks.length; i++) {
+        result[tasks[i]] = i;
+      }
+      positions = result;
+    }
+    return result[task];
+  }
+
+  public CompiledInstance getInstance() {
+    return instance;
+  }
+
+  void copyTo(int[] taskTarget, int[] hostTarget) {
+    System.arraycopy(tasks, 0, taskTarget, 0, tasks.length);
+    System.arraycopy(hosts, 0, hostTarget, 0, hosts.length);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o instanceof CompactPlan other && other.instance == instance) {
+      return Arrays.equals(tasks, other.tasks) && Arrays.equals(hosts, other.hosts);
+    }
+    return super.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return super.hashCode();
+  }
+
+  /** Arrays of a plan being written. Building it publishes them, they can't be written anymore. */
+  public static final class Writer {
+
+    private final CompiledInstance instance;
+    private final PlanArrayPool pool;
+    private int[] tasks;
+    private int[] hosts;
+
+    Writer(CompiledInstance instance, PlanArrayPool pool, int[] tasks, int[] hosts) {
+      this.instance = instance;
+      this.pool = pool;
+      this.tasks = tasks;
+      this.hosts = hosts;
+    }
+
+    /**
+     * Writes a gene.
+     *
+     * @param position The position in the plan.
+     * @param task The task id.
+     * @param host The host id.
+     */
+    public void set(int position, int task, int host) {
+      tasks[position] = task;
+      hosts[position] = host;
+    }
+
+    /**
+     * Moves the genes of a range, like {@link System#arraycopy}.
+     *
+     * @param from The first position of the range.
+     * @param to The position the range is moved to.
+     * @param length The number of genes moved.
+     */
+    public void move(int from, int to, int length) {
+      System.arraycopy(tasks, from, tasks, to, length);
+      System.arraycopy(hosts, from, hosts, to, length);
+    }
+
+    /**
+     * Publishes the plan.
+     *
+     * @return The written plan.
+     */
+    public CompactPlan build() {
+      return build(tasks.length);
+    }
+
+    /**
+     * Publishes the first genes of the plan, if there are fewer than the arrays can hold they are
+     * copied and the arrays go back to the pool.
+     *
+     * @param size The number of written genes.
+     * @return The written plan.
+     */
+    public CompactPlan build(int size) {
+      if (tasks == null) {
+        throw new IllegalStateException("The plan was already built");
+      }
+      CompactPlan plan;
+      if (size == tasks.length) {
+        plan = new CompactPlan(instance, tasks, hosts, pool);
+      } else {
+        plan =
+            new CompactPlan(
+                instance, Arrays.copyOf(tasks, size), Arrays.copyOf(hosts, size), null);
+        pool.recycle(tasks, hosts);
+      }
+      tasks = null;
+      hosts = null;
+      return plan;
+    }
+  }
+}
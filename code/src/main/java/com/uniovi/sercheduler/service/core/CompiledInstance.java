@@ -0,0 +1,329 @@
+package com.uniovi.sercheduler.service.core;
+
+import com.uniovi.sercheduler.dto.Host;
+import com.uniovi.sercheduler.dto.InstanceData;
+import com.uniovi.sercheduler.dto.Task;
+import com.uniovi.sercheduler.service.PlanPair;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, integer indexed view of an {@link InstanceData}.
+ *
+ * <p>Tasks and hosts get a dense id following the iteration order of the instance maps, so the
+ * decoders can work with primitive arrays instead of looking up String keyed matrices. The
+ * parents and children of every task are stored in CSR form (offsets plus a flat array) together
+ * with the bits transferred through each edge. Everything that doesn't depend on the plan, like
+ * the speed of the link between two hosts or the time spent reading, writing and computing a task
+ * in a host, is calculated once here.
+ */
+public final class CompiledInstance {
+
+  private final Task[] tasks;
+  private final Host[] hosts;
+  private final Map<String, Integer> taskIds;
+  private final Map<String, Integer> hostIds;
+  private final PlanPair[][] pairs;
+
+  private final double[][] computation;
+  private final double[][] diskReadStaging;
+  private final double[][] diskWrite;
+  private final double[][] fixedCost;
+
+  private final int[] parentOffsets;
+  private final int[] parents;
+  private final long[] parentBits;
+  private final int[] childOffsets;
+  private final int[] children;
+  private final long[] childBits;
+
+  private final long[][] linkSpeeds;
+  private final double[] energyCost;
+  private final double[] energyCostStandBy;
+
+  /**
+   * Full constructor.
+   *
+   * @param instanceData The instance to compile.
+   * @param computationMatrix The time it takes to execute each task in each host.
+   * @param networkMatrix The bits each task receives from its parents and from staging.
+   */
+  public CompiledInstance(
+      InstanceData instanceData,
+      Map<String, Map<String, Double>> computationMatrix,
+      Map<String, Map<String, Long>> networkMatrix) {
+    int taskCount = instanceData.workflow().size();
+    int hostCount = instanceData.hosts().size();
+
+    this.tasks = instanceData.workflow().values().toArray(new Task[0]);
+    this.hosts = instanceData.hosts().values().toArray(new Host[0]);
+    this.taskIds = new HashMap<>(taskCount * 2);
+    this.hostIds = new HashMap<>(hostCount * 2);
+    for (int t = 0; t < taskCount; t++) {
+      taskIds.put(tasks[t].getName(), t);
+    }
+    for (int h = 0; h < hostCount; h++) {
+      hostIds.put(hosts[h].getName(), h);
+    }
+    this.pairs = new PlanPair[taskCount][];
+
+    var diskSpeed = new long[hostCount];
+    var networkSpeed = new long[hostCount];
+    this.energyCost = new double[hostCount];
+    this.energyCostStandBy = new double[hostCount];
+    for (int h = 0; h < hostCount; h++) {
+      diskSpeed[h] = hosts[h].getDiskSpeed();
+      networkSpeed[h] = hosts[h].getNetworkSpeed();
+      energyCost[h] = hosts[h].getEnergyCost();
+      energyCostStandBy[h] = hosts[h].getEnergyCostStandBy();
+    }
+    this.linkSpeeds = new long[hostCount][hostCount];
+    for (int h = 0; h < hostCount; h++) {
+      for (int p = 0; p < hostCount; p++) {
+        linkSpeeds[h][p] =
+            h == p
+                ? diskSpeed[h]
+                : Math.min(Math.min(networkSpeed[h], networkSpeed[p]), diskSpeed[p]);
+      }
+    }
+
+    this.computation = new double[taskCount][hostCount];
+    var stagingBits = new long[taskCount];
+    var outputBits = new long[taskCount];
+    for (int t = 0; t < taskCount; t++) {
+      var taskName = tasks[t].getName();
+      var taskComputation = computationMatrix.get(taskName);
+      for (int h = 0; h < hostCount; h++) {
+        computation[t][h] = taskComputation.get(hosts[h].getName());
+      }
+      stagingBits[t] = networkMatrix.get(taskName).get(taskName);
+      outputBits[t] = tasks[t].getOutput().getSizeInBits();
+    }
+
+    this.diskReadStaging = new double[taskCount][hostCount];
+    this.diskWrite = new double[taskCount][hostCount];
+    this.fixedCost = new double[taskCount][hostCount];
+    for (int t = 0; t < taskCount; t++) {
+      for (int h = 0; h < hostCount; h++) {
+        diskReadStaging[t][h] = stagingBits[t] / (double) diskSpeed[h];
+        diskWrite[t][h] = outputBits[t] / (double) diskSpeed[h];
+        // Summed in the same order the decoders add them to the eft.
+        fixedCost[t][h] = diskReadStaging[t][h] + diskWrite[t][h] + computation[t][h];
+      }
+    }
+
+    this.parentOffsets = new int[taskCount + 1];
+    this.childOffsets = new int[taskCount + 1];
+    for (int t = 0; t < taskCount; t++) {
+      parentOffsets[t + 1] = parentOffsets[t] + tasks[t].getParents().size();
+      childOffsets[t + 1] = childOffsets[t] + tasks[t].getChildren().size();
+    }
+    this.parents = new int[parentOffsets[taskCount]];
+    this.parentBits = new long[parentOffsets[taskCount]];
+    this.children = new int[childOffsets[taskCount]];
+    this.childBits = new long[childOffsets[taskCount]];
+    for (int t = 0; t < taskCount; t++) {
+      // The order of the parents is kept, the communications are summed in that order.
+      fillEdges(tasks[t].getParents(), parentOffsets[t], parents);
+      fillEdges(tasks[t].getChildren(), childOffsets[t], children);
+
+      var comms = networkMatrix.get(tasks[t].getName());
+      for (int e = parentOffsets[t]; e < parentOffsets[t + 1]; e++) {
+        parentBits[e] = comms.get(tasks[parents[e]].getName());
+      }
+    }
+    for (int t = 0; t < taskCount; t++) {
+      for (int e = childOffsets[t]; e < childOffsets[t + 1]; e++) {
+        childBits[e] = networkMatrix.get(tasks[children[e]].getName()).get(tasks[t].getName());
+      }
+    }
+  }
+
+  private void fillEdges(List<Task> related, int offset, int[] target) {
+    for (int i = 0; i < related.size(); i++) {
+      target[offset + i] = taskIds.get(related.get(i).getName());
+    }
+  }
+
+  /**
+   * Finds the transfer speed between two hosts, the same rule as {@link
+   * SchedulingHelper#findHostSpeed(Host, Host)}.
+   *
+   * @param host Target host.
+   * @param parentHost Source host.
+   * @return The speed in bits per second.
+   */
+  public long linkSpeed(int host, int parentHost) {
+    return linkSpeeds[host][parentHost];
+  }
+
+  /**
+   * Time it takes to receive the output of every parent of a task.
+   *
+   * @param task The task to run.
+   * @param host Where the task runs.
+   * @param hostOf Where each already scheduled task runs.
+   * @return The communication time.
+   */
+  public double communicationTime(int task, int host, int[] hostOf) {
+    var speeds = linkSpeeds[host];
+    double taskCommunications = 0D;
+    for (int e = parentOffsets[task]; e < parentOffsets[task + 1]; e++) {
+      taskCommunications += parentBits[e] / (double) speeds[hostOf[parents[e]]];
+    }
+    return taskCommunications;
+  }
+
+  /**
+   * The earliest moment a task can start because of its parents.
+   *
+   * @param task The task to run.
+   * @param eft When each already scheduled task finishes.
+   * @return The maximum eft of the parents, zero if it has none.
+   */
+  public double maxParentEft(int task, double[] eft) {
+    double maxEst = 0D;
+    for (int e = parentOffsets[task]; e < parentOffsets[task + 1]; e++) {
+      maxEst = Math.max(maxEst, eft[parents[e]]);
+    }
+    return maxEst;
+  }
+
+  /**
+   * Time it takes to read the staging input of a task.
+   *
+   * @param task The task.
+   * @param host Where the task runs.
+   * @return The reading time.
+   */
+  public double diskReadStaging(int task, int host) {
+    return diskReadStaging[task][host];
+  }
+
+  /**
+   * Time it takes to write the output of a task.
+   *
+   * @param task The task.
+   * @param host Where the task runs.
+   * @return The writing time.
+   */
+  public double diskWrite(int task, int host) {
+    return diskWrite[task][host];
+  }
+
+  public double computation(int task, int host) {
+    return computation[task][host];
+  }
+
+  /**
+   * Time a task spends in a host that doesn't depend on where its parents run: reading the
+   * staging input, writing the output and computing, summed in that order.
+   *
+   * @param task The task.
+   * @param host Where the task runs.
+   * @return The fixed cost.
+   */
+  public double fixedCost(int task, int host) {
+    return fixedCost[task][host];
+  }
+
+  /**
+   * Finds the id of a task.
+   *
+   * @param task The task.
+   * @return Its dense id.
+   */
+  public int taskId(Task task) {
+    var id = taskIds.get(task.getName());
+    if (id == null) {
+      throw new IllegalArgumentException("Unknown task: " + task.getName());
+    }
+    return id;
+  }
+
+  /**
+   * Finds the id of a host.
+   *
+   * @param host The host.
+   * @return Its dense id.
+   */
+  public int hostId(Host host) {
+    var id = hostIds.get(host.getName());
+    if (id == null) {
+      throw new IllegalArgumentException("Unknown host: " + host.getName());
+    }
+    return id;
+  }
+
+  /**
+   * The gene assigning a task to a host. There is only one instance of each pair, created the
+   * first time it's needed, so the compact plans don't allocate a pair every time a gene is read.
+   *
+   * @param task The id of the task.
+   * @param host The id of the host.
+   * @return The plan pair.
+   */
+  public PlanPair pair(int task, int host) {
+    // Racing threads may build the same pair twice, both are equal and immutable.
+    var row = pairs[task];
+    if (row == null) {
+      row = new PlanPair[hosts.length];
+      pairs[task] = row;
+    }
+    var pair = row[host];
+    if (pair == null) {
+      pair = new PlanPair(tasks[task], hosts[host]);
+      row[host] = pair;
+    }
+    return pair;
+  }
+
+  public int taskCount() {
+    return tasks.length;
+  }
+
+  public int hostCount() {
+    return hosts.length;
+  }
+
+  public Task task(int task) {
+    return tasks[task];
+  }
+
+  public Host host(int host) {
+    return hosts[host];
+  }
+
+  public int[] parentOffsets() {
+    return parentOffsets;
+  }
+
+  public int[] parents() {
+    return parents;
+  }
+
+  public long[] parentBits() {
+    return parentBits;
+  }
+
+  public int[] childOffsets() {
+    return childOffsets;
+  }
+
+  public int[] children() {
+    return children;
+  }
+
+  public long[] childBits() {
+    return childBits;
+  }
+
+  public double energyCost(int host) {
+    return energyCost[host];
+  }
+
+  public double energyCostStandBy(int host) {
+    return energyCostStandBy[host];
+  }
+}
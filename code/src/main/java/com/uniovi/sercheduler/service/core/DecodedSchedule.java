@@ -0,0 +1,280 @@
+package com.uniovi.sercheduler.service.core;
+
+import com.uniovi.sercheduler.service.PlanPair;
+import com.uniovi.sercheduler.service.TaskSchedule;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable schedule stored in primitive arrays, in the order the tasks were decoded.
+ *
+ * <p>It behaves as the list of {@link TaskSchedule} ordered by ast, tasks starting at the same
+ * time keep their decode order. Ordering the tasks and building that list, or the plan it
+ * encodes, only happens the first time they are accessed, so a solution that is discarded right
+ * after its evaluation only pays for its objectives.
+ */
+public final class DecodedSchedule extends AbstractList<TaskSchedule> implements RandomAccess {
+
+  private static final int INSERTION_SORT_THRESHOLD = 32;
+
+  private final CompiledInstance instance;
+  private final int[] assignments;
+  private final double[] times;
+  private final boolean resumable;
+
+  private volatile int[] order;
+  private volatile List<TaskSchedule> orderedSchedule;
+  private final OrderedPlan plan = new OrderedPlan();
+
+  /**
+   * Full constructor.
+   *
+   * @param instance The instance of the tasks and hosts.
+   * @param assignments Pairs of task and host ids in decode order.
+   * @param times Pairs of ast and eft in decode order.
+   * @param resumable If the schedule can be used as a checkpoint.
+   */
+  DecodedSchedule(
+      CompiledInstance instance, int[] assignments, double[] times, boolean resumable) {
+    this.instance = instance;
+    this.assignments = assignments;
+    this.times = times;
+    this.resumable = resumable;
+  }
+
+  /**
+   * Wraps the arrays of a schedule decoded somewhere else, they must not be modified afterwards.
+   *
+   * @param instance The instance of the tasks and hosts.
+   * @param assignments Pairs of task and host ids in decode order.
+   * @param times Pairs of ast and eft in decode order.
+   * @param resumable If the schedule can be used as a checkpoint.
+   * @return The schedule.
+   */
+  public static DecodedSchedule of(
+      CompiledInstance instance, int[] assignments, double[] times, boolean resumable) {
+    if (assignments.length != times.length || assignments.length % 2 != 0) {
+      throw new IllegalArgumentException(
+          "The schedule has " + assignments.length + " assignments and " + times.length + " times");
+    }
+    return new DecodedSchedule(instance, assignments, times, resumable);
+  }
+
+  @Override
+  public TaskSchedule get(int index) {
+    return orderedSchedule().get(index);
+  }
+
+  @Override
+  public int size() {
+    return assignments.length / 2;
+  }
+
+  /**
+   * The id of the task decoded at a position.
+   *
+   * @param position The position in decode order.
+   * @return The task id.
+   */
+  public int taskAt(int position) {
+    return assignments[2 * position];
+  }
+
+  /**
+   * The id of the host of the task decoded at a position.
+   *
+   * @param position The position in decode order.
+   * @return The host id.
+   */
+  public int hostAt(int position) {
+    return assignments[2 * position + 1];
+  }
+
+  public double astAt(int position) {
+    return times[2 * position];
+  }
+
+  public double eftAt(int position) {
+    return times[2 * position + 1];
+  }
+
+  public CompiledInstance getInstance() {
+    return instance;
+  }
+
+  /**
+   * Checks if the schedule can be used as a checkpoint. That is the case when it was built by the
+   * semi-active decoder, which places every task at the end of its host and of its parents: each
+   * host keeps its tasks in ast order, so decoding any prefix of {@link #plan()} gives back the
+   * same ast and eft stored here.
+   *
+   * @return True if a decoding can resume from this schedule.
+   */
+  public boolean isResumable() {
+    return resumable;
+  }
+
+  /**
+   * The decode position of the task at an index of the schedule ordered by ast.
+   *
+   * @param index The index in the ordered schedule.
+   * @return The position in decode order.
+   */
+  public int orderedPosition(int index) {
+    return order()[index];
+  }
+
+  /**
+   * Counts how many genes at the start of a plan are equal to the ones of {@link #plan()}.
+   *
+   * @param plan The plan to compare.
+   * @return The length of the common prefix.
+   */
+  public int commonPrefix(List<PlanPair> plan) {
+    var positions = order();
+    int limit = Math.min(plan.size(), positions.length);
+    if (plan instanceof CompactPlan compact && compact.getInstance() == instance) {
+      for (int i = 0; i < limit; i++) {
+        int position = positions[i];
+        if (compact.taskAt(i) != taskAt(position) || compact.hostAt(i) != hostAt(position)) {
+          return i;
+        }
+      }
+      return limit;
+    }
+    for (int i = 0; i < limit; i++) {
+      var planPair = plan.get(i);
+      int position = positions[i];
+      if (planPair.task() != instance.task(taskAt(position))
+          || planPair.host() != instance.host(hostAt(position))) {
+        return i;
+      }
+    }
+    return limit;
+  }
+
+  /**
+   * The plan encoded by the schedule, the tasks ordered by ast with the host where they run. It
+   * is only built the first time it's accessed.
+   *
+   * @return The ordered plan.
+   */
+  public List<PlanPair> plan() {
+    return plan;
+  }
+
+  private List<TaskSchedule> orderedSchedule() {
+    var result = orderedSchedule;
+    if (result == null) {
+      var positions = order();
+      var schedule = new TaskSchedule[positions.length];
+      for (int i = 0; i < positions.length; i++) {
+        int position = positions[i];
+        schedule[i] =
+            new TaskSchedule(
+                instance.task(taskAt(position)),
+                astAt(position),
+                eftAt(position),
+                instance.host(hostAt(position)));
+      }
+      result = List.of(schedule);
+      orderedSchedule = result;
+    }
+    return result;
+  }
+
+  /**
+   * The decode positions sorted by ast, computed once.
+   *
+   * @return The positions in schedule order.
+   */
+  private int[] order() {
+    var result = order;
+    if (result == null) {
+      result = new int[size()];
+      for (int i = 0; i < result.length; i++) {
+        result[i] = i;
+      }
+      sortByAst(result, new int[result.length], 0, result.length);
+      order = result;
+    }
+    return result;
+  }
+
+  /** Stable merge sort of positions by ast, equal ast keep their decode order. */
+  private void sortByAst(int[] positions, int[] buffer, int from, int to) {
+    if (to - from <= INSERTION_SORT_THRESHOLD) {
+      for (int i = from + 1; i < to; i++) {
+        int position = positions[i];
+        double ast = astAt(position);
+        int j = i - 1;
+        while (j >= from && astAt(positions[j]) > ast) {
+          positions[j + 1] = positions[j];
+          j--;
+        }
+        positions[j + 1] = position;
+      }
+      return;
+    }
+    int middle = (from + to) >>> 1;
+    sortByAst(positions, buffer, from, middle);
+    sortByAst(positions, buffer, middle, to);
+    if (astAt(positions[middle - 1]) <= astAt(positions[middle])) {
+      return;
+    }
+    System.arraycopy(positions, from, buffer, from, to - from);
+    int left = from;
+    int right = middle;
+    for (int i = from; i < to; i++) {
+      if (right >= to || (left < middle && astAt(buffer[left]) <= astAt(buffer[right]))) {
+        positions[i] = buffer[left++];
+      } else {
+        positions[i] = buffer[right++];
+      }
+    }
+  }
+
+  /** Plan view of the schedule, its {@link CompactPlan} is built on first access. */
+  public final class OrderedPlan extends AbstractList<PlanPair> implements RandomAccess {
+
+    private volatile CompactPlan compact;
+
+    private OrderedPlan() {}
+
+    @Override
+    public PlanPair get(int index) {
+      return compact().get(index);
+    }
+
+    @Override
+    public int size() {
+      return DecodedSchedule.this.size();
+    }
+
+    public CompiledInstance getInstance() {
+      return instance;
+    }
+
+    /**
+     * The plan in compact form, built once.
+     *
+     * @return The compact plan.
+     */
+    public CompactPlan compact() {
+      var result = compact;
+      if (result == null) {
+        var positions = order();
+        var tasks = new int[positions.length];
+        var hosts = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+          tasks[i] = taskAt(positions[i]);
+          hosts[i] = hostAt(positions[i]);
+        }
+        result = new CompactPlan(instance, tasks, hosts, null);
+        compact = result;
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package com.uniovi.sercheduler.service.core;
+
+import java.util.Arrays;
+
+/**
+ * Scratch buffers used while decoding a plan.
+ *
+ * <p>The buffers are sized for one instance and reused between evaluations, so a decoder doesn't
+ * need to allocate anything while it runs. A workspace is not thread safe, every thread must use
+ * its own.
+ */
+public final class EvaluationWorkspace {
+
+  private final CompiledInstance instance;
+
+  private final int[] decoded;
+  private final double[] ast;
+  private final double[] eft;
+  private final int[] hostOf;
+
+  private final double[] available;
+  private final HostGaps gaps;
+
+  private final double[] candidateAst;
+  private final double[] candidateEft;
+  private final double[] candidateEnergy;
+
+  /**
+   * Full constructor.
+   *
+   * @param instance The instance the buffers are sized for.
+   */
+  public EvaluationWorkspace(CompiledInstance instance) {
+    this.instance = instance;
+    int taskCount = instance.taskCount();
+    int hostCount = instance.hostCount();
+
+    this.decoded = new int[taskCount];
+    this.ast = new double[taskCount];
+    this.eft = new double[taskCount];
+    this.hostOf = new int[taskCount];
+    this.available = new double[hostCount];
+    this.gaps = new HostGaps(hostCount);
+    this.candidateAst = new double[hostCount];
+    this.candidateEft = new double[hostCount];
+    this.candidateEnergy = new double[hostCount];
+  }
+
+  /**
+   * Prepares the workspace for a new evaluation, no task is scheduled and every host is free.
+   *
+   * @return The workspace.
+   */
+  public EvaluationWorkspace reset() {
+    Arrays.fill(hostOf, -1);
+    Arrays.fill(available, 0D);
+    gaps.reset();
+    return this;
+  }
+
+  /**
+   * Stores where and when a task runs.
+   *
+   * @param position The position of the task in the decoded order.
+   * @param task The task.
+   * @param host Where the task runs.
+   * @param taskAst When the task starts.
+   * @param taskEft When the task ends.
+   */
+  public void schedule(int position, int task, int host, double taskAst, double taskEft) {
+    decoded[position] = task;
+    hostOf[task] = host;
+    ast[task] = taskAst;
+    eft[task] = taskEft;
+  }
+
+  /**
+   * Copies the first tasks of the decoded order into an immutable schedule.
+   *
+   * @param count How many tasks were decoded.
+   * @return The schedule.
+   */
+  public DecodedSchedule snapshot(int count) {
+    return snapshot(count, false);
+  }
+
+  /**
+   * Copies the first tasks of the decoded order into an immutable schedule.
+   *
+   * @param count How many tasks were decoded.
+   * @param resumable If the schedule can be used as a checkpoint, see {@link
+   *     DecodedSchedule#isResumable()}.
+   * @return The schedule.
+   */
+  public DecodedSchedule snapshot(int count, boolean resumable) {
+    var assignments = new int[count * 2];
+    var times = new double[count * 2];
+    for (int i = 0; i < count; i++) {
+      int task = decoded[i];
+      assignments[2 * i] = task;
+      assignments[2 * i + 1] = hostOf[task];
+      times[2 * i] = ast[task];
+      times[2 * i + 1] = eft[task];
+    }
+    return new DecodedSchedule(instance, assignments, times, resumable);
+  }
+
+  public CompiledInstance getInstance() {
+    return instance;
+  }
+
+  public int[] decoded() {
+    return decoded;
+  }
+
+  public double[] ast() {
+    return ast;
+  }
+
+  public double[] eft() {
+    return eft;
+  }
+
+  public int[] hostOf() {
+    return hostOf;
+  }
+
+  public double[] available() {
+    return available;
+  }
+
+  public HostGaps gaps() {
+    return gaps;
+  }
+
+  public double[] candidateAst() {
+    return candidateAst;
+  }
+
+  public double[] candidateEft() {
+    return candidateEft;
+  }
+
+  public double[] candidateEnergy() {
+    return candidateEnergy;
+  }
+}
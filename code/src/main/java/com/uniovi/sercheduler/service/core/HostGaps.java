@@ -0,0 +1,184 @@
+package com.uniovi.sercheduler.service.core;
+
+import java.util.Arrays;
+
+/**
+ * Free intervals of every host, used by the insertion (active) decoders.
+ *
+ * <p>The gaps of each host are kept sorted by start in two primitive arrays. As the gaps never
+ * overlap the ends are sorted too, so a gap can be found with a binary search and splitting it
+ * only shifts the following gaps. At the beginning every host has a single gap covering the whole
+ * timeline, the last gap of a host always ends at {@link Double#MAX_VALUE}.
+ */
+public final class HostGaps {
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  private final double[][] starts;
+  private final double[][] ends;
+  private final int[] sizes;
+
+  /**
+   * Full constructor, every host starts free.
+   *
+   * @param hostCount The number of hosts.
+   */
+  public HostGaps(int hostCount) {
+    this.starts = new double[hostCount][INITIAL_CAPACITY];
+    this.ends = new double[hostCount][INITIAL_CAPACITY];
+    this.sizes = new int[hostCount];
+    reset();
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other The gaps to copy.
+   */
+  public HostGaps(HostGaps other) {
+    int hostCount = other.sizes.length;
+    this.starts = new double[hostCount][];
+    this.ends = new double[hostCount][];
+    this.sizes = other.sizes.clone();
+    for (int host = 0; host < hostCount; host++) {
+      starts[host] = Arrays.copyOf(other.starts[host], Math.max(sizes[host], 1) + 1);
+      ends[host] = Arrays.copyOf(other.ends[host], Math.max(sizes[host], 1) + 1);
+    }
+  }
+
+  /** Frees every host. */
+  public void reset() {
+    for (int host = 0; host < sizes.length; host++) {
+      starts[host][0] = 0D;
+      ends[host][0] = Double.MAX_VALUE;
+      sizes[host] = 1;
+    }
+  }
+
+  /**
+   * Finds the ast of a task with insertion, the first gap starting after the parents that can hold
+   * the full task. If there is none the task starts when the parents finish.
+   *
+   * @param host The host to check.
+   * @param maxEst When the parents finish.
+   * @param taskTime The time the task needs.
+   * @return The ast.
+   */
+  public double earliestFit(int host, double maxEst, double taskTime) {
+    var hostStarts = starts[host];
+    var hostEnds = ends[host];
+    int size = sizes[host];
+    for (int gap = firstNotBelow(hostStarts, size, maxEst); gap < size; gap++) {
+      if (taskTime <= (hostEnds[gap] - hostStarts[gap])) {
+        return hostStarts[gap];
+      }
+    }
+    return maxEst;
+  }
+
+  /**
+   * Marks an interval of a host as used, the gap containing it is split in two and the parts with
+   * no length are removed.
+   *
+   * @param host The host where the task runs.
+   * @param ast When the task starts.
+   * @param eft When the task ends.
+   */
+  public void occupy(int host, double ast, double eft) {
+    var hostStarts = starts[host];
+    var hostEnds = ends[host];
+    int size = sizes[host];
+
+    int gap = firstNotBelow(hostEnds, size, eft);
+    if (gap == size || ast < hostStarts[gap]) {
+      throw new IllegalStateException("No suitable gap found");
+    }
+
+    double gapStart = hostStarts[gap];
+    double gapEnd = hostEnds[gap];
+    int pieces = (ast != gapStart ? 1 : 0) + (eft != gapEnd ? 1 : 0);
+
+    if (pieces == 2) {
+      ensureCapacity(host, size + 1);
+      hostStarts = starts[host];
+      hostEnds = ends[host];
+    }
+    if (pieces != 1) {
+      System.arraycopy(hostStarts, gap + 1, hostStarts, gap + pieces, size - gap - 1);
+      System.arraycopy(hostEnds, gap + 1, hostEnds, gap + pieces, size - gap - 1);
+    }
+
+    int next = gap;
+    if (ast != gapStart) {
+      hostStarts[next] = gapStart;
+      hostEnds[next] = ast;
+      next++;
+    }
+    if (eft != gapEnd) {
+      hostStarts[next] = eft;
+      hostEnds[next] = gapEnd;
+    }
+    sizes[host] = size - 1 + pieces;
+  }
+
+  /**
+   * The first instant from which a host is free until the end of the timeline.
+   *
+   * @param host The host to check.
+   * @return The start of the latest gap.
+   */
+  public double lastStart(int host) {
+    if (sizes[host] == 0) {
+      throw new IllegalStateException("No gap found");
+    }
+    return starts[host][sizes[host] - 1];
+  }
+
+  /**
+   * Copies the gaps of another structure with the same number of hosts.
+   *
+   * @param other The gaps to copy.
+   */
+  public void copyFrom(HostGaps other) {
+    for (int host = 0; host < sizes.length; host++) {
+      ensureCapacity(host, other.sizes[host]);
+      System.arraycopy(other.starts[host], 0, starts[host], 0, other.sizes[host]);
+      System.arraycopy(other.ends[host], 0, ends[host], 0, other.sizes[host]);
+      sizes[host] = other.sizes[host];
+    }
+  }
+
+  public int size(int host) {
+    return sizes[host];
+  }
+
+  public double start(int host, int gap) {
+    return starts[host][gap];
+  }
+
+  public double end(int host, int gap) {
+    return ends[host][gap];
+  }
+
+  private void ensureCapacity(int host, int capacity) {
+    if (starts[host].length < capacity) {
+      int newCapacity = Math.max(capacity, starts[host].length * 2);
+      starts[host] = Arrays.copyOf(starts[host], newCapacity);
+      ends[host] = Arrays.copyOf(ends[host], newCapacity);
+    }
+  }
+
+  private static int firstNotBelow(double[] values, int size, double value) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (values[middle] < value) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,263 @@
+package com.uniovi.sercheduler.service.core;
+
+import com.uniovi.sercheduler.dto.InstanceData;
+import com.uniovi.sercheduler.dto.Task;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data derived from an {@link InstanceData} that doesn't depend on the plan being evaluated.
+ *
+ * <p>Every calculator, problem and algorithm working on the same instance used to compute the
+ * matrices, the reference speeds and the HEFT ranking again. Instead, they are computed once per
+ * instance and shared through {@link #of(InstanceData)}. The cache is keyed by the identity of
+ * the instance, not by its content, and holds the instances weakly so it doesn't keep them alive
+ * after the problems using them are gone. The cached data must be treated as read only.
+ */
+public final class InstancePrecomputation {
+
+  private static final Map<IdentityKey, InstancePrecomputation> CACHE = new HashMap<>();
+  private static final ReferenceQueue<InstanceData> CLEARED = new ReferenceQueue<>();
+
+  /** Relative margin covering the rounding of the eft of the descendants of a task. */
+  private static final double PATH_BOUND_MARGIN = 1e-9;
+
+  private final Map<String, Map<String, Double>> computationMatrix;
+  private final Map<String, Map<String, Long>> networkMatrix;
+  private final Double referenceSpeedRead;
+  private final Double referenceSpeedWrite;
+  private final CompiledInstance compiledInstance;
+
+  private final Map<Task, Double> heftRanking;
+  private final List<Task> heftRankingTasks;
+  private final int[] heftRankingIds;
+  private final boolean[] priorityTasks;
+  private final double[] remainingCriticalPath;
+
+  private InstancePrecomputation(InstanceData instanceData) {
+    this.computationMatrix =
+        Collections.unmodifiableMap(
+            SchedulingHelper.calculateComputationMatrix(
+                instanceData, instanceData.referenceFlops()));
+    this.networkMatrix =
+        Collections.unmodifiableMap(SchedulingHelper.calculateNetworkMatrix(instanceData));
+    this.referenceSpeedWrite = SchedulingHelper.calculateReferenceSpeedWrite(instanceData);
+    this.referenceSpeedRead = SchedulingHelper.calculateReferenceSpeedRead(instanceData);
+    this.compiledInstance = new CompiledInstance(instanceData, computationMatrix, networkMatrix);
+
+    LinkedHashMap<Task, Double> ranking =
+        SchedulingHelper.calculateHeftRanking(
+            instanceData, computationMatrix, referenceSpeedRead, referenceSpeedWrite);
+    this.heftRanking = Collections.unmodifiableMap(ranking);
+    this.heftRankingTasks = List.copyOf(ranking.keySet());
+    this.heftRankingIds = new int[heftRankingTasks.size()];
+    for (int i = 0; i < heftRankingIds.length; i++) {
+      heftRankingIds[i] = compiledInstance.taskId(heftRankingTasks.get(i));
+    }
+
+    // Tasks ranked over the average are considered high priority.
+    double threshold = ranking.values().stream().mapToDouble(x -> x).average().orElseThrow();
+    this.priorityTasks = new boolean[compiledInstance.taskCount()];
+    for (var entry : ranking.entrySet()) {
+      priorityTasks[compiledInstance.taskId(entry.getKey())] = entry.getValue() > threshold;
+    }
+
+    this.remainingCriticalPath = calculateRemainingCriticalPath(compiledInstance);
+  }
+
+  /**
+   * Calculates, for every task, the shortest time its descendants need after it finishes. Each
+   * task takes its fastest host without communications, so the longest chain of descendants is a
+   * lower bound whatever the plan is. The tasks are visited from the leaves up to the roots.
+   */
+  private static double[] calculateRemainingCriticalPath(CompiledInstance compiledInstance) {
+    int taskCount = compiledInstance.taskCount();
+    var childOffsets = compiledInstance.childOffsets();
+    var parentOffsets = compiledInstance.parentOffsets();
+    var parents = compiledInstance.parents();
+
+    var minTaskTime = new double[taskCount];
+    for (int task = 0; task < taskCount; task++) {
+      double min = Double.MAX_VALUE;
+      for (int host = 0; host < compiledInstance.hostCount(); host++) {
+        min = Math.min(min, compiledInstance.fixedCost(task, host));
+      }
+      minTaskTime[task] = min;
+    }
+
+    var remaining = new double[taskCount];
+    var pendingChildren = new int[taskCount];
+    var ready = new int[taskCount];
+    int readyCount = 0;
+    for (int task = 0; task < taskCount; task++) {
+      pendingChildren[task] = childOffsets[task + 1] - childOffsets[task];
+      if (pendingChildren[task] == 0) {
+        ready[readyCount++] = task;
+      }
+    }
+    for (int next = 0; next < readyCount; next++) {
+      int task = ready[next];
+      double path = minTaskTime[task] + remaining[task];
+      for (int e = parentOffsets[task]; e < parentOffsets[task + 1]; e++) {
+        int parent = parents[e];
+        remaining[parent] = Math.max(remaining[parent], path);
+        if (--pendingChildren[parent] == 0) {
+          ready[readyCount++] = parent;
+        }
+      }
+    }
+    return remaining;
+  }
+
+  /**
+   * Gets the precomputed data of an instance, computing it the first time the instance is seen.
+   *
+   * @param instanceData The instance.
+   * @return The shared precomputed data.
+   */
+  public static InstancePrecomputation of(InstanceData instanceData) {
+    synchronized (CACHE) {
+      expungeCleared();
+      return CACHE.computeIfAbsent(
+          new IdentityKey(instanceData, CLEARED), k -> new InstancePrecomputation(instanceData));
+    }
+  }
+
+  /**
+   * How many instances are cached right now.
+   *
+   * @return The number of cached instances.
+   */
+  static int cachedInstances() {
+    synchronized (CACHE) {
+      expungeCleared();
+      return CACHE.size();
+    }
+  }
+
+  private static void expungeCleared() {
+    var cleared = new ArrayList<Object>();
+    for (var key = CLEARED.poll(); key != null; key = CLEARED.poll()) {
+      cleared.add(key);
+    }
+    CACHE.keySet().removeAll(cleared);
+  }
+
+  public Map<String, Map<String, Double>> getComputationMatrix() {
+    return computationMatrix;
+  }
+
+  public Map<String, Map<String, Long>> getNetworkMatrix() {
+    return networkMatrix;
+  }
+
+  public Double getReferenceSpeedRead() {
+    return referenceSpeedRead;
+  }
+
+  public Double getReferenceSpeedWrite() {
+    return referenceSpeedWrite;
+  }
+
+  public CompiledInstance getCompiledInstance() {
+    return compiledInstance;
+  }
+
+  /**
+   * The HEFT ranking in DECREASING order.
+   *
+   * @return The rank of every task.
+   */
+  public Map<Task, Double> getHeftRanking() {
+    return heftRanking;
+  }
+
+  /**
+   * The tasks of the HEFT ranking in DECREASING order.
+   *
+   * @return The ranked tasks.
+   */
+  public List<Task> getHeftRankingTasks() {
+    return heftRankingTasks;
+  }
+
+  /**
+   * The task at a position of the HEFT ranking.
+   *
+   * @param position The position in the ranking, in DECREASING order.
+   * @return The dense id of the task.
+   */
+  public int heftRankingTask(int position) {
+    return heftRankingIds[position];
+  }
+
+  /**
+   * Checks if a task ranks over the average in the HEFT ranking.
+   *
+   * @param task The dense id of the task.
+   * @return True if the task is high priority.
+   */
+  public boolean isPriorityTask(int task) {
+    return priorityTasks[task];
+  }
+
+  /**
+   * The shortest time the descendants of a task need once it finishes.
+   *
+   * @param task The dense id of the task.
+   * @return The length of the critical path after the task, zero if it has no children.
+   */
+  public double remainingCriticalPath(int task) {
+    return remainingCriticalPath[task];
+  }
+
+  /**
+   * The lowest makespan of a schedule where a task finishes at a given time, its eft plus the
+   * remaining critical path. The path is slightly rounded down, as the eft of the descendants
+   * accumulates rounding errors.
+   *
+   * @param task The dense id of the task.
+   * @param taskEft When the task finishes.
+   * @return The lower bound of the makespan.
+   */
+  public double makespanBound(int task, double taskEft) {
+    double remaining = remainingCriticalPath[task];
+    double pathBound =
+        remaining == 0D ? taskEft : (taskEft + remaining) * (1 - PATH_BOUND_MARGIN);
+    return Math.max(taskEft, pathBound);
+  }
+
+  /** Weak reference compared by the identity of its referent. */
+  private static final class IdentityKey extends WeakReference<InstanceData> {
+
+    private final int hash;
+
+    IdentityKey(InstanceData instanceData, ReferenceQueue<InstanceData> queue) {
+      super(instanceData, queue);
+      this.hash = System.identityHashCode(instanceData);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof IdentityKey key)) {
+        return false;
+      }
+      var referent = get();
+      return referent != null && referent == key.get();
+    }
+  }
+}
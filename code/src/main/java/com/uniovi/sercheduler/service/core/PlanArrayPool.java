@@ -0,0 +1,95 @@
+package com.uniovi.sercheduler.service.core;
+
+import java.util.ArrayDeque;
+
+/**
+ * Recycles the arrays of the {@link CompactPlan}s of one instance.
+ *
+ * <p>The offspring of a generation are usually discarded when they are evaluated, or when they
+ * lose the replacement, so keeping their arrays lets the next offspring be written without
+ * allocating. At most a fixed number of arrays is kept, the rest are left to the garbage collector.
+ * It's thread safe.
+ */
+public final class PlanArrayPool {
+
+  /** Arrays kept by default, enough for the offspring of a usual population. */
+  public static final int DEFAULT_CAPACITY = 256;
+
+  private final CompiledInstance instance;
+  private final int capacity;
+  private final ArrayDeque<int[]> free;
+
+  /**
+   * Full constructor.
+   *
+   * @param instance The instance of the plans.
+   * @param capacity The maximum number of plans whose arrays are kept.
+   */
+  public PlanArrayPool(CompiledInstance instance, int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("The capacity can't be negative: " + capacity);
+    }
+    this.instance = instance;
+    this.capacity = capacity;
+    this.free = new ArrayDeque<>();
+  }
+
+  /**
+   * Starts an empty plan with one gene per task of the instance.
+   *
+   * @return The writer of the plan.
+   */
+  public CompactPlan.Writer create() {
+    return new CompactPlan.Writer(instance, this, acquire(), acquire());
+  }
+
+  /**
+   * Starts a plan from the genes of another one, which isn't modified.
+   *
+   * @param plan The original plan.
+   * @return The writer of the copy.
+   */
+  public CompactPlan.Writer edit(CompactPlan plan) {
+    int size = plan.size();
+    int[] tasks = size == instance.taskCount() ? acquire() : new int[size];
+    int[] hosts = size == instance.taskCount() ? acquire() : new int[size];
+    plan.copyTo(tasks, hosts);
+    return new CompactPlan.Writer(instance, this, tasks, hosts);
+  }
+
+  /**
+   * The number of arrays waiting to be reused.
+   *
+   * @return The free arrays.
+   */
+  public int available() {
+    synchronized (free) {
+      return free.size();
+    }
+  }
+
+  void recycle(int[] tasks, int[] hosts) {
+    synchronized (free) {
+      if (free.size() + 2 <= 2 * capacity) {
+        offer(tasks);
+        offer(hosts);
+      }
+    }
+  }
+
+  private void offer(int[] array) {
+    if (array.length == instance.taskCount()) {
+      free.push(array);
+    }
+  }
+
+  private int[] acquire() {
+    synchronized (free) {
+      var array = free.poll();
+      if (array != null) {
+        return array;
+      }
+    }
+    return new int[instance.taskCount()];
+  }
+}
@@ -1,96 +1,182 @@
 package com.uniovi.sercheduler.service.core;
 
 import com.uniovi.sercheduler.dto.InstanceData;
-import com.uniovi.sercheduler.dto.Task;
 import com.uniovi.sercheduler.service.PlanPair;
-
-import java.util.*;
-import java.util.stream.Collectors;
-
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates plans to and from random keys particles.
+ *
+ * <p>A particle has two keys per task, indexed by the dense ids of {@link CompiledInstance}: the
+ * first half holds the priority of each task and the second half its host, scaled to [0, 1]. The
+ * decoder schedules the ready task with the lowest priority first, using an in-degree array and a
+ * binary heap of task ids, so decoding is O(n log n). Ties are broken exactly as the {@link
+ * java.util.PriorityQueue} used before, so the decoded plans don't change.
+ */
 public class RandomKeysCoder {
 
-  private final InstanceData instanceData;
-  private final List<String> taskIds;
-  private final List<String> hostIds;
+  private final CompiledInstance instance;
+  private final ThreadLocal<Workspace> workspaces;
 
   public RandomKeysCoder(InstanceData instanceData) {
-    this.instanceData = instanceData;
-    this.taskIds = instanceData.workflow().keySet().stream().toList();
-    this.hostIds = instanceData.hosts().keySet().stream().toList();
+    this(InstancePrecomputation.of(instanceData).getCompiledInstance());
   }
 
-  public List<Double> encode(List<PlanPair> plan) {
+  public RandomKeysCoder(CompiledInstance instance) {
+    this.instance = instance;
+    this.workspaces = ThreadLocal.withInitial(() -> new Workspace(instance.taskCount()));
+  }
 
-    var k = taskIds.size();
-    List<Double> particle = new ArrayList<>(Collections.nCopies(2 * k, 0.0));
-    for (int i = 0; i < plan.size(); i++) {
-      var task = plan.get(i).task();
-      var host = plan.get(i).host();
+  /**
+   * Encodes a plan as a new particle.
+   *
+   * @param plan The plan.
+   * @return The keys of the plan.
+   */
+  public List<Double> encode(List<PlanPair> plan) {
+    var particle = new double[2 * instance.taskCount()];
+    encode(plan, particle);
 
-      particle.set(getTaskIndex(task.getName()), (double) i / k);
-      particle.set(
-          k + getTaskIndex(task.getName()), (double) getHostIndex(host.getName()) / hostIds.size());
+    List<Double> keys = new ArrayList<>(particle.length);
+    for (double key : particle) {
+      keys.add(key);
     }
+    return keys;
+  }
 
-    return particle;
+  /**
+   * Encodes a plan in an existing particle, without allocating if the plan is compact.
+   *
+   * @param plan The plan.
+   * @param particle Where the keys are written, two per task.
+   */
+  public void encode(List<PlanPair> plan, double[] particle) {
+    var compact = CompactPlan.of(instance, plan);
+    int k = instance.taskCount();
+    int hostCount = instance.hostCount();
+    for (int i = 0; i < compact.size(); i++) {
+      int task = compact.taskAt(i);
+      particle[task] = (double) i / k;
+      particle[k + task] = (double) compact.hostAt(i) / hostCount;
+    }
   }
 
+  /**
+   * Decodes a particle.
+   *
+   * @param particle The keys, two per task.
+   * @return The plan.
+   */
   public List<PlanPair> decode(List<Double> particle) {
+    var keys = new double[particle.size()];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = particle.get(i);
+    }
+    return decode(keys);
+  }
+
+  /**
+   * Decodes a particle, following the priorities of the tasks as long as their parents are
+   * already scheduled.
+   *
+   * @param particle The keys, two per task.
+   * @return The plan, in compact form.
+   */
+  public CompactPlan decode(double[] particle) {
+    int k = instance.taskCount();
+    int hostCount = instance.hostCount();
+    var parentOffsets = instance.parentOffsets();
+    var childOffsets = instance.childOffsets();
+    var children = instance.children();
+
+    var workspace = workspaces.get();
+    var pending = workspace.pending;
+    var heap = workspace.heap;
+    int heapSize = 0;
+
+    for (int t = 0; t < k; t++) {
+      pending[t] = parentOffsets[t + 1] - parentOffsets[t];
+      if (pending[t] == 0) {
+        heapSize = offer(heap, heapSize, t, particle);
+      }
+    }
 
-    var k = taskIds.size();
-    List<PlanPair> plan = new ArrayList<>(k);
-
-    PriorityQueue<PrioritizedTask> tasksToExplore =
-        new PriorityQueue<>(Comparator.comparingDouble(PrioritizedTask::priority));
-
-    var parentStatus =
-        instanceData.workflow().values().stream()
-            .map(
-                t ->
-                    Map.entry(
-                        t.getName(),
-                        t.getParents().stream().map(Task::getName).collect(Collectors.toList())))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
-    instanceData.workflow().values().stream()
-        .filter(t -> t.getParents().isEmpty())
-        .forEach(
-            t ->
-                tasksToExplore.add(
-                    new PrioritizedTask(particle.get(getTaskIndex(t.getName())), t)));
-
-    while (!tasksToExplore.isEmpty()) {
-
-      var task = tasksToExplore.poll().task();
-
-      int hostId =
-          (int)
-              Math.floor(
-                  Math.min(
-                      particle.get(k + getTaskIndex(task.getName())) * hostIds.size(),
-                      hostIds.size() - 1));
-
-      plan.add(new PlanPair(task, instanceData.hosts().get(hostIds.get(hostId))));
-
-      // We need to remove the task from the parent list of non schedule parents.
-      for (var child : task.getChildren()) {
-        parentStatus.get(child.getName()).remove(task.getName());
-        if (parentStatus.get(child.getName()).isEmpty()) {
-          tasksToExplore.add(
-              new PrioritizedTask(particle.get(getTaskIndex(child.getName())), child));
+    var tasks = new int[k];
+    var hosts = new int[k];
+    int size = 0;
+    while (heapSize > 0) {
+      int task = heap[0];
+      heapSize = poll(heap, heapSize, particle);
+
+      tasks[size] = task;
+      hosts[size] = (int) Math.floor(Math.min(particle[k + task] * hostCount, hostCount - 1));
+      size++;
+
+      for (int e = childOffsets[task]; e < childOffsets[task + 1]; e++) {
+        int child = children[e];
+        if (--pending[child] == 0) {
+          heapSize = offer(heap, heapSize, child, particle);
         }
       }
     }
-    return plan;
+    if (size != k) {
+      throw new IllegalStateException("The workflow has a cycle, " + (k - size) + " tasks left");
+    }
+
+    return CompactPlan.of(instance, tasks, hosts);
   }
 
-  private int getTaskIndex(String taskId) {
-    return taskIds.indexOf(taskId);
+  /** Adds a task to the heap, with the sift up of {@link java.util.PriorityQueue#offer}. */
+  private static int offer(int[] heap, int size, int task, double[] priorities) {
+    double priority = priorities[task];
+    int k = size;
+    while (k > 0) {
+      int parent = (k - 1) >>> 1;
+      if (Double.compare(priority, priorities[heap[parent]]) >= 0) {
+        break;
+      }
+      heap[k] = heap[parent];
+      k = parent;
+    }
+    heap[k] = task;
+    return size + 1;
   }
 
-  private int getHostIndex(String hostId) {
-    return hostIds.indexOf(hostId);
+  /** Removes the head of the heap, with the sift down of {@link java.util.PriorityQueue#poll}. */
+  private static int poll(int[] heap, int size, double[] priorities) {
+    int n = size - 1;
+    if (n == 0) {
+      return 0;
+    }
+    int last = heap[n];
+    double priority = priorities[last];
+    int k = 0;
+    int half = n >>> 1;
+    while (k < half) {
+      int child = 2 * k + 1;
+      int right = child + 1;
+      if (right < n && Double.compare(priorities[heap[child]], priorities[heap[right]]) > 0) {
+        child = right;
+      }
+      if (Double.compare(priority, priorities[heap[child]]) <= 0) {
+        break;
+      }
+      heap[k] = heap[child];
+      k = child;
+    }
+    heap[k] = last;
+    return n;
   }
 
-  public record PrioritizedTask(double priority, Task task) {}
+  /** The arrays a thread reuses between decodes. */
+  private static final class Workspace {
+    private final int[] pending;
+    private final int[] heap;
+
+    private Workspace(int taskCount) {
+      this.pending = new int[taskCount];
+      this.heap = new int[taskCount];
+    }
+  }
 }
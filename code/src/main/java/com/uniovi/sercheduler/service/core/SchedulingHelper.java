@@ -3,15 +3,11 @@ package com.uniovi.sercheduler.service.core;
 import com.uniovi.sercheduler.dto.Host;
 import com.uniovi.sercheduler.dto.InstanceData;
 import com.uniovi.sercheduler.dto.Task;
-import com.uniovi.sercheduler.dto.TaskFile;
 import com.uniovi.sercheduler.service.ParentsInfo;
-import com.uniovi.sercheduler.service.TaskCosts;
 import com.uniovi.sercheduler.service.TaskSchedule;
-import com.uniovi.sercheduler.service.support.ScheduleGap;
 
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class SchedulingHelper {
 
@@ -47,50 +43,69 @@ public class SchedulingHelper {
   /**
    * Calculates the communications between tasks.
    *
+   * <p>The output files are indexed by name once, so the bits each task receives from its parents
+   * are found with one lookup per input file instead of comparing the files of every parent. The
+   * tasks are independent, so they are processed in parallel.
+   *
    * @return A map stating the input form each task.
    */
   public static Map<String, Map<String, Long>> calculateNetworkMatrix(InstanceData instanceData) {
+    var producers = indexOutputFiles(instanceData);
 
-    return instanceData.workflow().values().stream()
-        .map(SchedulingHelper::calculateTasksCommns)
-        .map(SchedulingHelper::calculateStaging)
+    return instanceData.workflow().values().parallelStream()
+        .map(task -> calculateTasksCommns(task, producers))
         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
   }
 
-  private static Map.Entry<Task, Map<String, Long>> calculateTasksCommns(Task task) {
-    return Map.entry(
-        task,
-        task.getParents().stream()
-            .map(
-                parent -> {
-                  Long bitsTransferred =
-                      parent.getOutput().getFiles().stream()
-                          .filter(
-                              f ->
-                                  task.getInput().getFiles().stream()
-                                      .map(TaskFile::getName)
-                                      .toList()
-                                      .contains(f.getName()))
-                          .map(TaskFile::getSize)
-                          .reduce(0L, Long::sum);
-
-                  return Map.entry(parent.getName(), bitsTransferred);
-                })
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+  /**
+   * Indexes the output files of the workflow by name.
+   *
+   * @return For every file name, the tasks writing it and the size written, once per occurrence.
+   */
+  private static Map<String, List<Map.Entry<String, Long>>> indexOutputFiles(
+      InstanceData instanceData) {
+    var producers = new HashMap<String, List<Map.Entry<String, Long>>>();
+    for (var task : instanceData.workflow().values()) {
+      for (var file : task.getOutput().getFiles()) {
+        producers
+            .computeIfAbsent(file.getName(), k -> new ArrayList<>(1))
+            .add(Map.entry(task.getName(), file.getSize()));
+      }
+    }
+    return producers;
   }
 
-  private static Map.Entry<String, Map<String, Long>> calculateStaging(
-      Map.Entry<Task, Map<String, Long>> entry) {
+  /**
+   * Calculates the bits a task receives from each parent, the rest of its input comes from
+   * staging and is stored with its own name.
+   */
+  private static Map.Entry<String, Map<String, Long>> calculateTasksCommns(
+      Task task, Map<String, List<Map.Entry<String, Long>>> producers) {
+    var comms = new HashMap<String, Long>();
+    for (var parent : task.getParents()) {
+      comms.put(parent.getName(), 0L);
+    }
+
+    // A file is read once even if it appears several times in the input.
+    var inputNames = new HashSet<String>();
+    for (var file : task.getInput().getFiles()) {
+      inputNames.add(file.getName());
+    }
+
+    long tasksBits = 0;
+    for (var name : inputNames) {
+      for (var producer : producers.getOrDefault(name, List.of())) {
+        var bits = comms.get(producer.getKey());
+        if (bits != null) {
+          comms.put(producer.getKey(), bits + producer.getValue());
+          tasksBits += producer.getValue();
+        }
+      }
+    }
+
     // Do the staging
-    Task task = entry.getKey();
-    Map<String, Long> comms = entry.getValue();
-    Long tasksBits = comms.values().stream().reduce(0L, Long::sum);
-    var newComms =
-        Stream.concat(
-                comms.entrySet().stream(),
-                Stream.of(Map.entry(task.getName(), task.getInput().getSizeInBits() - tasksBits)))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-    return Map.entry(task.getName(), newComms);
+    comms.put(task.getName(), task.getInput().getSizeInBits() - tasksBits);
+    return Map.entry(task.getName(), comms);
   }
 
   /**
@@ -215,62 +230,6 @@ public class SchedulingHelper {
                 LinkedHashMap::new));
   }
 
-  /**
-   * Calculates the eft of a given task. With insertion, which means that it take into account the
-   * gaps.
-   *
-   * @param task Task to execute.
-   * @param host Where does the task run.
-   * @param schedule The schedule to update.
-   * @param available When each machine is available.
-   * @return Information about the executed task.
-   */
-  public static TaskCosts calculateEftActive(
-      Task task,
-      Host host,
-      Map<String, TaskSchedule> schedule,
-      Map<String, List<ScheduleGap>> available,
-      Map<String, Map<String, Double>> computationMatrix,
-      Map<String, Map<String, Long>> networkMatrix) {
-    var parentsInfo = findTaskCommunications(task, host, schedule, networkMatrix);
-    var taskCommunications = parentsInfo.taskCommunications();
-    Double diskReadStaging =
-        networkMatrix.get(task.getName()).get(task.getName()) / host.getDiskSpeed().doubleValue();
-    Double diskWrite = task.getOutput().getSizeInBits() / host.getDiskSpeed().doubleValue();
-
-    // We need to find the first available schedule where we can execute the full task and the ast
-    // will be after the eft of the parents.
-
-    double taskTime =
-        diskReadStaging
-            + diskWrite
-            + computationMatrix.get(task.getName()).get(host.getName())
-            + taskCommunications;
-
-    var availableHostGaps =
-        available.getOrDefault(host.getName(), List.of(new ScheduleGap(0D, Double.MAX_VALUE)));
-
-    Double ast = null;
-    double maxEst = parentsInfo.maxEst();
-
-    for (ScheduleGap gap : availableHostGaps) {
-      if (gap.start() >= maxEst && taskTime <= (gap.end() - gap.start())) {
-        if (ast == null || gap.start() < ast) {
-          ast = gap.start();
-        }
-      }
-    }
-
-    // Use default value if no matching gap is found
-    if (ast == null) {
-      ast = parentsInfo.maxEst();
-    }
-
-    Double eft = ast + taskTime;
-
-    return new TaskCosts(diskReadStaging, diskWrite, eft, taskCommunications, ast);
-  }
-
   /**
    * Find the time it takes to transfer all information between the task and it's parents.
    *
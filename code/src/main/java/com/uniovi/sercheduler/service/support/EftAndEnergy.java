@@ -1,3 +0,0 @@
-package com.uniovi.sercheduler.service.support;
-
-public record EftAndEnergy(Double eft, Double energy) {}
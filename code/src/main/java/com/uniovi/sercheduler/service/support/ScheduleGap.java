@@ -1,3 +0,0 @@
-package com.uniovi.sercheduler.service.support;
-
-public record ScheduleGap(Double start, Double end) {}
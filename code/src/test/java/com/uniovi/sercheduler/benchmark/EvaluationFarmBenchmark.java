@@ -0,0 +1,169 @@
+package com.uniovi.sercheduler.benchmark;
+
+import com.uniovi.sercheduler.dao.Objective;
+import com.uniovi.sercheduler.jmetal.evaluation.MultiThreadedEvaluation;
+import com.uniovi.sercheduler.jmetal.evaluation.farm.FarmEvaluation;
+import com.uniovi.sercheduler.jmetal.evaluation.farm.FarmWorker;
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Compares the populations of a large workflow evaluated per second in this JVM and in two worker
+ * processes on localhost, with the same total threads.
+ *
+ * <p>Run it with: {@code java -cp <test-classpath> org.openjdk.jmh.Main EvaluationFarmBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvaluationFarmBenchmark {
+
+  private static final int POPULATION_SIZE = 128;
+  private static final int WORKERS = 2;
+
+  @Param({"simple", "multi"})
+  String fitness;
+
+  @Param({"4"})
+  int threads;
+
+  private SchedulingProblem problem;
+  private List<SchedulePermutationSolution> solutions;
+  private MultiThreadedEvaluation<SchedulePermutationSolution> local;
+  private FarmEvaluation farm;
+  private final List<Process> workers = new ArrayList<>();
+
+  /**
+   * Loads the instance and starts the worker processes.
+   *
+   * @throws IOException If a worker can't start.
+   */
+  @Setup
+  public void setUp() throws IOException {
+    var objectives = List.of(Objective.MAKESPAN, Objective.ENERGY);
+    problem =
+        new SchedulingProblem(
+            "benchmark",
+            new ClassPathResource("soykb.json").getFile(),
+            new ClassPathResource("hosts_test.json").getFile(),
+            "441Gf",
+            fitness,
+            1L,
+            objectives,
+            "makespan",
+            POPULATION_SIZE);
+
+    local = new MultiThreadedEvaluation<>(threads, problem);
+
+    var addresses = new ArrayList<InetSocketAddress>();
+    for (int i = 0; i < WORKERS; i++) {
+      addresses.add(new InetSocketAddress("localhost", startWorker(threads / WORKERS)));
+    }
+    farm = new FarmEvaluation(problem, addresses, 16, 2);
+  }
+
+  /** Generates a new population, a solution already decoded is evaluated much faster. */
+  @Setup(Level.Invocation)
+  public void generatePopulation() {
+    solutions = new ArrayList<>(POPULATION_SIZE);
+    for (int i = 0; i < POPULATION_SIZE; i++) {
+      solutions.add(problem.createSolution());
+    }
+  }
+
+  private int startWorker(int workerThreads) throws IOException {
+    var java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    var process =
+        new ProcessBuilder(
+                java,
+                "-cp",
+                System.getProperty("java.class.path"),
+                FarmWorker.class.getName(),
+                "0",
+                String.valueOf(workerThreads))
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+    workers.add(process);
+
+    // The worker prints its port once it's listening.
+    var reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.startsWith("Farm worker listening on ")) {
+        drain(reader);
+        return Integer.parseInt(line.substring("Farm worker listening on ".length()).trim());
+      }
+    }
+    throw new IOException("The worker stopped before listening");
+  }
+
+  /** Reads the rest of the output of a worker, so it doesn't block when the pipe is full. */
+  private static void drain(BufferedReader reader) {
+    var thread =
+        new Thread(
+            () -> {
+              try {
+                while (reader.readLine() != null) {
+                  // Only the port matters.
+                }
+              } catch (IOException e) {
+                // The worker stopped.
+              }
+            });
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /** Stops the evaluations and the worker processes. */
+  @TearDown
+  public void tearDown() {
+    local.close();
+    farm.close();
+    workers.forEach(Process::destroy);
+  }
+
+  /**
+   * Evaluates the population with the threads of this JVM.
+   *
+   * @return The population, so the evaluation is not removed.
+   */
+  @Benchmark
+  public List<SchedulePermutationSolution> singleJvm() {
+    return local.evaluate(solutions);
+  }
+
+  /**
+   * Evaluates the population in the worker processes.
+   *
+   * @return The population, so the evaluation is not removed.
+   */
+  @Benchmark
+  public List<SchedulePermutationSolution> farm() {
+    return farm.evaluate(solutions);
+  }
+}
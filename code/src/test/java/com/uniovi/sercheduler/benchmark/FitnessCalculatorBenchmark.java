@@ -0,0 +1,72 @@
+package com.uniovi.sercheduler.benchmark;
+
+import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
+
+import com.uniovi.sercheduler.dao.Objective;
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.service.PlanGenerator;
+import com.uniovi.sercheduler.service.calculator.FitnessCalculator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of evaluating a plan with each fitness calculator.
+ *
+ * <p>Run it with the gc profiler to check the allocations per evaluation: {@code java -cp
+ * <test-classpath> org.openjdk.jmh.Main FitnessCalculatorBenchmark -prof gc}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FitnessCalculatorBenchmark {
+
+  @Param({"simple", "heft", "min-energy-UM-active", "fvlt-me-active", "multi"})
+  String fitness;
+
+  private FitnessCalculator fitnessCalculator;
+  private List<SchedulePermutationSolution> solutions;
+  private int next;
+
+  /** Loads the instance and generates the plans to evaluate. */
+  @Setup
+  public void setUp() {
+    var instanceData = loadFitnessTest();
+    var planGenerator = new PlanGenerator(new Random(1), instanceData);
+
+    fitnessCalculator = FitnessCalculator.getFitness(fitness, instanceData, new ArrayList<>());
+    solutions = new ArrayList<>();
+    for (int i = 0; i < 64; i++) {
+      var plan = planGenerator.generatePlan();
+      solutions.add(
+          new SchedulePermutationSolution(
+              plan.size(), 2, null, plan, Objective.MAKESPAN.objectiveName));
+    }
+  }
+
+  /**
+   * Evaluates the next plan, without building the ordered schedule.
+   *
+   * @return The makespan, so the evaluation is not removed.
+   */
+  @Benchmark
+  public double evaluate() {
+    var solution = solutions.get(next++ & 63);
+    return fitnessCalculator.calculateFitness(solution).fitness().get("makespan");
+  }
+}
@@ -0,0 +1,61 @@
+package com.uniovi.sercheduler.jmetal.algorithm;
+
+import com.uniovi.sercheduler.jmetal.operator.ScheduleMutation;
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.uma.jmetal.component.catalogue.common.solutionscreation.SolutionsCreation;
+import org.uma.jmetal.component.catalogue.ea.replacement.Replacement;
+import org.uma.jmetal.component.catalogue.ea.variation.Variation;
+
+/** Components shared by the tests of the evolutionary algorithms. */
+final class EvolutionTestFixtures {
+
+  private EvolutionTestFixtures() {}
+
+  /** Creates populations of random solutions of the problem. */
+  static SolutionsCreation<SchedulePermutationSolution> randomPopulation(
+      SchedulingProblem problem, int size) {
+    return () -> {
+      var population = new ArrayList<SchedulePermutationSolution>();
+      for (int i = 0; i < size; i++) {
+        population.add(problem.createSolution());
+      }
+      return population;
+    };
+  }
+
+  /** Keeps the solutions with the lowest first objective among the population and offspring. */
+  static Replacement<SchedulePermutationSolution> bestFirstObjective(int size) {
+    return (population, offspring) -> {
+      var merged = new ArrayList<>(population);
+      merged.addAll(offspring);
+      merged.sort(Comparator.comparingDouble(s -> s.objectives()[0]));
+      return new ArrayList<>(merged.subList(0, size));
+    };
+  }
+
+  /** Mutates every solution of a mating pool of the given size. */
+  record MutationVariation(ScheduleMutation mutation, int size)
+      implements Variation<SchedulePermutationSolution> {
+
+    @Override
+    public List<SchedulePermutationSolution> variate(
+        List<SchedulePermutationSolution> population,
+        List<SchedulePermutationSolution> matingPopulation) {
+      return matingPopulation.stream().map(mutation::execute).toList();
+    }
+
+    @Override
+    public int getMatingPoolSize() {
+      return size;
+    }
+
+    @Override
+    public int getOffspringPopulationSize() {
+      return size;
+    }
+  }
+}
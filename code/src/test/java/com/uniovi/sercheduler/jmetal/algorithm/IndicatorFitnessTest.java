@@ -0,0 +1,54 @@
+package com.uniovi.sercheduler.jmetal.algorithm;
+
+import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.uniovi.sercheduler.dao.Objective;
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.uma.jmetal.algorithm.multiobjective.ibea.IBEA;
+import org.uma.jmetal.util.solutionattribute.impl.Fitness;
+
+class IndicatorFitnessTest {
+
+  @Test
+  void selectsLikeIbea() {
+    var objectives = List.of(Objective.MAKESPAN, Objective.ENERGY);
+    var problem =
+        new SchedulingProblem("test", "simple", 1L, loadFitnessTest(), objectives, "makespan", 10);
+    var fitness = new Fitness<SchedulePermutationSolution>();
+    var indicatorFitness = new IndicatorFitness<>(2, fitness);
+    var ibea = new IBEA<>(problem, 20, 20, 100, null, null, null);
+
+    for (int size : List.of(60, 45, 20, 5)) {
+      var union = new ArrayList<SchedulePermutationSolution>();
+      for (int i = 0; i < size; i++) {
+        union.add(problem.evaluate(problem.createSolution()));
+      }
+      // Repeated solutions tie in fitness.
+      union.add(problem.evaluate((SchedulePermutationSolution) union.get(0).copy()));
+
+      var expected = new ArrayList<>(union);
+      ibea.calculateFitness(expected);
+      var expectedFitness = new ArrayList<Double>();
+      while (expected.size() > 20) {
+        ibea.removeWorst(expected);
+      }
+      for (var solution : expected) {
+        expectedFitness.add(fitness.getAttribute(solution));
+      }
+
+      var selected = indicatorFitness.select(union, 20);
+
+      assertEquals(expected.size(), selected.size());
+      for (int i = 0; i < expected.size(); i++) {
+        assertSame(expected.get(i), selected.get(i));
+        assertEquals(expectedFitness.get(i), fitness.getAttribute(selected.get(i)));
+      }
+    }
+  }
+}
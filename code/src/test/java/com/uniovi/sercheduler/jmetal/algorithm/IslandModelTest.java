@@ -0,0 +1,112 @@
+package com.uniovi.sercheduler.jmetal.algorithm;
+
+import static com.uniovi.sercheduler.jmetal.algorithm.EvolutionTestFixtures.bestFirstObjective;
+import static com.uniovi.sercheduler.jmetal.algorithm.EvolutionTestFixtures.randomPopulation;
+import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.uniovi.sercheduler.dao.Objective;
+import com.uniovi.sercheduler.dto.InstanceData;
+import com.uniovi.sercheduler.jmetal.algorithm.EvolutionTestFixtures.MutationVariation;
+import com.uniovi.sercheduler.jmetal.evaluation.SequentialEvaluationMulti;
+import com.uniovi.sercheduler.jmetal.operator.ScheduleMutation;
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
+import com.uniovi.sercheduler.service.Operators;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.uma.jmetal.util.comparator.dominanceComparator.impl.DefaultDominanceComparator;
+
+class IslandModelTest {
+
+  private static final int POPULATION_SIZE = 10;
+
+  @Test
+  void islandsExchangeSolutionsAndMergeTheirFronts() {
+    var instanceData = loadFitnessTest();
+    var objectives = List.of(Objective.MAKESPAN, Objective.ENERGY);
+    var problem =
+        new SchedulingProblem("test", "multi", 1L, instanceData, objectives, "makespan", 10);
+
+    var islands = new ArrayList<MultiEvolutionaryAlgorithm>();
+    for (int i = 0; i < 3; i++) {
+      islands.add(island(problem, instanceData, i));
+    }
+    var model =
+        new IslandModel(
+            "islands", islands, IslandModel.Topology.RING, 2, 2, IslandModel.Policy.BEST, 1L);
+
+    model.run();
+
+    // Each island sends 2 solutions every 2 of its 10 generations.
+    assertEquals(3 * 5 * 2, model.getMigrated());
+    for (var island : islands) {
+      assertEquals(POPULATION_SIZE, island.result().size());
+    }
+
+    var result = model.result();
+    assertFalse(result.isEmpty());
+    var dominance = new DefaultDominanceComparator<SchedulePermutationSolution>();
+    for (var a : result) {
+      for (var b : result) {
+        assertTrue(dominance.compare(a, b) >= 0 || a == b);
+      }
+    }
+  }
+
+  @Test
+  void generationsOfTheIslandsAreMerged() {
+    var instanceData = loadFitnessTest();
+    var objectives = List.of(Objective.MAKESPAN, Objective.ENERGY);
+    var problem =
+        new SchedulingProblem("test", "multi", 1L, instanceData, objectives, "makespan", 10);
+
+    var islands = new ArrayList<MultiEvolutionaryAlgorithm>();
+    for (int i = 0; i < 3; i++) {
+      islands.add(island(problem, instanceData, i));
+    }
+    var model =
+        new IslandModel(
+            "islands", islands, IslandModel.Topology.RING, 2, 2, IslandModel.Policy.BEST, 1L);
+
+    model.run();
+
+    var history = model.getGenerationsHistory();
+    assertEquals(islands.get(0).getGenerationsHistory().size(), history.size());
+    for (int generation = 0; generation < history.size(); generation++) {
+      var info = history.get(generation);
+      double makespan = 0;
+      int size = 0;
+      int simpleMakespan = 0;
+      for (var island : islands) {
+        var islandInfo = island.getGenerationsHistory().get(generation);
+        int islandSize = islandInfo.objectiveEnergyCount() + islandInfo.objectiveMakespanCount();
+        makespan += islandInfo.makespan() * islandSize;
+        size += islandSize;
+        simpleMakespan += islandInfo.simpleMakespanCount();
+      }
+      assertEquals(size, info.objectiveEnergyCount() + info.objectiveMakespanCount());
+      assertEquals(makespan / size, info.makespan(), 1e-9);
+      assertEquals(simpleMakespan, info.simpleMakespanCount());
+    }
+  }
+
+  private static MultiEvolutionaryAlgorithm island(
+      SchedulingProblem problem, InstanceData instanceData, int seed) {
+    var mutation = new ScheduleMutation(1, new Operators(instanceData, new Random(seed)));
+    var evaluation = new SequentialEvaluationMulti(1, problem, "energy");
+    return new MultiEvolutionaryAlgorithm(
+        "island-" + seed,
+        randomPopulation(problem, POPULATION_SIZE),
+        evaluation,
+        // Every generation counts twice its offspring, 10 generations.
+        attributes -> (int) attributes.get("EVALUATIONS") >= POPULATION_SIZE * 21,
+        population -> population.subList(0, POPULATION_SIZE),
+        new MutationVariation(mutation, POPULATION_SIZE),
+        bestFirstObjective(POPULATION_SIZE));
+  }
+}
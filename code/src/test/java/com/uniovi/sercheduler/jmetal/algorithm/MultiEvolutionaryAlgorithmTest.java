@@ -0,0 +1,113 @@
+package com.uniovi.sercheduler.jmetal.algorithm;
+
+import static com.uniovi.sercheduler.jmetal.algorithm.EvolutionTestFixtures.bestFirstObjective;
+import static com.uniovi.sercheduler.jmetal.algorithm.EvolutionTestFixtures.randomPopulation;
+import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.uniovi.sercheduler.dao.Objective;
+import com.uniovi.sercheduler.jmetal.algorithm.EvolutionTestFixtures.MutationVariation;
+import com.uniovi.sercheduler.jmetal.evaluation.SequentialEvaluationMulti;
+import com.uniovi.sercheduler.jmetal.operator.ScheduleMutation;
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
+import com.uniovi.sercheduler.service.Operators;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.uma.jmetal.component.catalogue.common.evaluation.Evaluation;
+import org.uma.jmetal.problem.Problem;
+
+class MultiEvolutionaryAlgorithmTest {
+
+  @Test
+  void steadyStateKeepsTheEvaluationsInFlightBounded() {
+    var instanceData = loadFitnessTest();
+    var objectives = List.of(Objective.MAKESPAN, Objective.ENERGY);
+    var problem =
+        new SchedulingProblem("test", "multi", 1L, instanceData, objectives, "makespan", 10);
+    var mutation = new ScheduleMutation(1, new Operators(instanceData, new Random(1L)));
+
+    int populationSize = 10;
+    // The pool of the steady state has a thread per processor, up to the evaluations in flight.
+    int parallelism = Math.min(3, Runtime.getRuntime().availableProcessors());
+    var inFlight = new AtomicInteger();
+    var maxInFlight = new AtomicInteger();
+    var evaluation = new CountingEvaluation(problem, parallelism, inFlight, maxInFlight);
+
+    var algorithm =
+        new MultiEvolutionaryAlgorithm(
+            "steady",
+            randomPopulation(problem, populationSize),
+            evaluation,
+            attributes -> (int) attributes.get("EVALUATIONS") >= 200,
+            population -> List.of(population.get(0)),
+            new MutationVariation(mutation, 1),
+            bestFirstObjective(populationSize));
+    algorithm.evaluationsInFlight(3);
+
+    algorithm.run();
+
+    assertEquals(populationSize, algorithm.result().size());
+    assertTrue(algorithm.numberOfEvaluations() >= 200);
+    assertTrue(maxInFlight.get() <= 3);
+    assertEquals(parallelism, maxInFlight.get());
+    assertTrue(algorithm.getGenerationsHistory().size() > 1);
+  }
+
+  /**
+   * Multi evaluation that records how many evaluations run at the same time. The first offspring
+   * wait until as many of them as the expected parallelism are being evaluated, so a sequential
+   * evaluation doesn't reach it.
+   */
+  private static final class CountingEvaluation implements Evaluation<SchedulePermutationSolution> {
+
+    private final SequentialEvaluationMulti evaluation;
+    private final AtomicInteger inFlight;
+    private final AtomicInteger maxInFlight;
+    private final CountDownLatch overlap;
+
+    CountingEvaluation(
+        SchedulingProblem problem,
+        int parallelism,
+        AtomicInteger inFlight,
+        AtomicInteger maxInFlight) {
+      this.evaluation = new SequentialEvaluationMulti(1, problem, "energy");
+      this.overlap = new CountDownLatch(parallelism);
+      this.inFlight = inFlight;
+      this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public List<SchedulePermutationSolution> evaluate(List<SchedulePermutationSolution> list) {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        // The initial population is evaluated alone, only the offspring overlap.
+        if (list.size() == 1) {
+          overlap.countDown();
+          overlap.await(10, TimeUnit.SECONDS);
+        }
+        return evaluation.evaluate(list);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    }
+
+    @Override
+    public int computedEvaluations() {
+      return evaluation.computedEvaluations();
+    }
+
+    @Override
+    public Problem<SchedulePermutationSolution> problem() {
+      return evaluation.problem();
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.uniovi.sercheduler.jmetal.algorithm;
+
+import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.uniovi.sercheduler.dao.Objective;
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SeededSolutionsCreationTest {
+
+  @Test
+  void populationOnlyDependsOnTheSeed() {
+    var objectives = List.of(Objective.MAKESPAN, Objective.ENERGY);
+    var problem =
+        new SchedulingProblem("test", "multi", 1L, loadFitnessTest(), objectives, "makespan", 10);
+
+    var expected = plans(new SeededSolutionsCreation(problem, 10, 7L).create());
+    problem.createSolution();
+    var solutions = new SeededSolutionsCreation(problem, 10, 7L).create();
+
+    assertEquals(10, solutions.size());
+    assertEquals(expected, plans(solutions));
+  }
+
+  private static List<List<?>> plans(List<SchedulePermutationSolution> solutions) {
+    return solutions.stream().<List<?>>map(s -> List.copyOf(s.getPlan())).toList();
+  }
+}
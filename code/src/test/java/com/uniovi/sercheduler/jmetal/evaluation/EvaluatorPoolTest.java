@@ -0,0 +1,76 @@
+package com.uniovi.sercheduler.jmetal.evaluation;
+
+import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.uniovi.sercheduler.dao.Objective;
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class EvaluatorPoolTest {
+
+  @Test
+  void poolIsSharedUntilTheLastRelease() {
+    var first = EvaluatorPool.acquire(3);
+    var second = EvaluatorPool.acquire(3);
+    assertSame(first, second);
+
+    first.release();
+    second.release();
+    assertThrows(IllegalStateException.class, second::release);
+
+    var third = EvaluatorPool.acquire(3);
+    assertNotSame(first, third);
+    third.release();
+  }
+
+  @Test
+  void everyElementIsEvaluatedOnce() {
+    var pool = EvaluatorPool.acquire(2);
+    try {
+      var elements = IntStream.range(0, 101).boxed().toList();
+      var counts = new int[elements.size()];
+      pool.evaluate(elements, i -> counts[i]++);
+
+      for (int count : counts) {
+        assertEquals(1, count);
+      }
+      assertTrue(pool.getChunks() > 1);
+      assertTrue(pool.getBusyNanos() > 0);
+    } finally {
+      pool.release();
+    }
+  }
+
+  @Test
+  void evaluationMatchesSequentialRun() {
+    var instanceData = loadFitnessTest();
+    var objectives = List.of(Objective.MAKESPAN, Objective.ENERGY);
+    var problem =
+        new SchedulingProblem("test", "simple", 1L, instanceData, objectives, "makespan", 10);
+    var solutions = new ArrayList<SchedulePermutationSolution>();
+    for (int i = 0; i < 20; i++) {
+      solutions.add(problem.createSolution());
+    }
+    var expected =
+        solutions.stream()
+            .map(s -> problem.evaluate((SchedulePermutationSolution) s.copy()).objectives()[0])
+            .toList();
+
+    var evaluation = new MultiThreadedEvaluation<>(2, problem);
+    evaluation.evaluate(solutions);
+    evaluation.close();
+
+    assertEquals(expected, solutions.stream().map(s -> s.objectives()[0]).toList());
+    assertNull(evaluation.getPool());
+  }
+}
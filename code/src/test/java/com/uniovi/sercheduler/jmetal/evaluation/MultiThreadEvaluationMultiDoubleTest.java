@@ -0,0 +1,47 @@
+package com.uniovi.sercheduler.jmetal.evaluation;
+
+import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.uniovi.sercheduler.dao.Objective;
+import com.uniovi.sercheduler.jmetal.problem.SchedulingDoubleProblem;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.uma.jmetal.solution.doublesolution.DoubleSolution;
+
+class MultiThreadEvaluationMultiDoubleTest {
+
+  @Test
+  void evaluationMatchesSequentialRun() {
+    var objectives = List.of(Objective.ENERGY, Objective.MAKESPAN);
+    var problem =
+        new SchedulingDoubleProblem(
+            "test", "simple", 1L, loadFitnessTest(), objectives, "energy", 10);
+    var solutions = new ArrayList<DoubleSolution>();
+    var copies = new ArrayList<DoubleSolution>();
+    for (int i = 0; i < 30; i++) {
+      var solution = problem.createSolution();
+      solutions.add(solution);
+      copies.add((DoubleSolution) solution.copy());
+    }
+
+    var expected = new SequentialEvaluationMultiDouble(1, problem, "makespan").evaluate(copies);
+    var evaluation = new MultiThreadEvaluationMultiDouble(3, problem, "makespan");
+    var evaluated = evaluation.evaluate(solutions);
+    evaluation.close();
+
+    assertEquals(expected.size(), evaluated.size());
+    assertEquals(expected.size(), evaluation.computedEvaluations());
+    for (int i = 0; i < expected.size(); i++) {
+      var solution = evaluated.get(i);
+      var arbiter = expected.get(i).attributes().get("arbiter");
+      assertEquals(arbiter, solution.attributes().get("arbiter"));
+      assertArrayEquals(expected.get(i).objectives(), solution.objectives());
+      assertEquals(expected.get(i).variables(), solution.variables());
+    }
+    assertNull(evaluation.getPool());
+  }
+}
@@ -0,0 +1,66 @@
+package com.uniovi.sercheduler.jmetal.evaluation;
+
+import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.uniovi.sercheduler.dao.Objective;
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SequentialEvaluationMultiTest {
+
+  @Test
+  void evaluationMatchesEvaluatingCopies() {
+    for (var fitness : List.of("multi", "simple", "heft")) {
+      evaluationMatchesEvaluatingCopies(fitness);
+    }
+  }
+
+  private static void evaluationMatchesEvaluatingCopies(String fitness) {
+    var objectives = List.of(Objective.MAKESPAN, Objective.ENERGY);
+    var problem =
+        new SchedulingProblem("test", fitness, 1L, loadFitnessTest(), objectives, "makespan", 10);
+    var solutions = new ArrayList<SchedulePermutationSolution>();
+    var parallelSolutions = new ArrayList<SchedulePermutationSolution>();
+    var expected = new ArrayList<SchedulePermutationSolution>();
+    for (int i = 0; i < 30; i++) {
+      var solution = problem.createSolution();
+      solutions.add(solution);
+      parallelSolutions.add((SchedulePermutationSolution) solution.copy());
+      var original = (SchedulePermutationSolution) solution.copy();
+      var alternative = (SchedulePermutationSolution) original.copy();
+      alternative.setArbiter("energy");
+      expected.add(problem.evaluate(original));
+      expected.add(problem.evaluate(alternative));
+    }
+
+    var sequential = new SequentialEvaluationMulti(1, problem, "energy");
+    var parallel = new MultiThreadEvaluationMulti(3, problem, "energy");
+    var evaluated = sequential.evaluate(solutions);
+    var parallelEvaluated = parallel.evaluate(parallelSolutions);
+    parallel.close();
+
+    assertEquals(expected.size(), sequential.computedEvaluations());
+    assertEquals(expected.size(), parallel.computedEvaluations());
+    assertSameEvaluations(expected, evaluated);
+    assertSameEvaluations(expected, parallelEvaluated);
+  }
+
+  private static void assertSameEvaluations(
+      List<SchedulePermutationSolution> expected, List<SchedulePermutationSolution> evaluated) {
+    assertEquals(expected.size(), evaluated.size());
+    for (int i = 0; i < expected.size(); i++) {
+      var solution = evaluated.get(i);
+      assertEquals(expected.get(i).getArbiter(), solution.getArbiter());
+      assertArrayEquals(expected.get(i).objectives(), solution.objectives());
+      assertEquals(List.copyOf(expected.get(i).getPlan()), List.copyOf(solution.getPlan()));
+      assertEquals(
+          expected.get(i).getFitnessInfo().fitnessFunction(),
+          solution.getFitnessInfo().fitnessFunction());
+    }
+  }
+}
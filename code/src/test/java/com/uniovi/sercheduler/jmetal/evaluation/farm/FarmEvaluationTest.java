@@ -0,0 +1,186 @@
+package com.uniovi.sercheduler.jmetal.evaluation.farm;
+
+import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.uniovi.sercheduler.dao.Objective;
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
+import com.uniovi.sercheduler.service.core.InstancePrecomputation;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class FarmEvaluationTest {
+
+  @Test
+  void workersEvaluateLikeTheProblem() throws Exception {
+    for (var fitness : List.of("simple", "multi", "heft")) {
+      var problem = problem(fitness);
+      var solutions = solutions(problem, 30);
+      var expected = evaluateLocally(problem, solutions);
+
+      try (var first = new FarmWorker(0, 2);
+          var second = new FarmWorker(0, 2);
+          var evaluation = new FarmEvaluation(problem, addresses(first, second), 4, 2)) {
+        evaluation.evaluate(solutions);
+
+        assertEquals(0, evaluation.getLocalBatches());
+        assertEquals(8, evaluation.getRemoteBatches());
+      }
+      assertEvaluated(expected, solutions);
+    }
+  }
+
+  @Test
+  void batchesOfAStoppedWorkerAreEvaluatedElsewhere() throws Exception {
+    var problem = problem("simple");
+    // The workers are stopped in the middle of the test, so they aren't resources of the try.
+    var first = new FarmWorker(0, 1);
+    var second = new FarmWorker(0, 1);
+    try (var evaluation = new FarmEvaluation(problem, addresses(first, second), 2, 3)) {
+      var solutions = solutions(problem, 20);
+      var expected = evaluateLocally(problem, solutions);
+      evaluation.evaluate(solutions);
+      assertEvaluated(expected, solutions);
+
+      first.close();
+      solutions = solutions(problem, 20);
+      expected = evaluateLocally(problem, solutions);
+      evaluation.evaluate(solutions);
+      assertEvaluated(expected, solutions);
+
+      second.close();
+      solutions = solutions(problem, 20);
+      expected = evaluateLocally(problem, solutions);
+      evaluation.evaluate(solutions);
+      assertEvaluated(expected, solutions);
+      assertTrue(evaluation.getLocalBatches() > 0);
+    } finally {
+      first.close();
+      second.close();
+    }
+  }
+
+  @Test
+  @Timeout(60)
+  void batchesOfASilentWorkerAreEvaluatedElsewhere() throws Exception {
+    var problem = problem("simple");
+    try (var worker = new SilentWorker();
+        var evaluation =
+            new FarmEvaluation(
+                problem,
+                List.of(new InetSocketAddress("localhost", worker.getPort())),
+                2,
+                3,
+                200)) {
+      // The worker is ready once the evaluation is built, so it takes the first batches.
+      assertEquals(1, evaluation.getConnectedWorkers());
+      var solutions = solutions(problem, 20);
+      var expected = evaluateLocally(problem, solutions);
+      evaluation.evaluate(solutions);
+
+      assertEvaluated(expected, solutions);
+      assertEquals(0, evaluation.getRemoteBatches());
+      assertEquals(10, evaluation.getLocalBatches());
+      assertTrue(evaluation.getFailures() > 0);
+    }
+  }
+
+  private static SchedulingProblem problem(String fitness) {
+    var objectives = List.of(Objective.MAKESPAN, Objective.ENERGY);
+    return new SchedulingProblem(
+        "test", fitness, 1L, loadFitnessTest(), objectives, "makespan", 10);
+  }
+
+  private static List<SchedulePermutationSolution> solutions(SchedulingProblem problem, int count) {
+    var solutions = new ArrayList<SchedulePermutationSolution>();
+    for (int i = 0; i < count; i++) {
+      solutions.add(problem.createSolution());
+    }
+    return solutions;
+  }
+
+  private static List<SchedulePermutationSolution> evaluateLocally(
+      SchedulingProblem problem, List<SchedulePermutationSolution> solutions) {
+    return solutions.stream()
+        .map(s -> problem.evaluate((SchedulePermutationSolution) s.copy()))
+        .toList();
+  }
+
+  private static void assertEvaluated(
+      List<SchedulePermutationSolution> expected, List<SchedulePermutationSolution> solutions) {
+    for (int i = 0; i < expected.size(); i++) {
+      var solution = solutions.get(i);
+      assertArrayEquals(expected.get(i).objectives(), solution.objectives());
+      assertEquals(expected.get(i).getPlan(), solution.getPlan());
+      assertEquals(
+          expected.get(i).getFitnessInfo().schedule(), solution.getFitnessInfo().schedule());
+      assertEquals(expected.get(i).getMultiResult(), solution.getMultiResult());
+    }
+  }
+
+  /** Accepts connections and gets ready like a worker, but never answers a batch. */
+  private static final class SilentWorker implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+    private final Thread acceptor;
+
+    SilentWorker() throws IOException {
+      serverSocket = new ServerSocket(0);
+      acceptor = new Thread(this::accept, "silent-worker");
+      acceptor.setDaemon(true);
+      acceptor.start();
+    }
+
+    private void accept() {
+      while (!serverSocket.isClosed()) {
+        try {
+          var socket = serverSocket.accept();
+          sockets.add(socket);
+          var in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+          var out = new DataOutputStream(socket.getOutputStream());
+          var problem = FarmProtocol.readSetup(in);
+          var instance =
+              InstancePrecomputation.of(problem.getInstanceData()).getCompiledInstance();
+          FarmProtocol.writeReady(out, instance);
+          out.flush();
+        } catch (IOException e) {
+          // Closed, or the master gave up on the connection.
+        }
+      }
+    }
+
+    int getPort() {
+      return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+      serverSocket.close();
+      for (var socket : sockets) {
+        socket.close();
+      }
+    }
+  }
+
+  private static List<InetSocketAddress> addresses(FarmWorker... workers) {
+    var addresses = new ArrayList<InetSocketAddress>();
+    for (var worker : workers) {
+      addresses.add(new InetSocketAddress("localhost", worker.getPort()));
+    }
+    return addresses;
+  }
+}
@@ -0,0 +1,115 @@
+package com.uniovi.sercheduler.jmetal.problem;
+
+import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.uniovi.sercheduler.dao.Objective;
+import com.uniovi.sercheduler.service.FitnessInfo;
+import com.uniovi.sercheduler.service.PlanGenerator;
+import com.uniovi.sercheduler.service.PlanHash;
+import com.uniovi.sercheduler.service.core.CompactPlan;
+import com.uniovi.sercheduler.service.core.InstancePrecomputation;
+import com.uniovi.sercheduler.service.core.PlanArrayPool;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class FitnessCacheTest {
+
+  @Test
+  void repeatedPlansAreNotEvaluatedAgain() {
+    var instanceData = loadFitnessTest();
+    var objectives = List.of(Objective.MAKESPAN, Objective.ENERGY);
+    var problem =
+        new SchedulingProblem("test", "multi", 1L, instanceData, objectives, "makespan", 10);
+    var cache = new FitnessCache(10);
+    problem.setFitnessCache(cache);
+
+    var plan = new PlanGenerator(new Random(1L), instanceData).generatePlan();
+
+    var first = problem.evaluate(new SchedulePermutationSolution(1, 2, null, plan, "makespan"));
+    var second = problem.evaluate(new SchedulePermutationSolution(1, 2, null, plan, "makespan"));
+    var otherArbiter =
+        problem.evaluate(new SchedulePermutationSolution(1, 2, null, plan, "energy"));
+
+    assertSame(first.getFitnessInfo(), second.getFitnessInfo());
+    assertEquals(first.getPlan(), second.getPlan());
+    assertEquals(first.getMultiResult(), second.getMultiResult());
+    assertEquals(first.objectives()[0], second.objectives()[0]);
+    assertEquals("energy", otherArbiter.getMultiResult().objective());
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+  }
+
+  @Test
+  void leastRecentlyUsedIsEvicted() {
+    var instanceData = loadFitnessTest();
+    var planGenerator = new PlanGenerator(new Random(1L), instanceData);
+    var cache = new FitnessCache(2);
+
+    var plan1 = planGenerator.generatePlan();
+    var plan2 = planGenerator.generatePlan();
+    var plan3 = planGenerator.generatePlan();
+
+    cache.put(plan1, PlanHash.of(plan1), "makespan", null, null);
+    cache.put(plan2, PlanHash.of(plan2), "makespan", null, null);
+    cache.get(plan1, PlanHash.of(plan1), "makespan");
+    cache.put(plan3, PlanHash.of(plan3), "makespan", null, null);
+
+    assertEquals(2, cache.size());
+    assertNull(cache.get(plan2, PlanHash.of(plan2), "makespan"));
+    assertEquals(plan1, cache.get(plan1, PlanHash.of(plan1), "makespan").plan());
+  }
+
+  @Test
+  void concurrentLookupsNeverSeeRecycledPlans() throws Exception {
+    var instanceData = loadFitnessTest();
+    var instance = InstancePrecomputation.of(instanceData).getCompiledInstance();
+    var planGenerator = new PlanGenerator(new Random(1L), instanceData);
+    var plan = CompactPlan.of(instance, planGenerator.generatePlan());
+    var fitnessInfo = new FitnessInfo(Map.of("makespan", 1D), List.of(), "simple");
+
+    // The stored copies of the plan keep replacing each other, and the pool recycles the arrays of
+    // the replaced ones into the next copies. A lookup always has an equal plan to find.
+    var arrays = new PlanArrayPool(instance, 4);
+    var cache = new FitnessCache(1);
+    cache.put(plan, 0L, "makespan", fitnessInfo, null);
+    var executor = Executors.newFixedThreadPool(4);
+    try {
+      var tasks = new ArrayList<Callable<Void>>();
+      for (int t = 0; t < 2; t++) {
+        tasks.add(
+            () -> {
+              for (int i = 0; i < 100_000; i++) {
+                var stored = arrays.edit(plan).build();
+                cache.put(stored, 0L, "makespan", fitnessInfo, null);
+                stored.release();
+              }
+              return null;
+            });
+        tasks.add(
+            () -> {
+              for (int i = 0; i < 100_000; i++) {
+                assertSame(fitnessInfo, cache.get(plan, 0L, "makespan").fitnessInfo());
+              }
+              return null;
+            });
+      }
+      for (Future<Void> future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(1, cache.size());
+    assertEquals(200_000, cache.getHits());
+  }
+}
@@ -0,0 +1,65 @@
+package com.uniovi.sercheduler.jmetal.ranking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.uma.jmetal.solution.doublesolution.DoubleSolution;
+import org.uma.jmetal.solution.doublesolution.impl.DefaultDoubleSolution;
+import org.uma.jmetal.util.bounds.Bounds;
+import org.uma.jmetal.util.ranking.impl.FastNonDominatedSortRanking;
+
+class BiObjectiveRankingTest {
+
+  @Test
+  void sameFrontsAsFastNonDominatedSort() {
+    var random = new Random(1);
+    for (int round = 0; round < 50; round++) {
+      // Few different values, so there are ties and repeated solutions.
+      var solutions = solutions(random, 1 + random.nextInt(300), 2, 1 + random.nextInt(40));
+      solutions.get(0).objectives()[0] = Double.POSITIVE_INFINITY;
+      solutions.get(0).objectives()[1] = Double.POSITIVE_INFINITY;
+
+      assertSameFronts(solutions);
+    }
+  }
+
+  @Test
+  void otherNumbersOfObjectivesUseTheGeneralSort() {
+    var random = new Random(2);
+    assertSameFronts(solutions(random, 100, 3, 10));
+    assertSameFronts(solutions(random, 100, 1, 10));
+  }
+
+  private static void assertSameFronts(List<DoubleSolution> solutions) {
+    var expected = new FastNonDominatedSortRanking<DoubleSolution>().compute(solutions);
+    var ranking = new BiObjectiveRanking<DoubleSolution>().compute(solutions);
+
+    assertEquals(expected.getNumberOfSubFronts(), ranking.getNumberOfSubFronts());
+    for (var solution : solutions) {
+      assertEquals(expected.getRank(solution), ranking.getRank(solution));
+    }
+    // The order inside a front doesn't matter, only which solutions are in it.
+    for (int rank = 0; rank < expected.getNumberOfSubFronts(); rank++) {
+      assertEquals(expected.getSubFront(rank).size(), ranking.getSubFront(rank).size());
+      for (var solution : ranking.getSubFront(rank)) {
+        assertEquals(rank, ranking.getRank(solution));
+      }
+    }
+  }
+
+  private static List<DoubleSolution> solutions(
+      Random random, int size, int objectives, int values) {
+    var solutions = new ArrayList<DoubleSolution>();
+    for (int i = 0; i < size; i++) {
+      var solution = new DefaultDoubleSolution(List.of(Bounds.create(0.0, 1.0)), objectives, 0);
+      for (int j = 0; j < objectives; j++) {
+        solution.objectives()[j] = random.nextInt(values);
+      }
+      solutions.add(solution);
+    }
+    return solutions;
+  }
+}
@@ -3,11 +3,17 @@ package com.uniovi.sercheduler.service;
 import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadCalculatorTest;
 import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.uniovi.sercheduler.dto.Host;
 import com.uniovi.sercheduler.dto.InstanceData;
+import com.uniovi.sercheduler.jmetal.operator.ScheduleCrossover;
+import com.uniovi.sercheduler.jmetal.operator.ScheduleMutation;
 import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
 import com.uniovi.sercheduler.service.calculator.*;
+import com.uniovi.sercheduler.service.core.CompactPlan;
+import com.uniovi.sercheduler.service.core.DecodedSchedule;
+import com.uniovi.sercheduler.service.core.InstancePrecomputation;
 import com.uniovi.sercheduler.util.UnitParser;
 import java.io.IOException;
 import java.util.*;
@@ -131,10 +137,17 @@ public class FitnessCalculatorTest {
             new PlanPair(instanceData.workflow().get("task08"), instanceData.hosts().get("HostB")),
             new PlanPair(instanceData.workflow().get("task10"), instanceData.hosts().get("HostC")));
 
-    FitnessInfo result =
-        fitnessCalculator.calculateFitness(new SchedulePermutationSolution(1,2,null, plan, "makespan"));
+    var solution = new SchedulePermutationSolution(1, 2, null, plan, "makespan");
+    FitnessInfo result = fitnessCalculator.calculateFitness(solution);
 
     assertEquals(209D, result.fitness().get("makespan"));
+    // The ranked plan takes the tasks in the HEFT order and keeps the host of every position.
+    var ranking = InstancePrecomputation.of(instanceData).getHeftRankingTasks();
+    var ranked = solution.getPlan();
+    assertTrue(ranked instanceof CompactPlan);
+    for (int i = 0; i < plan.size(); i++) {
+      assertEquals(new PlanPair(ranking.get(i), plan.get(i).host()), ranked.get(i));
+    }
   }
 
   @Test
@@ -194,7 +207,120 @@ public class FitnessCalculatorTest {
     assertEquals(209D, result.fitness().get("makespan"));
   }
 
+  @Test
+  void CalculateFitnessMultiModesAgree() {
+
+    InstanceData instanceData = loadFitnessTest();
+    var planGenerator = new PlanGenerator(new Random(1), instanceData);
+
+    var modes = FitnessCalculatorMulti.ExecutionMode.values();
+    var calculators = new ArrayList<FitnessCalculator>();
+    for (var mode : modes) {
+      var calculator =
+          (FitnessCalculatorMulti)
+              FitnessCalculator.getFitness("multi", instanceData, new ArrayList<>());
+      calculators.add(calculator.setExecutionMode(mode));
+    }
+
+    for (int i = 0; i < 50; i++) {
+      var plan = planGenerator.generatePlan();
+      for (var arbiter : List.of("makespan", "energy")) {
+        var expected =
+            calculators
+                .get(0)
+                .calculateFitness(new SchedulePermutationSolution(1, 2, null, plan, arbiter));
+        for (int m = 1; m < modes.length; m++) {
+          var result =
+              calculators
+                  .get(m)
+                  .calculateFitness(new SchedulePermutationSolution(1, 2, null, plan, arbiter));
+          assertEquals(expected.fitness(), result.fitness(), modes[m].name());
+          assertEquals(expected.fitnessFunction(), result.fitnessFunction(), modes[m].name());
+          assertEquals(expected.schedule(), result.schedule(), modes[m].name());
+        }
+      }
+    }
+  }
+
+  @Test
+  void CalculateFitnessStopsAtCutoff() {
 
+    InstanceData instanceData = loadFitnessTest();
+    var planGenerator = new PlanGenerator(new Random(1), instanceData);
+    var fitnessNames =
+        List.of(
+            "simple",
+            "heft",
+            "rank",
+            "heft-energy-active",
+            "min-energy-UM-semi-active",
+            "fvlt-me-active",
+            "multi");
+
+    for (var fitnessName : fitnessNames) {
+      var calculator = FitnessCalculator.getFitness(fitnessName, instanceData, new ArrayList<>());
+      for (int i = 0; i < 20; i++) {
+        var plan = planGenerator.generatePlan();
+        for (var objective : List.of("makespan", "energy")) {
+          var expected =
+              calculator.calculateFitness(
+                  new SchedulePermutationSolution(1, 2, null, plan, objective));
+          double value = expected.fitness().get(objective);
+
+          // A cutoff just over the value can't stop the evaluation.
+          var improved =
+              calculator.calculateFitness(
+                  new SchedulePermutationSolution(1, 2, null, plan, objective),
+                  objective,
+                  Math.nextUp(value));
+          assertEquals(expected.fitness(), improved.fitness(), fitnessName);
+          assertEquals(expected.schedule(), improved.schedule(), fitnessName);
+
+          if (objective.equals("makespan")) {
+            var stopped =
+                calculator.calculateFitness(
+                    new SchedulePermutationSolution(1, 2, null, plan, objective),
+                    objective,
+                    value);
+            assertTrue(stopped.isDominated(), fitnessName);
+          }
+        }
+      }
+    }
+  }
 
+  @Test
+  void CalculateFitnessSimpleResumesFromParent() {
 
+    InstanceData instanceData = loadFitnessTest();
+    var planGenerator = new PlanGenerator(new Random(1), instanceData);
+    var operators = new Operators(instanceData, new Random(1));
+    var crossover = new ScheduleCrossover(1, operators);
+    var mutation = new ScheduleMutation(1, operators);
+    var calculator = FitnessCalculator.getFitness("simple", instanceData, new ArrayList<>());
+
+    for (int i = 0; i < 50; i++) {
+      var parents = new ArrayList<SchedulePermutationSolution>();
+      for (int p = 0; p < 2; p++) {
+        var parent =
+            new SchedulePermutationSolution(1, 2, null, planGenerator.generatePlan(), "makespan");
+        var fitnessInfo = calculator.calculateFitness(parent);
+        parent.setFitnessInfo(fitnessInfo);
+        parent.setPlan(((DecodedSchedule) fitnessInfo.schedule()).plan());
+        parents.add(parent);
+      }
+
+      var children = new ArrayList<>(crossover.execute(parents));
+      children.add(mutation.execute(parents.get(0)));
+      for (var child : children) {
+        var fresh =
+            new SchedulePermutationSolution(1, 2, null, child.getPlan(), child.getArbiter());
+        var expected = calculator.calculateFitness(fresh);
+        var result = calculator.calculateFitness(child);
+
+        assertEquals(expected.fitness(), result.fitness());
+        assertEquals(expected.schedule(), result.schedule());
+      }
+    }
+  }
 }
@@ -2,8 +2,10 @@ package com.uniovi.sercheduler.service;
 
 import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.uniovi.sercheduler.dto.InstanceData;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 import org.junit.jupiter.api.Test;
@@ -146,8 +148,47 @@ public class OperatorsTest {
 
   }
 
+  @Test
+  void hashesAreUpdatedIncrementally() {
+    InstanceData instanceData = loadFitnessTest();
+    var planGenerator = new PlanGenerator(new Random(3L), instanceData);
+    Operators operators = new Operators(instanceData, new Random(5L));
 
+    for (int i = 0; i < 50; i++) {
+      var plan1 = planGenerator.generatePlan();
+      var plan2 = planGenerator.generatePlan();
 
+      var mutated = operators.mutate(plan1, PlanHash.of(plan1));
+      assertEquals(PlanHash.of(mutated.plan()), mutated.hash());
+
+      var child = operators.doHashedCrossover(plan1, plan2);
+      assertEquals(PlanHash.of(child.plan()), child.hash());
+    }
+  }
 
+  @Test
+  void variationKeepsTheTopologyOrder() {
+    InstanceData instanceData = loadFitnessTest();
+    var planGenerator = new PlanGenerator(new Random(7L), instanceData);
+    Operators operators = new Operators(instanceData, new Random(8L));
+
+    var plan = planGenerator.generatePlan();
+    for (int i = 0; i < 200; i++) {
+      var mutated = operators.mutate(plan);
+      assertTopologyOrder(instanceData, mutated);
+      plan = operators.doCrossover(mutated, planGenerator.generatePlan());
+      assertTopologyOrder(instanceData, plan);
+    }
+  }
 
+  private static void assertTopologyOrder(InstanceData instanceData, List<PlanPair> plan) {
+    assertEquals(instanceData.workflow().size(), plan.size());
+    var scheduled = new HashSet<String>();
+    for (var planPair : plan) {
+      for (var parent : planPair.task().getParents()) {
+        assertTrue(scheduled.contains(parent.getName()));
+      }
+      assertTrue(scheduled.add(planPair.task().getName()));
+    }
+  }
 }
@@ -5,16 +5,19 @@ import com.uniovi.sercheduler.dto.InstanceData;
 import com.uniovi.sercheduler.jmetal.algorithm.MOACO;
 import com.uniovi.sercheduler.jmetal.algorithm.MoAcoParameters;
 import com.uniovi.sercheduler.jmetal.evaluation.SequentialEvaluationMulti;
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
 import com.uniovi.sercheduler.jmetal.problem.SchedulingProblem;
 import com.uniovi.sercheduler.util.NonDominatedChecker;
 import org.junit.jupiter.api.Test;
 import org.uma.jmetal.component.catalogue.common.evaluation.impl.SequentialEvaluation;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 
 import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -47,24 +50,23 @@ class MoAcoTest {
 
     var result = moAco.result();
 
-    assertEquals(12, result.size());
+    assertEquals(11, result.size());
     // Verify non-domination
     assertTrue(NonDominatedChecker.areAllNonDominated(result));
 
     List<Map<String, Double>> expectedObjectives =
         List.of(
-            Map.of("energy", 538.5, "makespan", 204.0),
-            Map.of("energy", 368.9, "makespan", 263.5),
-            Map.of("energy", 574.5, "makespan", 195.0),
             Map.of("energy", 404.9, "makespan", 254.5),
-            Map.of("energy", 515.3, "makespan", 208.0),
-            Map.of("energy", 451.69999999999993, "makespan", 245.5),
-            Map.of("energy", 562.0999999999999, "makespan", 199.0),
-            Map.of("energy", 476.69999999999993, "makespan", 223.5),
-            Map.of("energy", 495.69999999999993, "makespan", 216.5),
-            Map.of("energy", 469.49999999999994, "makespan", 241.5),
-            Map.of("energy", 555.8999999999999, "makespan", 201.0),
-            Map.of("energy", 594.15, "makespan", 187.5));
+            Map.of("energy", 553.65, "makespan", 196.5),
+            Map.of("energy", 495.7, "makespan", 216.5),
+            Map.of("energy", 368.9, "makespan", 263.5),
+            Map.of("energy", 516.9, "makespan", 204.0),
+            Map.of("energy", 545.0, "makespan", 203.5),
+            Map.of("energy", 455.49999999999994, "makespan", 222.5),
+            Map.of("energy", 419.49999999999994, "makespan", 231.5),
+            Map.of("energy", 502.2999999999999, "makespan", 213.5),
+            Map.of("energy", 585.7, "makespan", 180.5),
+            Map.of("energy", 559.1, "makespan", 193.0));
     for (int i = 0; i < result.size(); i++) {
       var fitness = result.get(i).getFitnessInfo().fitness();
       assertEquals(
@@ -105,15 +107,16 @@ class MoAcoTest {
 
     var result = moAco.result();
 
-    assertEquals(3, result.size());
+    assertEquals(4, result.size());
     // Verify non-domination
     assertTrue(NonDominatedChecker.areAllNonDominated(result));
 
     List<Map<String, Double>> expectedObjectives =
         List.of(
-            Map.of("energy", 503.85, "makespan", 181.5),
-            Map.of("energy", 461.70000000000005, "makespan", 184.5),
-            Map.of("energy", 560.95, "makespan", 180.5));
+            Map.of("energy", 534.4000000000001, "makespan", 180.5),
+            Map.of("energy", 483.00000000000006, "makespan", 187.5),
+            Map.of("energy", 499.6, "makespan", 186.5),
+            Map.of("energy", 431.20000000000005, "makespan", 222.5));
 
     for (int i = 0; i < result.size(); i++) {
       var fitness = result.get(i).getFitnessInfo().fitness();
@@ -127,4 +130,37 @@ class MoAcoTest {
           1e-6);
     }
   }
+
+  @Test
+  void testMoAcoDoesNotDependOnTheThreads() {
+
+    InstanceData instanceData = loadFitnessTest();
+
+    List<List<SchedulePermutationSolution>> results = new ArrayList<>();
+    for (int threads : List.of(1, 4)) {
+      var problem =
+          new SchedulingProblem(
+              "Schedule test",
+              "simple",
+              1L,
+              instanceData,
+              List.of(Objective.ENERGY, Objective.MAKESPAN),
+              "energy",
+              1);
+      var moAco =
+          new MOACO(
+              problem,
+              new Random(1L),
+              new SequentialEvaluation<>(problem),
+              new MoAcoParameters(50, 10, 1.0, 1.0, 2.0, 0.1, threads));
+      moAco.run();
+      results.add(moAco.result());
+    }
+
+    assertEquals(results.get(0).size(), results.get(1).size());
+    for (int i = 0; i < results.get(0).size(); i++) {
+      assertArrayEquals(results.get(0).get(i).objectives(), results.get(1).get(i).objectives());
+      assertEquals(results.get(0).get(i).getPlan(), results.get(1).get(i).getPlan());
+    }
+  }
 }
@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 
 import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -49,6 +50,20 @@ class MoHeftTest {
 
     }
 
+    @Test
+    void calculateMoHeftDoesNotDependOnTheThreads() {
+        InstanceData instanceData = loadFitnessTest();
+
+        var sequential = new MoHeft(instanceData, 1).calculate(10);
+        var parallel = new MoHeft(instanceData, 4).calculate(10);
+
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertArrayEquals(sequential.get(i).objectives(), parallel.get(i).objectives());
+            assertEquals(sequential.get(i).getPlan(), parallel.get(i).getPlan());
+        }
+    }
+
 
 
 
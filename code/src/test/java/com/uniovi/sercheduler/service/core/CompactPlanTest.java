@@ -0,0 +1,58 @@
+package com.uniovi.sercheduler.service.core;
+
+import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.uniovi.sercheduler.jmetal.problem.SchedulePermutationSolution;
+import com.uniovi.sercheduler.service.PlanGenerator;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class CompactPlanTest {
+
+  @Test
+  void compactPlanIsTheSameList() {
+    var instanceData = loadFitnessTest();
+    var compiled = InstancePrecomputation.of(instanceData).getCompiledInstance();
+    var plan = new PlanGenerator(new Random(1L), instanceData).generatePlan();
+
+    var compact = CompactPlan.of(compiled, plan);
+
+    assertEquals(plan, compact);
+    assertEquals(compact, plan);
+    assertEquals(plan.hashCode(), compact.hashCode());
+    assertSame(compact, CompactPlan.of(compiled, compact));
+    assertSame(compact.get(0), compiled.pair(compact.taskAt(0), compact.hostAt(0)));
+  }
+
+  @Test
+  void arraysAreReusedWhenEveryOwnerReleases() {
+    var instanceData = loadFitnessTest();
+    var compiled = InstancePrecomputation.of(instanceData).getCompiledInstance();
+    var pool = new PlanArrayPool(compiled, 4);
+    var original =
+        CompactPlan.of(compiled, new PlanGenerator(new Random(1L), instanceData).generatePlan());
+
+    var written = pool.edit(original).build();
+    var solution = new SchedulePermutationSolution(1, 2, null, written, "makespan");
+    var copy = (SchedulePermutationSolution) solution.copy();
+
+    assertSame(written, copy.getPlan());
+    assertEquals(original, written);
+
+    written.release();
+    assertEquals(0, pool.available());
+    assertEquals(original, copy.getPlan());
+
+    written.release();
+    assertEquals(2, pool.available());
+    assertThrows(IllegalStateException.class, written::retain);
+
+    var reused = pool.create();
+    assertEquals(0, pool.available());
+    reused.build().release();
+    assertEquals(2, pool.available());
+  }
+}
@@ -0,0 +1,34 @@
+package com.uniovi.sercheduler.service.core;
+
+import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.uniovi.sercheduler.service.PlanPair;
+import org.junit.jupiter.api.Test;
+
+class DecodedScheduleTest {
+
+  @Test
+  void orderedByAstKeepingDecodeOrderOnTies() {
+    var instance = InstancePrecomputation.of(loadFitnessTest()).getCompiledInstance();
+    var workspace = new EvaluationWorkspace(instance).reset();
+
+    // Decoded order: 0, 1, 2, 3, 4 with ast 5, 0, 5, 0, 3
+    double[] ast = {5D, 0D, 5D, 0D, 3D};
+    for (int i = 0; i < ast.length; i++) {
+      workspace.schedule(i, i, i % instance.hostCount(), ast[i], ast[i] + 1);
+    }
+    var schedule = workspace.snapshot(ast.length);
+
+    int[] expected = {1, 3, 4, 0, 2};
+    assertEquals(expected.length, schedule.size());
+    assertEquals(expected.length, schedule.plan().size());
+    for (int i = 0; i < expected.length; i++) {
+      var task = instance.task(expected[i]);
+      var host = instance.host(expected[i] % instance.hostCount());
+      assertEquals(task, schedule.get(i).task());
+      assertEquals(ast[expected[i]], schedule.get(i).ast());
+      assertEquals(new PlanPair(task, host), schedule.plan().get(i));
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package com.uniovi.sercheduler.service.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class HostGapsTest {
+
+  @Test
+  void earliestFitUsesFirstGapAfterParents() {
+    var gaps = new HostGaps(1);
+    gaps.occupy(0, 10D, 20D);
+    gaps.occupy(0, 30D, 40D);
+
+    // Gaps are [0, 10], [20, 30] and [40, MAX]
+    assertEquals(3, gaps.size(0));
+    assertEquals(0D, gaps.earliestFit(0, 0D, 10D));
+    assertEquals(20D, gaps.earliestFit(0, 5D, 10D));
+    assertEquals(40D, gaps.earliestFit(0, 0D, 11D));
+    assertEquals(20D, gaps.earliestFit(0, 15D, 5D));
+    // A task can't start in the middle of a gap, only in the last one.
+    assertEquals(40D, gaps.earliestFit(0, 25D, 2D));
+    assertEquals(45D, gaps.earliestFit(0, 45D, 2D));
+    assertEquals(40D, gaps.lastStart(0));
+  }
+
+  @Test
+  void occupySplitsAndRemovesEmptyGaps() {
+    var gaps = new HostGaps(2);
+    gaps.occupy(1, 0D, 10D);
+    gaps.occupy(1, 20D, 30D);
+    gaps.occupy(1, 10D, 15D);
+
+    // Gaps are [15, 20] and [30, MAX]
+    assertEquals(2, gaps.size(1));
+    assertEquals(15D, gaps.start(1, 0));
+    assertEquals(20D, gaps.end(1, 0));
+    assertEquals(30D, gaps.start(1, 1));
+    assertEquals(Double.MAX_VALUE, gaps.end(1, 1));
+
+    gaps.occupy(1, 15D, 20D);
+    assertEquals(1, gaps.size(1));
+    assertEquals(30D, gaps.lastStart(1));
+
+    // The other host is untouched
+    assertEquals(1, gaps.size(0));
+    assertEquals(0D, gaps.lastStart(0));
+  }
+
+  @Test
+  void occupyOutsideGapsFails() {
+    var gaps = new HostGaps(1);
+    gaps.occupy(0, 0D, 10D);
+
+    assertThrows(IllegalStateException.class, () -> gaps.occupy(0, 5D, 12D));
+  }
+
+  @Test
+  void copiesAreIndependent() {
+    var gaps = new HostGaps(1);
+    gaps.occupy(0, 5D, 10D);
+
+    var copy = new HostGaps(gaps);
+    copy.occupy(0, 20D, 30D);
+
+    assertEquals(2, gaps.size(0));
+    assertEquals(3, copy.size(0));
+
+    gaps.copyFrom(copy);
+    assertEquals(3, gaps.size(0));
+    assertEquals(30D, gaps.lastStart(0));
+  }
+}
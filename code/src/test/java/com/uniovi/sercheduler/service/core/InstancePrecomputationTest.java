@@ -0,0 +1,103 @@
+package com.uniovi.sercheduler.service.core;
+
+import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class InstancePrecomputationTest {
+
+  @Test
+  void sameInstanceSharesPrecomputation() {
+    var instanceData = loadFitnessTest();
+
+    var first = InstancePrecomputation.of(instanceData);
+    var second = InstancePrecomputation.of(instanceData);
+
+    assertSame(first, second);
+    assertSame(first.getCompiledInstance(), second.getCompiledInstance());
+  }
+
+  @Test
+  void equalInstancesAreKeyedByIdentity() {
+    var instanceData = loadFitnessTest();
+    var sameContent = loadFitnessTest();
+
+    assertNotSame(InstancePrecomputation.of(instanceData), InstancePrecomputation.of(sameContent));
+  }
+
+  @Test
+  void heftRankingMatchesHelper() {
+    var instanceData = loadFitnessTest();
+    var precomputation = InstancePrecomputation.of(instanceData);
+
+    var expected =
+        SchedulingHelper.calculateHeftRanking(
+            instanceData,
+            precomputation.getComputationMatrix(),
+            precomputation.getReferenceSpeedRead(),
+            precomputation.getReferenceSpeedWrite());
+
+    assertEquals(List.copyOf(expected.keySet()), precomputation.getHeftRankingTasks());
+    assertEquals(expected, precomputation.getHeftRanking());
+
+    double average = expected.values().stream().mapToDouble(x -> x).average().orElseThrow();
+    var compiled = precomputation.getCompiledInstance();
+    for (var entry : expected.entrySet()) {
+      assertEquals(
+          entry.getValue() > average,
+          precomputation.isPriorityTask(compiled.taskId(entry.getKey())));
+    }
+  }
+
+  @Test
+  void remainingCriticalPathFollowsFastestDescendants() {
+    var instanceData = loadFitnessTest();
+    var precomputation = InstancePrecomputation.of(instanceData);
+    var compiled = precomputation.getCompiledInstance();
+
+    for (int task = 0; task < compiled.taskCount(); task++) {
+      assertEquals(
+          remainingPath(compiled, task), precomputation.remainingCriticalPath(task), 1e-9);
+    }
+  }
+
+  @Test
+  void makespanBoundAddsTheRemainingPathToTheEft() {
+    var precomputation = InstancePrecomputation.of(loadFitnessTest());
+    var compiled = precomputation.getCompiledInstance();
+
+    for (int task = 0; task < compiled.taskCount(); task++) {
+      double remaining = precomputation.remainingCriticalPath(task);
+      double bound = precomputation.makespanBound(task, 10D);
+      if (remaining == 0D) {
+        assertEquals(10D, bound);
+      } else {
+        assertTrue(bound <= 10D + remaining);
+        assertEquals(10D + remaining, bound, 1e-6);
+      }
+    }
+  }
+
+  private static double remainingPath(CompiledInstance compiled, int task) {
+    double remaining = 0D;
+    for (int e = compiled.childOffsets()[task]; e < compiled.childOffsets()[task + 1]; e++) {
+      int child = compiled.children()[e];
+      double fastest = Double.MAX_VALUE;
+      for (int host = 0; host < compiled.hostCount(); host++) {
+        fastest =
+            Math.min(
+                fastest,
+                compiled.diskReadStaging(child, host)
+                    + compiled.diskWrite(child, host)
+                    + compiled.computation(child, host));
+      }
+      remaining = Math.max(remaining, fastest + remainingPath(compiled, child));
+    }
+    return remaining;
+  }
+}
@@ -8,10 +8,13 @@ import com.uniovi.sercheduler.service.calculator.FitnessCalculator;
 import com.uniovi.sercheduler.service.calculator.FitnessCalculatorSimple;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 import static com.uniovi.sercheduler.util.LoadTestInstanceData.loadFitnessTest;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class RandomKeysCoderTest {
 
@@ -49,4 +52,34 @@ class RandomKeysCoderTest {
         assertEquals(210D, result.fitness().get("makespan"));
         assertEquals (679.65D, result.fitness().get("energy"), 1e-10);
     }
+
+    @Test
+    void decodeTiesRespectingParents() {
+
+        InstanceData instanceData = loadFitnessTest();
+        RandomKeysCoder randomKeysCoder = new RandomKeysCoder(instanceData);
+
+        // Every task has the same priority and the last host.
+        var particle = new double[instanceData.workflow().size() * 2];
+        Arrays.fill(particle, instanceData.workflow().size(), particle.length, 1.0);
+
+        var plan = randomKeysCoder.decode(particle);
+        var hosts = List.copyOf(instanceData.hosts().values());
+        var lastHost = hosts.get(hosts.size() - 1);
+
+        assertEquals(instanceData.workflow().size(), plan.size());
+        var scheduled = new HashSet<String>();
+        for (var planPair : plan) {
+            for (var parent : planPair.task().getParents()) {
+                assertTrue(scheduled.contains(parent.getName()));
+            }
+            scheduled.add(planPair.task().getName());
+            assertEquals(lastHost, planPair.host());
+        }
+
+        var keys = new double[particle.length];
+        randomKeysCoder.encode(plan, keys);
+        assertEquals(randomKeysCoder.encode(plan), Arrays.stream(keys).boxed().toList());
+        assertEquals(plan, randomKeysCoder.decode(keys));
+    }
 }